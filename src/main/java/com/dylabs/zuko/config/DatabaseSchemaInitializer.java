@@ -0,0 +1,133 @@
+package com.dylabs.zuko.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Objetos de PostgreSQL que JPA no sabe declarar (extensiones, columnas generadas, índices GIN)
+// y el relleno de columnas añadidas a tablas que ya tenían filas.
+// Todas las sentencias son idempotentes y se ejecutan cuando Hibernate ya creó las tablas
+// (depende del entityManagerFactory) y antes de que el servidor web empiece a atender peticiones.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class DatabaseSchemaInitializer {
+
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS unaccent",
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            // unaccent() no es IMMUTABLE, así que no puede usarse en índices ni columnas generadas sin este envoltorio
+            """
+            CREATE OR REPLACE FUNCTION zuko_normalize(text) RETURNS text
+                LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+                AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, $1)) $$""",
+
+            searchVector("song", "title"),
+            ginIndex("song", "search_vector"),
+            trigramIndex("song", "title"),
+
+            searchVector("albums", "title"),
+            ginIndex("albums", "search_vector"),
+            trigramIndex("albums", "title"),
+
+            searchVector("artists", "name"),
+            ginIndex("artists", "search_vector"),
+            trigramIndex("artists", "name"),
+
+            searchVector("playlists", "name"),
+            ginIndex("playlists", "search_vector"),
+            trigramIndex("playlists", "name")
+    );
+
+    // playlist_song tenía solo (playlist_id, song_id): se completan position y added_at de las filas antiguas.
+    // playlists.version la escriben sentencias nativas, así que necesita un valor por defecto.
+    // Las posiciones son únicas por playlist: antes de crear la restricción se reparten de nuevo las playlists con
+    // posiciones repetidas. Es DEFERRABLE para que se compruebe al final de cada sentencia y no fila a fila, así
+    // renumber y applyOrder pueden intercambiar posiciones en un solo UPDATE.
+    private static final List<String> PLAYLIST_STATEMENTS = List.of(
+            """
+            UPDATE playlist_song ps SET position = r.rn * 65536
+            FROM (SELECT playlist_id, song_id, ROW_NUMBER() OVER (PARTITION BY playlist_id ORDER BY song_id) AS rn
+                  FROM playlist_song) r
+            WHERE ps.position IS NULL AND ps.playlist_id = r.playlist_id AND ps.song_id = r.song_id""",
+            "UPDATE playlist_song SET added_at = now() WHERE added_at IS NULL",
+            "ALTER TABLE playlist_song ALTER COLUMN added_at SET DEFAULT now()",
+            "UPDATE playlists SET version = 0 WHERE version IS NULL",
+            "ALTER TABLE playlists ALTER COLUMN version SET DEFAULT 0",
+            """
+            UPDATE playlist_song ps SET position = r.rn * 65536
+            FROM (SELECT playlist_id, song_id, ROW_NUMBER() OVER (PARTITION BY playlist_id ORDER BY position, song_id) AS rn
+                  FROM playlist_song
+                  WHERE playlist_id IN (SELECT playlist_id FROM playlist_song GROUP BY playlist_id, position HAVING COUNT(*) > 1)) r
+            WHERE ps.playlist_id = r.playlist_id AND ps.song_id = r.song_id""",
+            """
+            DO $$ BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_playlist_song_position') THEN
+                    ALTER TABLE playlist_song ADD CONSTRAINT uk_playlist_song_position
+                        UNIQUE (playlist_id, position) DEFERRABLE INITIALLY IMMEDIATE;
+                END IF;
+            END $$"""
+    );
+
+    // pin_count lo acumula PinCounterService sumando incrementos, así que parte del recuento real y vale 0 en filas nuevas
+    private static final List<String> PIN_STATEMENTS = List.of(
+            """
+            UPDATE playlists p SET pin_count = (SELECT COUNT(*) FROM shortcuts_playlists sp WHERE sp.playlist_id = p.playlist_id)
+            WHERE p.pin_count IS NULL""",
+            "ALTER TABLE playlists ALTER COLUMN pin_count SET DEFAULT 0",
+            """
+            UPDATE albums al SET pin_count = (SELECT COUNT(*) FROM shortcuts_albums sa WHERE sa.album_id = al.id)
+            WHERE al.pin_count IS NULL""",
+            "ALTER TABLE albums ALTER COLUMN pin_count SET DEFAULT 0"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean searchSchemaReady;
+
+    @PostConstruct
+    public void initialize() {
+        searchSchemaReady = execute("búsqueda", STATEMENTS);
+        if (!searchSchemaReady) {
+            log.error("Sin zuko_normalize ni search_vector las consultas full-text fallarían: se fuerza el índice de búsqueda en memoria");
+        }
+        execute("playlists", PLAYLIST_STATEMENTS);
+        execute("accesos directos", PIN_STATEMENTS);
+    }
+
+    // false si la función, las columnas o los índices de búsqueda no se pudieron crear
+    public boolean isSearchSchemaReady() {
+        return searchSchemaReady;
+    }
+
+    private boolean execute(String description, List<String> statements) {
+        try {
+            statements.forEach(jdbcTemplate::execute);
+            return true;
+        } catch (RuntimeException e) {
+            // Sin base de datos disponible (o sin permisos para crear extensiones) la app arranca igual
+            log.warn("No se pudo preparar el esquema de {} en PostgreSQL: {}", description, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String searchVector(String table, String column) {
+        return "ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS search_vector tsvector "
+                + "GENERATED ALWAYS AS (to_tsvector('spanish', zuko_normalize(coalesce(" + column + ", '')))) STORED";
+    }
+
+    private static String ginIndex(String table, String column) {
+        return "CREATE INDEX IF NOT EXISTS idx_" + table + "_" + column + " ON " + table + " USING gin (" + column + ")";
+    }
+
+    private static String trigramIndex(String table, String column) {
+        return "CREATE INDEX IF NOT EXISTS idx_" + table + "_" + column + "_trgm ON " + table
+                + " USING gin (zuko_normalize(" + column + ") gin_trgm_ops)";
+    }
+}
@@ -3,6 +3,7 @@ package com.dylabs.zuko.controller;
 import com.dylabs.zuko.dto.ApiResponse;
 import com.dylabs.zuko.dto.request.AlbumRequest;
 import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.service.AlbumService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 
+import static com.dylabs.zuko.security.AuthenticationUtils.currentUser;
+
 @RestController
 @RequestMapping("/albums")
 @RequiredArgsConstructor
@@ -26,8 +29,7 @@ public class AlbumController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> createAlbum(@RequestBody @Valid AlbumRequest request, Authentication authentication) {
 
-        String userIdFromToken = authentication.getName();
-        AlbumResponse response = albumService.createAlbum(request, userIdFromToken);
+        AlbumResponse response = albumService.createAlbum(request, currentUser(authentication));
         return ResponseEntity.status(HttpStatus.CREATED).body(
                 Map.of(
                         "message", "Álbum creado correctamente",
@@ -52,8 +54,10 @@ public class AlbumController {
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<Object> getAlbumsByTitle(@RequestParam String title) {
-        List<AlbumResponse> response = albumService.getAlbumsByTitle(title);
+    public ResponseEntity<Object> getAlbumsByTitle(@RequestParam String title,
+                                                   @RequestParam(defaultValue = "0") Integer page,
+                                                   @RequestParam(required = false) Integer limit) {
+        List<AlbumResponse> response = albumService.getAlbumsByTitle(title, page, limit);
         return ResponseEntity.ok(
                 Map.of(
                         "message", "Álbumes obtenidos correctamente",
@@ -65,8 +69,7 @@ public class AlbumController {
     @GetMapping("/search/artist")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> getAlbumsByTitleAndUser(@RequestParam String title, Authentication authentication) {
-        String userIdFromToken = authentication.getName();
-        List<AlbumResponse> response = albumService.getAlbumsByTitleAndUser(title, userIdFromToken);
+        List<AlbumResponse> response = albumService.getAlbumsByTitleAndUser(title, currentUser(authentication));
         return ResponseEntity.ok(
                 Map.of(
                         "message", "Álbumes obtenidos correctamente para el artista",
@@ -76,8 +79,10 @@ public class AlbumController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<AlbumResponse>>> getAllAlbums() {
-        List<AlbumResponse> response = albumService.getAllAlbums();
+    public ResponseEntity<ApiResponse<CursorPageResponse<AlbumResponse>>> getAllAlbums(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<AlbumResponse> response = albumService.getAllAlbums(cursor, limit);
         return ResponseEntity.ok(new ApiResponse<>("Álbumes obtenidos correctamente", response));
     }
 
@@ -92,8 +97,7 @@ public class AlbumController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> updateAlbum(@PathVariable Long id, @RequestBody @Valid AlbumRequest request, Authentication authentication) {
 
-        String userIdFromToken = authentication.getName();
-        AlbumResponse response = albumService.updateAlbum(id, request, userIdFromToken);
+        AlbumResponse response = albumService.updateAlbum(id, request, currentUser(authentication));
         return ResponseEntity.ok(
                 Map.of(
                         "message", "Álbum actualizado correctamente",
@@ -106,8 +110,7 @@ public class AlbumController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> deleteAlbum(@PathVariable Long id, Authentication authentication) {
 
-        String userIdFromToken = authentication.getName();
-        albumService.deleteAlbum(id, userIdFromToken);
+        albumService.deleteAlbum(id, currentUser(authentication));
         return ResponseEntity.ok(
                 Map.of(
                         "message", "Álbum eliminado correctamente"
@@ -3,6 +3,7 @@ package com.dylabs.zuko.controller;
 import com.dylabs.zuko.dto.ApiResponse;
 import com.dylabs.zuko.dto.request.CreateArtistRequest;
 import com.dylabs.zuko.dto.response.ArtistResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.service.ArtistService;
 import com.dylabs.zuko.dto.request.UpdateArtistRequest;
 import jakarta.validation.Valid;
@@ -15,6 +16,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+import static com.dylabs.zuko.security.AuthenticationUtils.currentUser;
+
 @RestController
 @RequestMapping("artists")
 @RequiredArgsConstructor
@@ -39,20 +42,23 @@ public class ArtistController {
             @Valid @RequestBody UpdateArtistRequest request,
             Authentication authentication
     ) {
-        String username = authentication.getName();
-        ArtistResponse updated = artistService.updateArtist(id, request, username);
+        ArtistResponse updated = artistService.updateArtist(id, request, currentUser(authentication));
         return ResponseEntity.ok(updated);
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ArtistResponse>>> getAllArtists() {
-        var artists = artistService.getAllArtists();
+    public ResponseEntity<ApiResponse<CursorPageResponse<ArtistResponse>>> getAllArtists(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        var artists = artistService.getAllArtists(cursor, limit);
         return ResponseEntity.ok(new ApiResponse<>("Lista de artistas", artists));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ArtistResponse>> searchArtists(@RequestParam String name) {
-        return ResponseEntity.ok(artistService.searchArtistsByName(name));
+    public ResponseEntity<List<ArtistResponse>> searchArtists(@RequestParam String name,
+                                                              @RequestParam(defaultValue = "0") Integer page,
+                                                              @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(artistService.searchArtistsByName(name, page, limit));
     }
 
     @GetMapping("/{id}")
@@ -65,8 +71,7 @@ public class ArtistController {
     @PatchMapping("/{id}/toggle-active")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<String> toggleArtistActiveStatus(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        artistService.toggleArtistActiveStatus(id, username);
+        artistService.toggleArtistActiveStatus(id, currentUser(authentication));
         return ResponseEntity.ok("Estado de actividad del artista actualizado correctamente.");
     }
 }
\ No newline at end of file
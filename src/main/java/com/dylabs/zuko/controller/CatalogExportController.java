@@ -0,0 +1,26 @@
+package com.dylabs.zuko.controller;
+
+import com.dylabs.zuko.service.CatalogExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/admin/export")
+@RequiredArgsConstructor
+public class CatalogExportController {
+    private final CatalogExportService catalogExportService;
+
+    @GetMapping(value = "/catalog", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportCatalog() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(catalogExportService::exportCatalog);
+    }
+}
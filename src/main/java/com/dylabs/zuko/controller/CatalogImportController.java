@@ -0,0 +1,37 @@
+package com.dylabs.zuko.controller;
+
+import com.dylabs.zuko.service.CatalogImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/admin/import")
+@RequiredArgsConstructor
+public class CatalogImportController {
+    private final CatalogImportService catalogImportService;
+
+    // La entrada se lee y la respuesta se escribe a medida que avanza la importación (NDJSON por fila con problemas)
+    @PostMapping(value = "/catalog", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importCatalog(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = request.getContentType() != null && request.getContentType().startsWith("text/csv");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            Writer out = response.getWriter();
+            catalogImportService.importCatalog(reader, csv, out);
+        }
+    }
+}
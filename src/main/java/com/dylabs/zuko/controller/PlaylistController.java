@@ -1,9 +1,17 @@
 package com.dylabs.zuko.controller;
 import com.dylabs.zuko.dto.ApiResponse;
 import com.dylabs.zuko.dto.request.AddSongtoPlaylistRequest;
+import com.dylabs.zuko.dto.request.ForkPlaylistRequest;
+import com.dylabs.zuko.dto.request.MovePlaylistSongRequest;
 import com.dylabs.zuko.dto.request.PlaylistRequest;
+import com.dylabs.zuko.dto.request.PlaylistSetOperationRequest;
 import com.dylabs.zuko.dto.request.UpdatePlaylistRequest;
+import com.dylabs.zuko.dto.request.UpdatePlaylistSongsRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
+import com.dylabs.zuko.dto.response.PlaylistEntryResponse;
 import com.dylabs.zuko.dto.response.PlaylistResponse;
+import com.dylabs.zuko.dto.response.PlaylistSongsUpdateResponse;
+import com.dylabs.zuko.dto.response.PlaylistOverviewResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.service.PlaylistService;
 import jakarta.validation.Valid;
@@ -15,6 +23,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
+import static com.dylabs.zuko.security.AuthenticationUtils.isAdmin;
+
 
 @RestController
 @RequestMapping("playlists")
@@ -33,28 +43,55 @@ public class PlaylistController {
     }
 
     @GetMapping("/{playlistId}")
-    public ResponseEntity<Object> getPlaylistById(@PathVariable Long playlistId, Authentication authentication) {
+    public ResponseEntity<Object> getPlaylistById(@PathVariable Long playlistId,
+                                                  @RequestParam(defaultValue = "false") boolean includeSongs,
+                                                  Authentication authentication) {
         String userId = authentication.getName();
-        PlaylistResponse response = playlistService.getPlaylistById(userId, playlistId);
+        // Por defecto solo la cabecera con el total de canciones; se paginan con GET /{playlistId}/songs
+        PlaylistResponse response = includeSongs
+                ? playlistService.getPlaylistById(userId, isAdmin(authentication), playlistId)
+                : playlistService.getPlaylistSummaryById(userId, isAdmin(authentication), playlistId);
         return ResponseEntity.ok(
                 new ApiResponse<>("Playlist obtenida correctamente", response));
     }
 
+    // La copia comparte las canciones de la original hasta que alguna de las dos las cambia
+    @PostMapping("/{playlistId}/fork")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Object> forkPlaylist(@PathVariable Long playlistId,
+                                               @RequestBody(required = false) @Valid ForkPlaylistRequest request,
+                                               Authentication authentication) {
+        String userId = authentication.getName();
+        PlaylistResponse response = playlistService.forkPlaylist(userId, isAdmin(authentication), playlistId,
+                request == null ? null : request.name());
+        return ResponseEntity.status(HttpStatus.CREATED).body(
+                new ApiResponse<>("Copia de la playlist creada correctamente", response));
+    }
+
     @DeleteMapping("/{playlistId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> deletePlaylist(@PathVariable Long playlistId, Authentication authentication) {
         String userId = authentication.getName();
-        playlistService.deletePlaylist(userId, playlistId);
+        playlistService.deletePlaylist(userId, isAdmin(authentication), playlistId);
         return ResponseEntity
                 .ok(new ApiResponse<>("Playlist eliminada correctamente", null));
     }
 
     @GetMapping("/{playlistId}/songs")
-    public ResponseEntity<Object> listSongsInPlaylist(@PathVariable Long playlistId, Authentication authentication) {
+    public ResponseEntity<Object> listSongsInPlaylist(@PathVariable Long playlistId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(defaultValue = "false") boolean full,
+                                                      Authentication authentication) {
         String userId = authentication.getName();
-        List<SongResponse> songs = playlistService.listSongsInPlaylist(userId, playlistId);
+        // Por defecto se pagina (Cursor.DEFAULT_LIMIT canciones sin limit); full=true devuelve la lista completa
+        if (full) {
+            List<SongResponse> songs = playlistService.listSongsInPlaylist(userId, isAdmin(authentication), playlistId);
+            return ResponseEntity.ok(new ApiResponse<>("Lista de songs obtenida correctamente", songs));
+        }
+        CursorPageResponse<PlaylistEntryResponse> page = playlistService.listSongsInPlaylist(userId, isAdmin(authentication), playlistId, cursor, limit);
         return ResponseEntity.ok(
-                new ApiResponse<>("Lista de songs obtenida correctamente", songs)
+                new ApiResponse<>("Lista de songs obtenida correctamente", page)
         );
     }
     @PostMapping("/{playlistId}/songs")
@@ -64,11 +101,34 @@ public class PlaylistController {
             @RequestBody @Valid AddSongtoPlaylistRequest request,
             Authentication authentication) {
         String userId = authentication.getName();
-        playlistService.addSongToPlaylist(userId, playlistId, request.songId());
+        playlistService.addSongToPlaylist(userId, isAdmin(authentication), playlistId, request.songId(), request.afterSongId());
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ApiResponse<>("Canción añadida correctamente", null));
     }
 
+    @PatchMapping("/{playlistId}/songs")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Object> updatePlaylistSongs(
+            @PathVariable Long playlistId,
+            @RequestBody @Valid UpdatePlaylistSongsRequest request,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs(userId, isAdmin(authentication), playlistId, request);
+        return ResponseEntity.ok(new ApiResponse<>("Canciones de la playlist actualizadas correctamente", response));
+    }
+
+    @PutMapping("/{playlistId}/songs/{songId}/position")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Object> moveSongInPlaylist(
+            @PathVariable Long playlistId,
+            @PathVariable Long songId,
+            @RequestBody MovePlaylistSongRequest request,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        playlistService.moveSongInPlaylist(userId, isAdmin(authentication), playlistId, songId, request.afterSongId());
+        return ResponseEntity.ok(new ApiResponse<>("Canción movida correctamente", null));
+    }
+
     @DeleteMapping("/{playlistId}/songs/{songId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<Object> removeSongFromPlaylist(
@@ -76,14 +136,45 @@ public class PlaylistController {
             @PathVariable Long songId,
             Authentication authentication) {
         String userId = authentication.getName();
-        playlistService.removeSongFromPlaylist(userId, playlistId, songId);
+        playlistService.removeSongFromPlaylist(userId, isAdmin(authentication), playlistId, songId);
         return ResponseEntity.ok(
                 new ApiResponse<>("Canción eliminada correctamente", null));
     }
 
+    // 304 si la playlist no cambió desde "since"; si no, las operaciones posteriores o reset=true
+    @GetMapping("/{playlistId}/changes")
+    public ResponseEntity<Object> getPlaylistChanges(@PathVariable Long playlistId,
+                                                     @RequestParam long since,
+                                                     Authentication authentication) {
+        String userId = authentication.getName();
+        return playlistService.getPlaylistChanges(userId, isAdmin(authentication), playlistId, since)
+                .<ResponseEntity<Object>>map(changes -> ResponseEntity.ok(
+                        new ApiResponse<>("Cambios de la playlist obtenidos correctamente", changes)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
+    // Unión, intersección o diferencia de dos playlists; con saveAs el resultado se guarda como playlist nueva
+    @PostMapping("/combine")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Object> combinePlaylists(@RequestBody @Valid PlaylistSetOperationRequest request,
+                                                   Authentication authentication) {
+        String userId = authentication.getName();
+        if (request.saveAs() != null) {
+            PlaylistResponse response = playlistService.saveCombinedPlaylist(userId, isAdmin(authentication),
+                    request.operation(), request.leftPlaylistId(), request.rightPlaylistId(), request.saveAs());
+            return ResponseEntity.status(HttpStatus.CREATED).body(
+                    new ApiResponse<>("Playlist creada correctamente", response));
+        }
+        List<PlaylistEntryResponse> songs = playlistService.combinePlaylists(userId, isAdmin(authentication),
+                request.operation(), request.leftPlaylistId(), request.rightPlaylistId());
+        return ResponseEntity.ok(new ApiResponse<>("Canciones combinadas correctamente", songs));
+    }
+
     @GetMapping("/public/search")
-    public ResponseEntity<Object> searchPublicPlaylistsByName(@RequestParam String name) {
-        List<PlaylistResponse> playlists = playlistService.searchPublicPlaylistsByName(name);
+    public ResponseEntity<Object> searchPublicPlaylistsByName(@RequestParam String name,
+                                                              @RequestParam(defaultValue = "0") Integer page,
+                                                              @RequestParam(required = false) Integer limit) {
+        List<PlaylistResponse> playlists = playlistService.searchPublicPlaylistsByName(name, page, limit);
         return ResponseEntity.ok(new ApiResponse<>("Playlists encontradas", playlists));
     }
 
@@ -96,9 +187,15 @@ public class PlaylistController {
     }
 
     @GetMapping("/mine")
-    public ResponseEntity<Object> getMyPlaylists(Authentication authentication) {
+    public ResponseEntity<Object> getMyPlaylists(@RequestParam(defaultValue = "false") boolean full,
+                                                 Authentication authentication) {
         String userId = authentication.getName();
-        List<PlaylistResponse> response = playlistService.getAllPlaylistsByUser(userId);
+        // Por defecto solo resúmenes con el total de canciones; full=true devuelve las canciones de cada playlist
+        if (full) {
+            List<PlaylistResponse> response = playlistService.getAllPlaylistsByUser(userId);
+            return ResponseEntity.ok(new ApiResponse<>("Playlists obtenidas correctamente", response));
+        }
+        List<PlaylistOverviewResponse> response = playlistService.getPlaylistOverviewsByUser(userId);
         return ResponseEntity.ok(new ApiResponse<>("Playlists obtenidas correctamente", response));
     }
 
@@ -109,7 +206,7 @@ public class PlaylistController {
             @RequestBody UpdatePlaylistRequest updatePlaylistRequest,
             Authentication authentication) {
         String userId = authentication.getName();
-        PlaylistResponse response = playlistService.editPlaylistById(playlistId, userId, updatePlaylistRequest);
+        PlaylistResponse response = playlistService.editPlaylistById(playlistId, userId, isAdmin(authentication), updatePlaylistRequest);
         return ResponseEntity.ok(new ApiResponse<>("Playlist editada correctamente", response));
 
     }
@@ -0,0 +1,24 @@
+package com.dylabs.zuko.controller;
+
+import com.dylabs.zuko.dto.ApiResponse;
+import com.dylabs.zuko.dto.response.SearchResponse;
+import com.dylabs.zuko.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("search")
+@RequiredArgsConstructor
+public class SearchController {
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<SearchResponse>> search(@RequestParam String q,
+                                                              @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(new ApiResponse<>("Resultados de búsqueda", searchService.search(q, limit)));
+    }
+}
@@ -2,8 +2,12 @@ package com.dylabs.zuko.controller;
 
 import com.dylabs.zuko.dto.ApiResponse;
 import com.dylabs.zuko.dto.request.AddPlaylistToShortcutsRequest;
+import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
+import com.dylabs.zuko.dto.response.PinnedAlbumResponse;
+import com.dylabs.zuko.dto.response.PinnedPlaylistResponse;
 import com.dylabs.zuko.dto.response.ShortcutsResponse;
-import com.dylabs.zuko.model.Album;
+import com.dylabs.zuko.dto.response.ShortcutsSummaryResponse;
 import com.dylabs.zuko.service.ShortcutsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -36,12 +40,33 @@ public class ShortcutsController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getShortcutsByUser(Authentication authentication) {
+    public ResponseEntity<Object> getShortcutsByUser(@RequestParam(defaultValue = "false") boolean full,
+                                                     Authentication authentication) {
         String userId = authentication.getName();
-        ShortcutsResponse response = shortcutsService.getShortcutsByUser(userId);
+        // Por defecto solo títulos y portadas; full=true incluye las canciones de cada álbum
+        if (full) {
+            ShortcutsResponse response = shortcutsService.getShortcutsByUser(userId);
+            return ResponseEntity.ok(new ApiResponse<>("Shortcuts de accesos directos", response));
+        }
+        ShortcutsSummaryResponse response = shortcutsService.getShortcutsSummaryByUser(userId);
         return ResponseEntity.ok(new ApiResponse<>("Shortcuts de accesos directos", response));
     }
 
+    // Rankings públicos de lo más fijado, paginados con cursor
+    @GetMapping("/ranking/playlists")
+    public ResponseEntity<Object> getMostPinnedPlaylists(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<PinnedPlaylistResponse> page = shortcutsService.getMostPinnedPlaylists(cursor, limit);
+        return ResponseEntity.ok(new ApiResponse<>("Playlists más fijadas", page));
+    }
+
+    @GetMapping("/ranking/albums")
+    public ResponseEntity<Object> getMostPinnedAlbums(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<PinnedAlbumResponse> page = shortcutsService.getMostPinnedAlbums(cursor, limit);
+        return ResponseEntity.ok(new ApiResponse<>("Álbumes más fijados", page));
+    }
+
     @PostMapping("/albums")
     public ResponseEntity<Object> addAlbumToShortcuts(@RequestParam Long albumId, Authentication authentication) {
         String userId = authentication.getName();
@@ -60,7 +85,7 @@ public class ShortcutsController {
     @GetMapping("/albums")
     public ResponseEntity<Object> getUserShortcutsAlbums(Authentication authentication) {
         String userId = authentication.getName();
-        Set<Album> albums = shortcutsService.getUserShortcutsAlbums(Long.parseLong(userId));
+        Set<AlbumResponse> albums = shortcutsService.getUserShortcutsAlbums(Long.parseLong(userId));
         return ResponseEntity.ok(new ApiResponse<>("Álbumes en accesos directos", albums));
     }
 
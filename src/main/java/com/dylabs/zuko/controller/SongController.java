@@ -1,6 +1,7 @@
 package com.dylabs.zuko.controller;
 
 import com.dylabs.zuko.dto.request.SongRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.service.SongService;
 import jakarta.validation.Valid;
@@ -12,6 +13,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+import static com.dylabs.zuko.security.AuthenticationUtils.currentUser;
+
 @RestController
 @RequestMapping("songs")
 @RequiredArgsConstructor
@@ -22,26 +25,22 @@ public class SongController {
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<SongResponse> createSong(@RequestBody @Valid SongRequest request, Authentication authentication) {
-        // Obtienes el username/id del token decodificado por Spring Security
-        String username = authentication.getName();
-
-        SongResponse response = songService.createSong(request, username);
+        // El principal con rol y artista viene ya decodificado del token
+        SongResponse response = songService.createSong(request, currentUser(authentication));
         return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<SongResponse> updateSong(@PathVariable Long id, @RequestBody @Valid SongRequest request, Authentication authentication) {
-        String username = authentication.getName();
-        SongResponse response = songService.updateSong(id, request, username);
+        SongResponse response = songService.updateSong(id, request, currentUser(authentication));
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<List<SongResponse>> getOwnSongs(Authentication authentication) {
-        String username = authentication.getName();
-        List<SongResponse> songs = songService.getSongsByUser(username);
+        List<SongResponse> songs = songService.getSongsByUser(currentUser(authentication));
         return ResponseEntity.ok(songs);
     }
 
@@ -52,8 +51,10 @@ public class SongController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<SongResponse>> searchSongs(@RequestParam String title) {
-        List<SongResponse> songs = songService.searchPublicSongsByTitle(title);
+    public ResponseEntity<List<SongResponse>> searchSongs(@RequestParam String title,
+                                                          @RequestParam(defaultValue = "0") Integer page,
+                                                          @RequestParam(required = false) Integer limit) {
+        List<SongResponse> songs = songService.searchPublicSongsByTitle(title, page, limit);
         return ResponseEntity.ok(songs);
     }
 
@@ -66,14 +67,15 @@ public class SongController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public SongResponse deleteSong(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        return songService.deleteSong(id, username);
+        return songService.deleteSong(id, currentUser(authentication));
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<SongResponse>> getAllSongs() {
-        List<SongResponse> songs = songService.getAllSongs();
+    public ResponseEntity<CursorPageResponse<SongResponse>> getAllSongs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<SongResponse> songs = songService.getAllSongs(cursor, limit);
         return ResponseEntity.ok(songs);
     }
 
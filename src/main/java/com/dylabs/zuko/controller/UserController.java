@@ -6,16 +6,20 @@ import com.dylabs.zuko.dto.request.GoogleOAuthRequest;
 import com.dylabs.zuko.dto.request.LoginRequest;
 import com.dylabs.zuko.dto.request.UpdateUserRequest;
 import com.dylabs.zuko.dto.response.AuthResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.UserResponse;
 import com.dylabs.zuko.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+import static com.dylabs.zuko.security.AuthenticationUtils.currentUser;
+
 @RestController
 @RequestMapping("users")
 @RequiredArgsConstructor
@@ -36,14 +40,16 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
+    public ResponseEntity<CursorPageResponse<UserResponse>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<UserResponse> users = userService.getAllUsers(cursor, limit);
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
     @PatchMapping("/{id}/toggle-active")
-    public ResponseEntity<String> toggleUserActiveStatus(@PathVariable Long id) {
-        userService.toggleUserActiveStatus(id);
+    public ResponseEntity<String> toggleUserActiveStatus(@PathVariable Long id, Authentication authentication) {
+        userService.toggleUserActiveStatus(id, currentUser(authentication));
         return ResponseEntity.ok("Estado de actividad del usuario actualizado correctamente.");
     }
 
@@ -55,8 +61,9 @@ public class UserController {
 
     @PatchMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id,
-                                                   @Valid @RequestBody UpdateUserRequest updateRequest) {
-        UserResponse updatedUser = userService.updateUser(id, updateRequest);
+                                                   @Valid @RequestBody UpdateUserRequest updateRequest,
+                                                   Authentication authentication) {
+        UserResponse updatedUser = userService.updateUser(id, updateRequest, currentUser(authentication));
         return new ResponseEntity<>(updatedUser, HttpStatus.OK);
     }
 
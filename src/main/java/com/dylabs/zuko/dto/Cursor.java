@@ -0,0 +1,46 @@
+package com.dylabs.zuko.dto;
+
+import com.dylabs.zuko.exception.paginationExceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Cursor opaco para paginación keyset: codifica las claves de orden de la última fila entregada
+public final class Cursor {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private Cursor() {}
+
+    public static String encode(long... keys) {
+        String raw = String.join(":", Arrays.stream(keys).mapToObj(Long::toString).toList());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long[] decode(String cursor, int parts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long[] keys = Arrays.stream(raw.split(":")).mapToLong(Long::parseLong).toArray();
+            if (keys.length != parts) {
+                throw new InvalidCursorException("El cursor de paginación no es válido.");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("El cursor de paginación no es válido.");
+        }
+    }
+
+    // Sin cursor se empieza desde el primer id
+    public static long afterId(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0L : decode(cursor, 1)[0];
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 
 public record AddSongtoPlaylistRequest(
         @NotNull(message = "Es obligatorio añadir una canción")
-        Long songId
+        Long songId,
+        Long afterSongId // opcional: sin él la canción se añade al final
 ) {
 }
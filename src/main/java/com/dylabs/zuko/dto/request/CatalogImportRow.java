@@ -0,0 +1,18 @@
+package com.dylabs.zuko.dto.request;
+
+import java.time.LocalDate;
+
+// Una fila de la importación masiva: una canción y, opcionalmente, el álbum al que pertenece
+public record CatalogImportRow(
+        Long artistId,
+        String artist,
+        String title,
+        Boolean isPublic,
+        LocalDate releaseDate,
+        String youtubeUrl,
+        String imageUrl,
+        String album,
+        Integer releaseYear,
+        String genre,
+        String cover
+) {}
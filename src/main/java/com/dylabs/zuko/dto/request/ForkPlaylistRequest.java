@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+// name opcional: sin él la copia conserva el nombre de la playlist original
+public record ForkPlaylistRequest(
+        @Size(min = 3, message = "El nombre debe tener al menos 3 caracteres")
+        String name
+) {
+}
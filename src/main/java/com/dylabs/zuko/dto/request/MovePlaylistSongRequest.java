@@ -0,0 +1,7 @@
+package com.dylabs.zuko.dto.request;
+
+// afterSongId null mueve la canción al principio de la playlist
+public record MovePlaylistSongRequest(
+        Long afterSongId
+) {
+}
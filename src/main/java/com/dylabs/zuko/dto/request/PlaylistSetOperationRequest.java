@@ -0,0 +1,18 @@
+package com.dylabs.zuko.dto.request;
+
+import com.dylabs.zuko.model.PlaylistSetOperation;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// saveAs opcional: con él el resultado se guarda como una nueva playlist privada con ese nombre
+public record PlaylistSetOperationRequest(
+        @NotNull(message = "La operación es obligatoria")
+        PlaylistSetOperation operation,
+        @NotNull(message = "Es obligatorio indicar la primera playlist")
+        Long leftPlaylistId,
+        @NotNull(message = "Es obligatorio indicar la segunda playlist")
+        Long rightPlaylistId,
+        @Size(min = 3, message = "El nombre debe tener al menos 3 caracteres")
+        String saveAs
+) {
+}
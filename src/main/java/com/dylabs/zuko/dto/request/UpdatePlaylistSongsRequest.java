@@ -0,0 +1,17 @@
+package com.dylabs.zuko.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Cambios masivos sobre las canciones de una playlist: altas/bajas o la lista completa de reemplazo
+public record UpdatePlaylistSongsRequest(
+        @Size(max = 1000, message = "No se pueden añadir más de 1000 canciones por petición")
+        List<@NotNull Long> add,
+        @Size(max = 1000, message = "No se pueden quitar más de 1000 canciones por petición")
+        List<@NotNull Long> remove,
+        @Size(max = 1000, message = "La playlist no puede reemplazarse con más de 1000 canciones por petición")
+        List<@NotNull Long> replace
+) {
+}
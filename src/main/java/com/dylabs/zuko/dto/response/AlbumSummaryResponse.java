@@ -0,0 +1,9 @@
+package com.dylabs.zuko.dto.response;
+
+// Álbum para accesos directos: sin canciones ni género
+public record AlbumSummaryResponse(
+        Long albumId,
+        String title,
+        String cover,
+        String artistName
+) {}
@@ -1,10 +1,22 @@
 package com.dylabs.zuko.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public record ArtistResponse(
         Long id,
         String name,
         String country,
         String biography,
         Long userId,
-        boolean isActive
-) {}
\ No newline at end of file
+        boolean isActive,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String token // solo al crear el perfil: sustituye a los tokens del usuario, que ya no valen
+) {
+    public ArtistResponse(Long id, String name, String country, String biography, Long userId, boolean isActive) {
+        this(id, name, country, biography, userId, isActive, null);
+    }
+
+    public ArtistResponse withToken(String token) {
+        return new ArtistResponse(id, name, country, biography, userId, isActive, token);
+    }
+}
@@ -0,0 +1,6 @@
+package com.dylabs.zuko.dto.response;
+
+public record CatalogExportLine(
+        String type, // export | song | album
+        Object data
+) {}
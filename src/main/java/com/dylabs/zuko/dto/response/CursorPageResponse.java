@@ -0,0 +1,19 @@
+package com.dylabs.zuko.dto.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPageResponse<T>(
+        List<T> items,
+        String next // null cuando no hay más páginas
+) {
+    // rows debe traer limit + 1 filas para saber si existe una página siguiente
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int limit,
+                                                  Function<E, T> mapper,
+                                                  Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageResponse<>(page.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,8 @@
+package com.dylabs.zuko.dto.response;
+
+public record ImportRowResult(
+        long line,
+        String status, // error | duplicate
+        Long songId,
+        String message
+) {}
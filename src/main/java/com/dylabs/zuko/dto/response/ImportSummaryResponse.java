@@ -0,0 +1,9 @@
+package com.dylabs.zuko.dto.response;
+
+public record ImportSummaryResponse(
+        long rows,
+        long created,
+        long duplicates,
+        long failed,
+        long albumsCreated
+) {}
@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.response;
+
+// Entrada del ranking de los más fijados en accesos directos
+public record PinnedAlbumResponse(
+        Long albumId,
+        String title,
+        String cover,
+        String artistName,
+        Long pinCount
+) {}
@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.response;
+
+// Entrada del ranking de los más fijados en accesos directos
+public record PinnedPlaylistResponse(
+        Long playlistId,
+        String name,
+        String urlImage,
+        String owner,
+        Long pinCount
+) {}
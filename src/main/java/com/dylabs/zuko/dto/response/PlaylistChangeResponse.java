@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.response;
+
+import com.dylabs.zuko.model.PlaylistChangeType;
+
+public record PlaylistChangeResponse(
+        long version,
+        PlaylistChangeType operation,
+        Long songId,
+        Long position
+) {}
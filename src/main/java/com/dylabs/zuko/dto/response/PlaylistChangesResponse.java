@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.response;
+
+import java.util.List;
+
+public record PlaylistChangesResponse(
+        Long playlistId,
+        long version,
+        boolean reset, // true: el registro no alcanza, hay que volver a descargar la playlist
+        List<PlaylistChangeResponse> changes
+) {}
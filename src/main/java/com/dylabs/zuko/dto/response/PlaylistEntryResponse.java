@@ -0,0 +1,8 @@
+package com.dylabs.zuko.dto.response;
+
+import java.time.LocalDateTime;
+
+public record PlaylistEntryResponse(
+        LocalDateTime addedAt,
+        SongResponse song
+) {}
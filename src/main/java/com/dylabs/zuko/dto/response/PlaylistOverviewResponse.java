@@ -0,0 +1,10 @@
+package com.dylabs.zuko.dto.response;
+
+// Vista ligera de una playlist propia para listados: sin canciones, solo el total
+public record PlaylistOverviewResponse(
+        Long playlistId,
+        String name,
+        String url_image,
+        boolean isPublic,
+        long songCount
+) {}
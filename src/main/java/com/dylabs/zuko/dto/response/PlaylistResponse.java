@@ -1,5 +1,7 @@
 package com.dylabs.zuko.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.util.Set;
 
@@ -9,7 +11,17 @@ public record PlaylistResponse(
         String description,
         boolean isPublic,
         LocalDate createdAt,
-        Set<SongResponse> songs,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Set<SongResponse> songs, // null en la vista resumida (solo songCount)
         String url_image,
-        Long userID
-) {}
\ No newline at end of file
+        Long userID,
+        long songCount,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long version // punto de partida para GET /playlists/{id}/changes?since=
+) {
+    public PlaylistResponse(Long playlistId, String name, String description, boolean isPublic, LocalDate createdAt,
+                            Set<SongResponse> songs, String url_image, Long userID) {
+        this(playlistId, name, description, isPublic, createdAt, songs, url_image, userID,
+                songs == null ? 0 : songs.size(), null);
+    }
+}
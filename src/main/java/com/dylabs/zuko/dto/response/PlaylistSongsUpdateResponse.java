@@ -0,0 +1,8 @@
+package com.dylabs.zuko.dto.response;
+
+public record PlaylistSongsUpdateResponse(
+        Long playlistId,
+        int added,
+        int removed
+) {
+}
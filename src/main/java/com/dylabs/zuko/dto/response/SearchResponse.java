@@ -0,0 +1,14 @@
+package com.dylabs.zuko.dto.response;
+
+import java.util.List;
+
+public record SearchResponse(
+        String query,
+        List<SongResponse> songs,
+        List<AlbumResponse> albums,
+        List<ArtistResponse> artists,
+        List<PlaylistResponse> playlists,
+        List<UserResponse> users,
+        List<String> degraded // fuentes que fallaron o superaron el tiempo límite; sus listas vienen vacías
+) {
+}
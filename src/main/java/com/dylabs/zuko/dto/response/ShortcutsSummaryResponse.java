@@ -0,0 +1,8 @@
+package com.dylabs.zuko.dto.response;
+
+import java.util.List;
+
+public record ShortcutsSummaryResponse(
+        List<PlaylistSummaryResponse> playlists,
+        List<AlbumSummaryResponse> albums
+) {}
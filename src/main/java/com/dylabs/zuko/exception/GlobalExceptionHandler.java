@@ -5,6 +5,7 @@ import com.dylabs.zuko.exception.albumExceptions.AlbumNotFoundException;
 import com.dylabs.zuko.exception.albumExceptions.AlbumPermissionException;
 import com.dylabs.zuko.exception.albumExceptions.AlbumValidationException;
 import com.dylabs.zuko.exception.genreExeptions.GenreInUseException;
+import com.dylabs.zuko.exception.paginationExceptions.InvalidCursorException;
 import com.dylabs.zuko.exception.playlistExceptions.*;
 import com.dylabs.zuko.exception.roleExeptions.*;
 import com.dylabs.zuko.exception.shortcutsExceptions.PlaylistAlreadyInShortcutsException;
@@ -17,6 +18,7 @@ import com.dylabs.zuko.exception.userExeptions.UserAlreadyExistsException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistAlreadyExistsException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistValidationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -115,6 +117,18 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    // El pool de contraseñas está lleno: se rechaza enseguida en lugar de bloquear hilos de la petición
+    @ExceptionHandler(LoginUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleLoginUnavailable(LoginUnavailableException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setTitle("Inicio de sesión no disponible");
+        problem.setType(URI.create("/errors/login-unavailable"));
+        problem.setProperty("timestamp", Instant.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+
     @ExceptionHandler(OAuthException.class)
     public ProblemDetail handleOAuthException(OAuthException ex) {
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
@@ -256,6 +270,16 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(InvalidPlaylistSongsRequestException.class)
+    public ProblemDetail handleInvalidPlaylistSongsRequest(
+            InvalidPlaylistSongsRequestException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setTitle("Cambios de canciones no válidos");
+        problem.setType(URI.create("errors/invalid-playlist-songs-request"));
+        problem.setProperty("timestamp", Instant.now().toString());
+        return problem;
+    }
+
     @ExceptionHandler(PlaylistAccessDeniedException.class)
     public ProblemDetail handlePlaylistAccessDenied(
             PlaylistAccessDeniedException ex) {
@@ -286,6 +310,15 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursor(InvalidCursorException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setTitle("Cursor de paginación inválido");
+        problem.setType(URI.create("/errors/invalid-cursor"));
+        problem.setProperty("timestamp", Instant.now());
+        return problem;
+    }
+
 
 
 }
@@ -0,0 +1,7 @@
+package com.dylabs.zuko.exception.paginationExceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
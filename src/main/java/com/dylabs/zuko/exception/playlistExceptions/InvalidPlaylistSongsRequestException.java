@@ -0,0 +1,7 @@
+package com.dylabs.zuko.exception.playlistExceptions;
+
+public class InvalidPlaylistSongsRequestException extends RuntimeException {
+    public InvalidPlaylistSongsRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.dylabs.zuko.exception.userExeptions;
+
+public class LoginUnavailableException extends RuntimeException {
+    public LoginUnavailableException(String message) {
+        super(message);
+    }
+}
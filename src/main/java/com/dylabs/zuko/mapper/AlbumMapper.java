@@ -8,10 +8,13 @@ import com.dylabs.zuko.model.Album;
 import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.Genre;
 import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.projection.AlbumHeaderView;
+import com.dylabs.zuko.repository.projection.AlbumTrackView;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -74,6 +77,27 @@ public class AlbumMapper {
 
 
 
+    // Une las cabeceras con sus canciones (ambas obtenidas por proyección) respetando el orden de las cabeceras
+    public List<AlbumResponse> toResponses(List<AlbumHeaderView> headers, List<AlbumTrackView> tracks) {
+        Map<Long, List<AlbumSongSummaryResponse>> songsByAlbum = tracks.stream()
+                .collect(Collectors.groupingBy(AlbumTrackView::albumId,
+                        Collectors.mapping(AlbumTrackView::toSummary, Collectors.toList())));
+
+        return headers.stream()
+                .map(header -> new AlbumResponse(
+                        header.id(),
+                        header.title(),
+                        header.releaseYear(),
+                        header.cover(),
+                        header.artistId(),
+                        header.artistName(),
+                        header.genreName(),
+                        header.genreId(),
+                        songsByAlbum.getOrDefault(header.id(), List.of())
+                ))
+                .collect(Collectors.toList());
+    }
+
     public void updateAlbumFromRequest(Album album, AlbumRequest request, Genre genre, Artist artist) {
         album.setTitle(request.title());
         album.setReleaseYear(request.releaseYear());
@@ -5,10 +5,17 @@ import com.dylabs.zuko.dto.response.PlaylistResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.exception.songExceptions.SongNotFoundException;
 import com.dylabs.zuko.model.Playlist;
+import com.dylabs.zuko.model.PlaylistSong;
 import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.projection.PlaylistHeaderView;
+import com.dylabs.zuko.repository.projection.PlaylistTrackView;
+import com.dylabs.zuko.repository.PlaylistSongRepository;
 import com.dylabs.zuko.repository.SongRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -17,23 +24,108 @@ import java.util.stream.Collectors;
 public class PlaylistMapper {
 
     private final SongRepository songRepository;
+    private final PlaylistSongRepository playlistSongRepository;
 
     public PlaylistResponse toResponse(Playlist playlist) {
+        List<PlaylistSong> entries = entriesOf(playlist);
         PlaylistResponse playlistResponse = new PlaylistResponse(
                 playlist.getPlaylistId(),
                 playlist.getName(),
                 playlist.getDescription(),
                 playlist.isPublic(),
                 playlist.getCreatedAt(),
-                playlist.getSongs().stream()
-                        .map(this::toSongResponse)
-                        .collect(Collectors.toSet()),
+                entries.stream()
+                        .map(entry -> toSongResponse(entry.getSong()))
+                        .collect(Collectors.toCollection(LinkedHashSet::new)),
                 playlist.getUrl_image(),
-                playlist.getUser().getId()
+                playlist.getUser().getId(),
+                entries.size(),
+                playlist.getVersion()
         );
         return playlistResponse;
     }
 
+    public List<SongResponse> toSongResponses(Playlist playlist) {
+        return entriesOf(playlist).stream()
+                .map(entry -> toSongResponse(entry.getSong()))
+                .toList();
+    }
+
+    // Una bifurcación sin cambios no tiene filas propias: sus canciones son las de la playlist de origen
+    private List<PlaylistSong> entriesOf(Playlist playlist) {
+        if (playlist.getMembershipSourceId() == null) {
+            return playlist.getEntries();
+        }
+        return playlistSongRepository.findEntries(playlist.getMembershipSourceId());
+    }
+
+    public List<PlaylistResponse> toResponses(List<PlaylistHeaderView> headers, List<PlaylistTrackView> tracks) {
+        Map<Long, Set<SongResponse>> songsByPlaylist = songsByPlaylist(tracks);
+
+        return headers.stream()
+                .map(header -> new PlaylistResponse(
+                        header.playlistId(),
+                        header.name(),
+                        header.description(),
+                        header.isPublic(),
+                        header.createdAt(),
+                        songsByPlaylist.getOrDefault(header.playlistId(), Set.of()),
+                        header.url_image(),
+                        header.userId()
+                ))
+                .toList();
+    }
+
+    // Playlists cargadas sin sus canciones, con las de todas ellas (también de copias sin cambios) ya leídas
+    // en una sola consulta por findTracksByPlaylistIds
+    public List<PlaylistResponse> toFullResponses(List<Playlist> playlists, List<PlaylistTrackView> tracks) {
+        Map<Long, Set<SongResponse>> songsByPlaylist = songsByPlaylist(tracks);
+
+        return playlists.stream()
+                .map(playlist -> {
+                    Set<SongResponse> songs = songsByPlaylist.getOrDefault(playlist.getPlaylistId(), Set.of());
+                    return new PlaylistResponse(
+                            playlist.getPlaylistId(),
+                            playlist.getName(),
+                            playlist.getDescription(),
+                            playlist.isPublic(),
+                            playlist.getCreatedAt(),
+                            songs,
+                            playlist.getUrl_image(),
+                            playlist.getUser().getId(),
+                            songs.size(),
+                            playlist.getVersion()
+                    );
+                })
+                .toList();
+    }
+
+    private static Map<Long, Set<SongResponse>> songsByPlaylist(List<PlaylistTrackView> tracks) {
+        return tracks.stream()
+                .collect(Collectors.groupingBy(PlaylistTrackView::playlistId,
+                        Collectors.mapping(PlaylistTrackView::toSongResponse, Collectors.toCollection(LinkedHashSet::new))));
+    }
+
+    // Vista resumida: sin canciones, solo el total
+    public PlaylistResponse toSummaryResponse(PlaylistHeaderView header, long songCount) {
+        return toSummaryResponse(header, songCount, null);
+    }
+
+    public PlaylistResponse toSummaryResponse(PlaylistHeaderView header, long songCount, Long version) {
+        return new PlaylistResponse(
+                header.playlistId(),
+                header.name(),
+                header.description(),
+                header.isPublic(),
+                header.createdAt(),
+                null,
+                header.url_image(),
+                header.userId(),
+                songCount,
+                version
+        );
+    }
+
     public Playlist toEntity(PlaylistRequest request) {
         Playlist playlist = new Playlist();
         playlist.setName(request.name());
@@ -8,7 +8,7 @@ import java.util.List;
 @Entity
 @Table(name = "albums", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"title", "artist_id"})
-})
+}, indexes = @Index(name = "idx_albums_pin_count", columnList = "pin_count DESC, id"))
 public class Album {
 
     @Id
@@ -23,7 +23,7 @@ public class Album {
 
     private String cover;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "artist_id")
     private Artist artist;
 
@@ -35,7 +35,7 @@ public class Album {
     )
     private List<Song> songs = new ArrayList<>();
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "genre_id")
     private Genre genre;
 
@@ -43,6 +43,10 @@ public class Album {
 
     private LocalDate creationDate;
 
+    // Veces que aparece en accesos directos; la acumula PinCounterService, nunca JPA
+    @Column(name = "pin_count", insertable = false, updatable = false)
+    private Long pinCount;
+
 
     // Getters
 
@@ -82,6 +86,10 @@ public class Album {
         return creationDate;
     }
 
+    public long getPinCount() {
+        return pinCount == null ? 0 : pinCount;
+    }
+
     // Setters
 
     public void setId(Long id) {
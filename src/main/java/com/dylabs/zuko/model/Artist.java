@@ -24,7 +24,7 @@ public class Artist {
     @Column(length = 1000)
     private String biography;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
@@ -2,11 +2,14 @@ package com.dylabs.zuko.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "playlists")
+@Table(name = "playlists", indexes = {
+        @Index(name = "idx_playlists_membership_source", columnList = "membership_source_id"),
+        @Index(name = "idx_playlists_pin_count", columnList = "pin_count DESC, playlist_id")
+})
 public class Playlist {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,13 +25,10 @@ public class Playlist {
 
     private LocalDate createdAt = LocalDate.now();
 
-    @ManyToMany
-    @JoinTable(
-            name = "playlist_song",
-            joinColumns = @JoinColumn(name = "playlist_id"),
-            inverseJoinColumns = @JoinColumn(name = "song_id")
-    )
-    private Set<Song> songs = new HashSet<>();
+    // Solo lectura desde la entidad: las altas, bajas y movimientos se hacen con sentencias sobre playlist_song
+    @OneToMany(mappedBy = "playlist")
+    @OrderBy("position ASC")
+    private List<PlaylistSong> entries = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
@@ -37,6 +37,18 @@ public class Playlist {
     @Column(nullable = true)
     private String url_image;
 
+    // Sube con cada cambio de canciones o datos; la escriben las sentencias de PlaylistChangeRepository, nunca JPA
+    @Column(insertable = false, updatable = false)
+    private Long version;
+
+    // Copia bajo demanda: una playlist bifurcada lee las filas de playlist_song de esta otra playlist
+    // hasta que una de las dos cambia sus canciones. Solo se fija al crearla; después la mueven sentencias nativas.
+    @Column(name = "membership_source_id", updatable = false)
+    private Long membershipSourceId;
+
+    // Veces que aparece en accesos directos; la acumula PinCounterService, nunca JPA
+    @Column(name = "pin_count", insertable = false, updatable = false)
+    private Long pinCount;
 
 
     public Long getPlaylistId() {
@@ -79,12 +91,12 @@ public class Playlist {
         this.createdAt = createdAt;
     }
 
-    public Set<Song> getSongs() {
-        return songs;
+    public List<PlaylistSong> getEntries() {
+        return entries;
     }
 
-    public void setSongs(Set<Song> songs) {
-        this.songs = songs;
+    public void setEntries(List<PlaylistSong> entries) {
+        this.entries = entries;
     }
 
     public User getUser() {
@@ -102,4 +114,25 @@ public class Playlist {
     public void setUrl_image(String url_image) {
         this.url_image = url_image;
     }
+
+    public long getVersion() {
+        return version == null ? 0 : version;
+    }
+
+    public long getPinCount() {
+        return pinCount == null ? 0 : pinCount;
+    }
+
+    public Long getMembershipSourceId() {
+        return membershipSourceId;
+    }
+
+    public void setMembershipSourceId(Long membershipSourceId) {
+        this.membershipSourceId = membershipSourceId;
+    }
+
+    // Playlist cuyas filas de playlist_song forman las canciones de esta
+    public Long getMembershipId() {
+        return membershipSourceId != null ? membershipSourceId : playlistId;
+    }
 }
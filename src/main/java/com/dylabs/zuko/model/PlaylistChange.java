@@ -0,0 +1,73 @@
+package com.dylabs.zuko.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Registro de cambios de una playlist para la sincronización incremental. Cada cambio sube
+// Playlist.version; las filas se escriben con sentencias nativas en PlaylistChangeRepository.
+@Entity
+@Table(name = "playlist_change",
+        indexes = @Index(name = "idx_playlist_change_version", columnList = "playlist_id, version"))
+public class PlaylistChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "playlist_id", nullable = false)
+    private Long playlistId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private PlaylistChangeType operation;
+
+    @Column(name = "song_id")
+    private Long songId;
+
+    private Long position;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt = LocalDateTime.now();
+
+    public PlaylistChange() {}
+
+    public PlaylistChange(Long playlistId, long version, PlaylistChangeType operation, Long songId, Long position) {
+        this.playlistId = playlistId;
+        this.version = version;
+        this.operation = operation;
+        this.songId = songId;
+        this.position = position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPlaylistId() {
+        return playlistId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public PlaylistChangeType getOperation() {
+        return operation;
+    }
+
+    public Long getSongId() {
+        return songId;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
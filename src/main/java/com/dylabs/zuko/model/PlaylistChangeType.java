@@ -0,0 +1,9 @@
+package com.dylabs.zuko.model;
+
+public enum PlaylistChangeType {
+    ADD,
+    REMOVE,
+    MOVE,
+    UPDATE, // nombre, descripción, visibilidad o imagen
+    RESET   // cambio masivo: el cliente debe volver a descargar la playlist
+}
@@ -0,0 +1,8 @@
+package com.dylabs.zuko.model;
+
+// Combinaciones de dos playlists; el resultado nunca repite canciones
+public enum PlaylistSetOperation {
+    UNION,        // canciones de A y después las de B que no están en A
+    INTERSECTION, // canciones de A que también están en B
+    DIFFERENCE    // canciones de A que no están en B
+}
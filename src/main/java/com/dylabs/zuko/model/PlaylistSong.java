@@ -0,0 +1,67 @@
+package com.dylabs.zuko.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Pertenencia de una canción a una playlist. El orden lo da "position", con huecos de POSITION_GAP
+// entre filas consecutivas para poder mover o insertar una canción actualizando solo su fila.
+@Entity
+@Table(name = "playlist_song",
+        indexes = @Index(name = "idx_playlist_song_position", columnList = "playlist_id, position, song_id"))
+public class PlaylistSong {
+
+    public static final long POSITION_GAP = 65536L;
+
+    @EmbeddedId
+    private PlaylistSongId id = new PlaylistSongId();
+
+    @MapsId("playlistId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "playlist_id")
+    private Playlist playlist;
+
+    @MapsId("songId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "song_id")
+    private Song song;
+
+    // Nulables en el mapeo para que ddl-auto pueda añadirlas a una tabla con filas; ver DatabaseSchemaInitializer
+    private Long position;
+
+    @Column(name = "added_at")
+    private LocalDateTime addedAt = LocalDateTime.now();
+
+    public PlaylistSong() {}
+
+    public PlaylistSong(Playlist playlist, Song song, long position) {
+        this.id = new PlaylistSongId(playlist.getPlaylistId(), song.getId());
+        this.playlist = playlist;
+        this.song = song;
+        this.position = position;
+    }
+
+    public PlaylistSongId getId() {
+        return id;
+    }
+
+    public Playlist getPlaylist() {
+        return playlist;
+    }
+
+    public Song getSong() {
+        return song;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public LocalDateTime getAddedAt() {
+        return addedAt;
+    }
+}
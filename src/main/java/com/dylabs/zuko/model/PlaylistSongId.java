@@ -0,0 +1,44 @@
+package com.dylabs.zuko.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class PlaylistSongId implements Serializable {
+
+    @Column(name = "playlist_id")
+    private Long playlistId;
+
+    @Column(name = "song_id")
+    private Long songId;
+
+    public PlaylistSongId() {}
+
+    public PlaylistSongId(Long playlistId, Long songId) {
+        this.playlistId = playlistId;
+        this.songId = songId;
+    }
+
+    public Long getPlaylistId() {
+        return playlistId;
+    }
+
+    public Long getSongId() {
+        return songId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlaylistSongId other)) return false;
+        return Objects.equals(playlistId, other.playlistId) && Objects.equals(songId, other.songId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(playlistId, songId);
+    }
+}
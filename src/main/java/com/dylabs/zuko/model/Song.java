@@ -20,7 +20,7 @@ public class Song {
     private String imageUrl;
     @Column(name = "youtube_url")
     private String youtubeUrl;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "artist_id", nullable = false)
     private Artist artist;
 
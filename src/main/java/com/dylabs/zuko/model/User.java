@@ -31,13 +31,18 @@ public class User {
     @Column(nullable = true)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "role_id", nullable = false)
     private Role userRole;
 
     @Column(nullable = false)
     private boolean isActive;
 
+    // Sube cada vez que hay que retirar sus tokens (cambio de rol o de artista, desactivación) y va firmada
+    // en ellos; la escribe UserRepository.incrementTokenVersion, nunca JPA
+    @Column(name = "token_version", insertable = false, updatable = false)
+    private Long tokenVersion;
+
 
     /// getters
 
@@ -62,6 +67,9 @@ public class User {
     public Role getUserRole() {
         return userRole;
     }
+    public long getTokenVersion() {
+        return tokenVersion == null ? 0 : tokenVersion;
+    }
 
 
 
@@ -0,0 +1,11 @@
+package com.dylabs.zuko.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Fragmento de AlbumRepository para altas masivas de pistas sin cargar las colecciones de canciones
+public interface AlbumBatchRepository {
+
+    // Asocia las canciones a cada álbum en un único batch JDBC; las asociaciones existentes se ignoran
+    void addSongs(Map<Long, ? extends Collection<Long>> songIdsByAlbum);
+}
@@ -0,0 +1,30 @@
+package com.dylabs.zuko.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class AlbumBatchRepositoryImpl implements AlbumBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO album_songs (album_id, song_id)
+            SELECT ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM album_songs WHERE album_id = ? AND song_id = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addSongs(Map<Long, ? extends Collection<Long>> songIdsByAlbum) {
+        List<Object[]> rows = new ArrayList<>();
+        songIdsByAlbum.forEach((albumId, songIds) ->
+                songIds.forEach(songId -> rows.add(new Object[]{albumId, songId, albumId, songId})));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+}
@@ -1,32 +1,146 @@
 package com.dylabs.zuko.repository;
 
+import com.dylabs.zuko.dto.response.PinnedAlbumResponse;
 import com.dylabs.zuko.model.Album;
 import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.projection.AlbumExportRowView;
+import com.dylabs.zuko.repository.projection.AlbumHeaderView;
+import com.dylabs.zuko.repository.projection.AlbumKeyView;
+import com.dylabs.zuko.repository.projection.AlbumTrackView;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AlbumRepository extends JpaRepository<Album, Long> {
+public interface AlbumRepository extends JpaRepository<Album, Long>, AlbumBatchRepository {
     boolean existsByTitleIgnoreCaseAndArtistId(String title, Long artistId);
 
     boolean existsByTitleIgnoreCaseAndArtistIdAndIdNot(String title, Long artistId, Long id);
 
     boolean existsByGenreId(Long genreId);
 
-    List<Album> findAllByTitleContainingIgnoreCase(String title);
+    // Detalle de un álbum: artista, género y canciones en una sola consulta
+    @EntityGraph(attributePaths = {"artist", "genre", "songs"})
+    Optional<Album> findById(Long id);
+
+    // En los listados las canciones se cargan por lotes (hibernate.default_batch_fetch_size)
+    @EntityGraph(attributePaths = {"artist", "genre"})
     List<Album> findAllByTitleContainingIgnoreCaseAndArtistId(String title, Long artistId);
+    @EntityGraph(attributePaths = {"artist", "genre"})
     List<Album> findAllByOrderByTitleAsc();
+    @EntityGraph(attributePaths = {"artist", "genre"})
     @Query("SELECT a FROM Album a JOIN a.songs s WHERE s.id =:songId")
     Optional<Album> findAlbumBySongId(@Param("songId") Long songId);
+    @EntityGraph(attributePaths = {"artist", "genre"})
     List<Album> findAllByArtistId(Long artistId);
 
+    @EntityGraph(attributePaths = "artist")
     List<Album> findTop3ByOrderByIdDesc();
+
+    @EntityGraph(attributePaths = {"artist", "genre"})
+    List<Album> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query(value = """
+            SELECT al.id FROM albums al
+            WHERE al.search_vector @@ plainto_tsquery('spanish', zuko_normalize(:query))
+               OR zuko_normalize(al.title) LIKE '%' || zuko_normalize(:pattern) || '%'
+               OR zuko_normalize(al.title) % zuko_normalize(:query)
+            ORDER BY ts_rank(al.search_vector, plainto_tsquery('spanish', zuko_normalize(:query))) DESC,
+                     similarity(zuko_normalize(al.title), zuko_normalize(:query)) DESC,
+                     al.id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("pattern") String pattern,
+                         @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("SELECT new com.dylabs.zuko.repository.projection.SearchEntryView(al.id, al.title) FROM Album al")
+    List<SearchEntryView> findSearchEntries();
+
+    // Importación masiva: álbumes ya existentes para los pares (artista, título) del lote
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.AlbumKeyView(al.id, al.artist.id, al.title)
+            FROM Album al
+            WHERE al.artist.id IN :artistIds AND LOWER(TRIM(al.title)) IN :titles""")
+    List<AlbumKeyView> findKeysByArtistIdsAndNormalizedTitles(@Param("artistIds") Collection<Long> artistIds,
+                                                              @Param("titles") Collection<String> titles);
+
+    // Exportación del catálogo: filas ordenadas por álbum para poder agruparlas mientras se recorren
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.AlbumExportRowView(
+                al.id, al.title, al.releaseYear, al.cover, ar.id, ar.name, g.name, g.id,
+                s.id, s.title, s.releaseDate, s.youtubeUrl)
+            FROM Album al JOIN al.artist ar JOIN al.genre g
+            LEFT JOIN al.songs s ON s.isPublicSong = true
+            ORDER BY al.id, s.id""")
+    Stream<AlbumExportRowView> streamExportRows();
+
+    // Proyecciones de solo lectura: cabeceras de álbum + canciones públicas en dos consultas
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.AlbumHeaderView(
+                al.id, al.title, al.releaseYear, al.cover, ar.id, ar.name, g.name, g.id)
+            FROM Album al JOIN al.artist ar JOIN al.genre g
+            WHERE ar.id = :artistId
+            ORDER BY al.id""")
+    List<AlbumHeaderView> findHeadersByArtistId(@Param("artistId") Long artistId);
+
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.AlbumHeaderView(
+                al.id, al.title, al.releaseYear, al.cover, ar.id, ar.name, g.name, g.id)
+            FROM Album al JOIN al.artist ar JOIN al.genre g
+            WHERE al.id IN :ids""")
+    List<AlbumHeaderView> findHeadersByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.AlbumTrackView(
+                al.id, s.id, s.title, s.releaseDate, s.youtubeUrl)
+            FROM Album al JOIN al.songs s
+            WHERE al.id IN :albumIds AND s.isPublicSong = true
+            ORDER BY al.id, s.id""")
+    List<AlbumTrackView> findPublicTracksByAlbumIds(@Param("albumIds") Collection<Long> albumIds);
+
+    // Ranking de álbumes más fijados: keyset sobre el índice (pin_count DESC, id)
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.PinnedAlbumResponse(al.id, al.title, al.cover, ar.name, al.pinCount)
+            FROM Album al JOIN al.artist ar
+            WHERE al.pinCount > 0
+              AND (al.pinCount < :afterCount OR (al.pinCount = :afterCount AND al.id > :afterId))
+            ORDER BY al.pinCount DESC, al.id""")
+    List<PinnedAlbumResponse> findMostPinned(@Param("afterCount") long afterCount,
+                                             @Param("afterId") long afterId,
+                                             Limit limit);
+
+    // Suma en una sola sentencia los incrementos acumulados en memoria (ids[i] recibe deltas[i])
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE albums al SET pin_count = COALESCE(al.pin_count, 0) + d.delta
+            FROM (SELECT unnest(ARRAY[:ids]) AS id, unnest(ARRAY[:deltas]) AS delta) d
+            WHERE al.id = d.id""", nativeQuery = true)
+    int addPinCounts(@Param("ids") List<Long> ids, @Param("deltas") List<Long> deltas);
+
+    // Recuento completo desde shortcuts_albums; solo escribe las filas que no cuadran
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE albums al SET pin_count = COALESCE(c.pins, 0)
+            FROM albums q LEFT JOIN (SELECT album_id, COUNT(*) AS pins FROM shortcuts_albums GROUP BY album_id) c
+                ON c.album_id = q.id
+            WHERE al.id = q.id AND al.pin_count IS DISTINCT FROM COALESCE(c.pins, 0)""", nativeQuery = true)
+    int reconcilePinCounts();
 }
@@ -1,16 +1,42 @@
 package com.dylabs.zuko.repository;
 
 import com.dylabs.zuko.model.Artist;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.List;
 
 
 public interface ArtistRepository extends JpaRepository<Artist, Long> {
 
     Optional<Artist> findByName(String name);
     Optional<Artist> findByUserId(Long userId);
-    List<Artist> findByNameContainingIgnoreCase(String name);
+
+    // Solo el id, para firmarlo en el token al iniciar sesión
+    @Query("SELECT a.id FROM Artist a WHERE a.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+    List<Artist> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT ar FROM Artist ar WHERE LOWER(ar.name) IN :names")
+    List<Artist> findByNormalizedNameIn(@Param("names") Collection<String> names);
+
+    @Query("SELECT new com.dylabs.zuko.repository.projection.SearchEntryView(ar.id, ar.name) FROM Artist ar")
+    List<SearchEntryView> findSearchEntries();
+
+    @Query(value = """
+            SELECT ar.id FROM artists ar
+            WHERE ar.search_vector @@ plainto_tsquery('spanish', zuko_normalize(:query))
+               OR zuko_normalize(ar.name) LIKE '%' || zuko_normalize(:pattern) || '%'
+               OR zuko_normalize(ar.name) % zuko_normalize(:query)
+            ORDER BY ts_rank(ar.search_vector, plainto_tsquery('spanish', zuko_normalize(:query))) DESC,
+                     similarity(zuko_normalize(ar.name), zuko_normalize(:query)) DESC,
+                     ar.id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query, @Param("pattern") String pattern,
+                         @Param("limit") int limit, @Param("offset") int offset);
 }
\ No newline at end of file
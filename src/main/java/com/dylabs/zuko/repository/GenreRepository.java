@@ -2,7 +2,11 @@ package com.dylabs.zuko.repository;
 
 import com.dylabs.zuko.model.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface GenreRepository extends JpaRepository<Genre,Long> {
@@ -10,4 +14,7 @@ public interface GenreRepository extends JpaRepository<Genre,Long> {
     Optional<Genre> findByNameIgnoreCase(String name);
     Optional<Genre> findById(long id);
     void deleteById(long id);
-}
+
+    @Query("SELECT g FROM Genre g WHERE LOWER(g.name) IN :names")
+    List<Genre> findByNormalizedNameIn(@Param("names") Collection<String> names);
+}
\ No newline at end of file
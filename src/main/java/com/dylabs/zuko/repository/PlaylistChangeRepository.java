@@ -0,0 +1,63 @@
+package com.dylabs.zuko.repository;
+
+import com.dylabs.zuko.model.PlaylistChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PlaylistChangeRepository extends JpaRepository<PlaylistChange, Long> {
+
+    // Sube la versión de la playlist y registra una fila por canción con su posición actual
+    // (null si la canción ya no está), todo en una sentencia
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH v AS (
+                UPDATE playlists SET version = COALESCE(version, 0) + 1
+                WHERE playlist_id = :playlistId
+                RETURNING version)
+            INSERT INTO playlist_change (playlist_id, version, operation, song_id, position, changed_at)
+            SELECT :playlistId, v.version, :operation, x.song_id, ps.position, now()
+            FROM v
+            CROSS JOIN unnest(ARRAY[:songIds]) AS x(song_id)
+            LEFT JOIN playlist_song ps ON ps.playlist_id = :playlistId AND ps.song_id = x.song_id""", nativeQuery = true)
+    int recordSongChanges(@Param("playlistId") Long playlistId,
+                          @Param("operation") String operation,
+                          @Param("songIds") Collection<Long> songIds);
+
+    // Cambio sin canciones concretas (datos de la playlist o RESET); devuelve la versión nueva
+    @Transactional
+    @Query(value = """
+            WITH v AS (
+                UPDATE playlists SET version = COALESCE(version, 0) + 1
+                WHERE playlist_id = :playlistId
+                RETURNING version)
+            INSERT INTO playlist_change (playlist_id, version, operation, changed_at)
+            SELECT :playlistId, v.version, :operation, now() FROM v
+            RETURNING version""", nativeQuery = true)
+    Long recordChange(@Param("playlistId") Long playlistId, @Param("operation") String operation);
+
+    // Solo se guardan las últimas "keep" versiones; quien sincronice desde antes recibe RESET
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM playlist_change
+            WHERE playlist_id = :playlistId
+              AND version <= (SELECT COALESCE(version, 0) FROM playlists WHERE playlist_id = :playlistId) - :keep""",
+            nativeQuery = true)
+    int prune(@Param("playlistId") Long playlistId, @Param("keep") long keep);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlaylistChange c WHERE c.playlistId = :playlistId")
+    int deleteByPlaylist(@Param("playlistId") Long playlistId);
+
+    List<PlaylistChange> findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(Long playlistId, long version);
+}
@@ -1,9 +1,22 @@
 package com.dylabs.zuko.repository;
 
+import com.dylabs.zuko.dto.response.PinnedPlaylistResponse;
+import com.dylabs.zuko.dto.response.PlaylistOverviewResponse;
 import com.dylabs.zuko.model.Playlist;
+import com.dylabs.zuko.repository.projection.PlaylistHeaderView;
+import com.dylabs.zuko.repository.projection.PlaylistTrackView;
+import com.dylabs.zuko.repository.projection.PlaylistWriteView;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,13 +25,227 @@ public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
 
     boolean existsByNameIgnoreCaseAndUser_id(String name, Long userId);
 
+    @EntityGraph(attributePaths = {"entries", "entries.song", "entries.song.artist"})
+    Optional<Playlist> findById(Long id);
+
+    @EntityGraph(attributePaths = {"entries", "entries.song", "entries.song.artist"})
+    @Query("SELECT p FROM Playlist p WHERE p.playlistId = :playlistId AND (p.isPublic = true OR p.user.id = :userId OR :admin = true)")
+    Optional<Playlist> findVisibleById(@Param("playlistId") Long playlistId,
+                                       @Param("userId") Long userId,
+                                       @Param("admin") boolean admin);
+
+    @EntityGraph(attributePaths = {"entries", "entries.song", "entries.song.artist"})
     Optional<Playlist> findByNameIgnoreCaseAndUser_id(String name, Long userId);
 
+    // Sin canciones: las de todas las playlists se leen juntas con findTracksByPlaylistIds
     List<Playlist> findAllByUser_Id(Long userId);
 
-    List<Playlist> findByisPublicTrueAndNameContainingIgnoreCase(String name);
-
     List<Playlist> findByUser_IdAndNameContainingIgnoreCase(Long userId, String name);
 
+    @Query(value = """
+            SELECT p.playlist_id FROM playlists p
+            WHERE p.is_public = true
+              AND (p.search_vector @@ plainto_tsquery('spanish', zuko_normalize(:query))
+                   OR zuko_normalize(p.name) LIKE '%' || zuko_normalize(:pattern) || '%'
+                   OR zuko_normalize(p.name) % zuko_normalize(:query))
+            ORDER BY ts_rank(p.search_vector, plainto_tsquery('spanish', zuko_normalize(:query))) DESC,
+                     similarity(zuko_normalize(p.name), zuko_normalize(:query)) DESC,
+                     p.playlist_id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<Long> searchPublicIds(@Param("query") String query, @Param("pattern") String pattern,
+                               @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("SELECT new com.dylabs.zuko.repository.projection.SearchEntryView(p.playlistId, p.name) FROM Playlist p WHERE p.isPublic = true")
+    List<SearchEntryView> findPublicSearchEntries();
+
+    // Una sola consulta antes de cualquier cambio: dueño y con quién comparte canciones la playlist
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistWriteView(
+                p.user.id, p.membershipSourceId,
+                (SELECT MIN(f.playlistId) FROM Playlist f WHERE f.membershipSourceId = p.playlistId))
+            FROM Playlist p WHERE p.playlistId = :playlistId""")
+    Optional<PlaylistWriteView> findWriteViewById(@Param("playlistId") Long playlistId);
+
+    // Datos para bifurcar una playlist visible, sin cargar sus canciones
+    @Query("SELECT p FROM Playlist p WHERE p.playlistId = :playlistId AND (p.isPublic = true OR p.user.id = :userId OR :admin = true)")
+    Optional<Playlist> findVisibleWithoutSongsById(@Param("playlistId") Long playlistId,
+                                                   @Param("userId") Long userId,
+                                                   @Param("admin") boolean admin);
+
+    // Bloqueo de fila de las playlists que se van a escribir, en orden de id, hasta el final de la transacción.
+    // Las altas calculan MAX(position) y las copias bajo demanda leen y mueven filas: sin él dos escrituras
+    // concurrentes leerían el mismo estado.
+    @Transactional
+    @Query(value = "SELECT playlist_id FROM playlists WHERE playlist_id IN (:playlistIds) ORDER BY playlist_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByIds(@Param("playlistIds") Collection<Long> playlistIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE playlists SET membership_source_id = NULL WHERE playlist_id = :playlistId", nativeQuery = true)
+    int clearMembershipSource(@Param("playlistId") Long playlistId);
+
+    // Las playlists que compartían las canciones de fromId pasan a leerlas de heirId, que deja de compartir
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE playlists SET membership_source_id = CASE WHEN playlist_id = :heirId THEN NULL ELSE :heirId END
+            WHERE membership_source_id = :fromId""", nativeQuery = true)
+    int repointSharers(@Param("fromId") Long fromId, @Param("heirId") Long heirId);
+
+    // Edición de datos sin cargar la entidad: null deja el nombre o la descripción como están
+    // y keepImage conserva la imagen actual
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Playlist p SET p.name = COALESCE(:name, p.name),
+                p.description = COALESCE(:description, p.description),
+                p.isPublic = :isPublic,
+                p.url_image = CASE WHEN :keepImage = true THEN p.url_image ELSE :urlImage END
+            WHERE p.playlistId = :playlistId""")
+    int updateDetails(@Param("playlistId") Long playlistId,
+                      @Param("name") String name,
+                      @Param("description") String description,
+                      @Param("isPublic") boolean isPublic,
+                      @Param("keepImage") boolean keepImage,
+                      @Param("urlImage") String urlImage);
+
+    // Las sentencias de canciones siempre reciben una playlist con filas propias (ver PlaylistService.detachMembership).
+    // Altas y bajas de canciones directamente sobre la tabla intermedia, sin cargar la colección.
+    // Devuelven 0 si la canción no existe (o ya estaba / no estaba en la playlist).
+    // Las altas se añaden al final con un hueco de PlaylistSong.POSITION_GAP (65536) tras la última posición,
+    // que sale del índice (playlist_id, position); la playlist ya está bloqueada (ver lockByIds).
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO playlist_song (playlist_id, song_id, position, added_at)
+            SELECT :playlistId, s.id,
+                   COALESCE((SELECT MAX(ps.position) FROM playlist_song ps WHERE ps.playlist_id = :playlistId), 0) + 65536,
+                   now()
+            FROM song s WHERE s.id = :songId
+            ON CONFLICT (playlist_id, song_id) DO NOTHING""", nativeQuery = true)
+    int addSong(@Param("playlistId") Long playlistId, @Param("songId") Long songId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM playlist_song WHERE playlist_id = :playlistId AND song_id = :songId", nativeQuery = true)
+    int removeSong(@Param("playlistId") Long playlistId, @Param("songId") Long songId);
+
+    // Variantes masivas: una sentencia por operación sea cual sea el número de canciones.
+    // Las nuevas se añaden al final respetando el orden en que llegan en songIds.
+    // Devuelven (RETURNING) solo las canciones que de verdad entraron o salieron, para el registro de cambios.
+    @Transactional
+    @Query(value = """
+            INSERT INTO playlist_song (playlist_id, song_id, position, added_at)
+            SELECT :playlistId, s.id,
+                   COALESCE((SELECT MAX(ps.position) FROM playlist_song ps WHERE ps.playlist_id = :playlistId), 0)
+                       + 65536 * ROW_NUMBER() OVER (ORDER BY array_position(ARRAY[:songIds], s.id)),
+                   now()
+            FROM song s WHERE s.id IN (:songIds)
+            ON CONFLICT (playlist_id, song_id) DO NOTHING
+            RETURNING song_id""", nativeQuery = true)
+    List<Long> addSongs(@Param("playlistId") Long playlistId, @Param("songIds") Collection<Long> songIds);
+
+    @Transactional
+    @Query(value = "DELETE FROM playlist_song WHERE playlist_id = :playlistId AND song_id IN (:songIds) RETURNING song_id",
+            nativeQuery = true)
+    List<Long> removeSongs(@Param("playlistId") Long playlistId, @Param("songIds") Collection<Long> songIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM playlist_song WHERE playlist_id = :playlistId AND song_id NOT IN (:songIds)", nativeQuery = true)
+    int removeSongsNotIn(@Param("playlistId") Long playlistId, @Param("songIds") Collection<Long> songIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM playlist_song WHERE playlist_id = :playlistId", nativeQuery = true)
+    int removeAllSongs(@Param("playlistId") Long playlistId);
+
+    // Visibilidad resuelta en la propia consulta: pública, del usuario o lectura de administrador
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistHeaderView(
+                p.playlistId, p.name, p.description, p.isPublic, p.createdAt, p.url_image, p.user.id)
+            FROM Playlist p
+            WHERE p.playlistId = :playlistId AND (p.isPublic = true OR p.user.id = :userId OR :admin = true)""")
+    Optional<PlaylistHeaderView> findVisibleHeaderById(@Param("playlistId") Long playlistId,
+                                                      @Param("userId") Long userId,
+                                                      @Param("admin") boolean admin);
+
+    // Sincronización: la versión actual de una playlist visible, sin tocar sus canciones
+    @Query("""
+            SELECT COALESCE(p.version, 0) FROM Playlist p
+            WHERE p.playlistId = :playlistId AND (p.isPublic = true OR p.user.id = :userId OR :admin = true)""")
+    Optional<Long> findVisibleVersionById(@Param("playlistId") Long playlistId,
+                                          @Param("userId") Long userId,
+                                          @Param("admin") boolean admin);
+
+    // Playlist cuyas filas de playlist_song forman las canciones de una playlist visible
+    @Query("""
+            SELECT COALESCE(p.membershipSourceId, p.playlistId) FROM Playlist p
+            WHERE p.playlistId = :playlistId AND (p.isPublic = true OR p.user.id = :userId OR :admin = true)""")
+    Optional<Long> findVisibleMembershipId(@Param("playlistId") Long playlistId,
+                                           @Param("userId") Long userId,
+                                           @Param("admin") boolean admin);
+
+    // Vista general de las playlists de un usuario con el total de canciones en una sola consulta agrupada
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.PlaylistOverviewResponse(
+                p.playlistId, p.name, p.url_image, p.isPublic, COUNT(e))
+            FROM Playlist p LEFT JOIN PlaylistSong e ON e.id.playlistId = COALESCE(p.membershipSourceId, p.playlistId)
+            WHERE p.user.id = :userId
+            GROUP BY p.playlistId, p.name, p.url_image, p.isPublic
+            ORDER BY p.playlistId""")
+    List<PlaylistOverviewResponse> findOverviewsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT COUNT(e) FROM PlaylistSong e
+            WHERE e.id.playlistId = (SELECT COALESCE(p.membershipSourceId, p.playlistId) FROM Playlist p WHERE p.playlistId = :playlistId)""")
+    long countSongs(@Param("playlistId") Long playlistId);
+
+    // Proyecciones de solo lectura: cabeceras de playlist + canciones en dos consultas
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistHeaderView(
+                p.playlistId, p.name, p.description, p.isPublic, p.createdAt, p.url_image, p.user.id)
+            FROM Playlist p
+            WHERE p.isPublic = true AND p.playlistId IN :ids""")
+    List<PlaylistHeaderView> findPublicHeadersByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistTrackView(
+                p.playlistId, s.id, s.title, s.isPublicSong, s.releaseDate, a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM Playlist p JOIN PlaylistSong e ON e.id.playlistId = COALESCE(p.membershipSourceId, p.playlistId)
+                JOIN e.song s JOIN s.artist a
+            WHERE p.playlistId IN :playlistIds
+            ORDER BY p.playlistId, e.position, s.id""")
+    List<PlaylistTrackView> findTracksByPlaylistIds(@Param("playlistIds") Collection<Long> playlistIds);
+
+    // Ranking de playlists públicas más fijadas: keyset sobre el índice (pin_count DESC, playlist_id)
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.PinnedPlaylistResponse(p.playlistId, p.name, p.url_image, u.username, p.pinCount)
+            FROM Playlist p JOIN p.user u
+            WHERE p.isPublic = true AND p.pinCount > 0
+              AND (p.pinCount < :afterCount OR (p.pinCount = :afterCount AND p.playlistId > :afterId))
+            ORDER BY p.pinCount DESC, p.playlistId""")
+    List<PinnedPlaylistResponse> findMostPinned(@Param("afterCount") long afterCount,
+                                                @Param("afterId") long afterId,
+                                                Limit limit);
+
+    // Suma en una sola sentencia los incrementos acumulados en memoria (ids[i] recibe deltas[i])
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE playlists p SET pin_count = COALESCE(p.pin_count, 0) + d.delta
+            FROM (SELECT unnest(ARRAY[:ids]) AS id, unnest(ARRAY[:deltas]) AS delta) d
+            WHERE p.playlist_id = d.id""", nativeQuery = true)
+    int addPinCounts(@Param("ids") List<Long> ids, @Param("deltas") List<Long> deltas);
 
-}
\ No newline at end of file
+    // Recuento completo desde shortcuts_playlists; solo escribe las filas que no cuadran
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE playlists p SET pin_count = COALESCE(c.pins, 0)
+            FROM playlists q LEFT JOIN (SELECT playlist_id, COUNT(*) AS pins FROM shortcuts_playlists GROUP BY playlist_id) c
+                ON c.playlist_id = q.playlist_id
+            WHERE p.playlist_id = q.playlist_id AND p.pin_count IS DISTINCT FROM COALESCE(c.pins, 0)""", nativeQuery = true)
+    int reconcilePinCounts();
+}
@@ -0,0 +1,146 @@
+package com.dylabs.zuko.repository;
+
+import com.dylabs.zuko.model.PlaylistSong;
+import com.dylabs.zuko.model.PlaylistSongId;
+import com.dylabs.zuko.repository.projection.PlaylistEntryView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Orden de las canciones dentro de una playlist. Todas las consultas usan el índice (playlist_id, position, song_id).
+// Dos canciones no comparten posición (restricción única diferible, ver DatabaseSchemaInitializer), así que los
+// INSERT nombran la clave (playlist_id, song_id) en ON CONFLICT.
+@Repository
+public interface PlaylistSongRepository extends JpaRepository<PlaylistSong, PlaylistSongId> {
+
+    @Query("SELECT e.position FROM PlaylistSong e WHERE e.id.playlistId = :playlistId AND e.id.songId = :songId")
+    Optional<Long> findPosition(@Param("playlistId") Long playlistId, @Param("songId") Long songId);
+
+    @Query("SELECT MIN(e.position) FROM PlaylistSong e WHERE e.id.playlistId = :playlistId")
+    Long findFirstPosition(@Param("playlistId") Long playlistId);
+
+    @Query("SELECT MIN(e.position) FROM PlaylistSong e WHERE e.id.playlistId = :playlistId AND e.position > :position")
+    Long findNextPosition(@Param("playlistId") Long playlistId, @Param("position") long position);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PlaylistSong e SET e.position = :position WHERE e.id.playlistId = :playlistId AND e.id.songId = :songId")
+    int updatePosition(@Param("playlistId") Long playlistId, @Param("songId") Long songId, @Param("position") long position);
+
+    // 0 si la canción no existe, ya estaba o la posición está ocupada
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO playlist_song (playlist_id, song_id, position, added_at)
+            SELECT :playlistId, s.id, :position, now() FROM song s
+            WHERE s.id = :songId
+              AND NOT EXISTS (SELECT 1 FROM playlist_song ps WHERE ps.playlist_id = :playlistId AND ps.position = :position)
+            ON CONFLICT (playlist_id, song_id) DO NOTHING""", nativeQuery = true)
+    int insertAt(@Param("playlistId") Long playlistId, @Param("songId") Long songId, @Param("position") long position);
+
+    // Reemplazo completo: la playlist queda en el orden de songIds
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE playlist_song SET position = 65536 * array_position(ARRAY[:songIds], song_id)
+            WHERE playlist_id = :playlistId AND song_id IN (:songIds)""", nativeQuery = true)
+    int applyOrder(@Param("playlistId") Long playlistId, @Param("songIds") Collection<Long> songIds);
+
+    // Solo cuando se agota el hueco entre dos posiciones vecinas: vuelve a espaciar toda la playlist
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE playlist_song ps SET position = r.rn * 65536
+            FROM (SELECT song_id, ROW_NUMBER() OVER (ORDER BY position, song_id) AS rn
+                  FROM playlist_song WHERE playlist_id = :playlistId) r
+            WHERE ps.playlist_id = :playlistId AND ps.song_id = r.song_id""", nativeQuery = true)
+    int renumber(@Param("playlistId") Long playlistId);
+
+    // Paginación keyset por (position, song_id): solo se leen las filas de la página pedida.
+    // Una bifurcación lee las filas de la playlist de la que comparte canciones.
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistEntryView(
+                e.position, e.addedAt, s.id, s.title, s.isPublicSong, s.releaseDate, a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM PlaylistSong e JOIN e.song s JOIN s.artist a
+            WHERE e.id.playlistId = (SELECT COALESCE(p.membershipSourceId, p.playlistId) FROM Playlist p WHERE p.playlistId = :playlistId)
+              AND e.position >= :afterPosition
+              AND (e.position > :afterPosition OR s.id > :afterSongId)
+            ORDER BY e.position, s.id""")
+    List<PlaylistEntryView> findPage(@Param("playlistId") Long playlistId,
+                                     @Param("afterPosition") long afterPosition,
+                                     @Param("afterSongId") long afterSongId,
+                                     Limit limit);
+
+    // Canciones completas de una playlist que guarda sus propias filas, en orden
+    @Query("""
+            SELECT e FROM PlaylistSong e JOIN FETCH e.song s JOIN FETCH s.artist
+            WHERE e.id.playlistId = :playlistId
+            ORDER BY e.position, s.id""")
+    List<PlaylistSong> findEntries(@Param("playlistId") Long playlistId);
+
+    // Copia bajo demanda: la bifurcación pasa a tener sus propias filas con las mismas posiciones
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO playlist_song (playlist_id, song_id, position, added_at)
+            SELECT :targetId, song_id, position, added_at FROM playlist_song WHERE playlist_id = :sourceId
+            ON CONFLICT (playlist_id, song_id) DO NOTHING""", nativeQuery = true)
+    int copyMembership(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+
+    // Traspasa las filas de una playlist a otra sin copiarlas
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE playlist_song SET playlist_id = :targetId WHERE playlist_id = :sourceId", nativeQuery = true)
+    int moveMembership(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+
+    // Álgebra de playlists resuelta en la base de datos con semi/anti joins sobre la clave (playlist_id, song_id).
+    // leftId y rightId son ids de pertenencia (ver Playlist.getMembershipId); operation es un PlaylistSetOperation.
+    // El resultado sigue el orden de A y, en la unión, después el de B.
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.PlaylistEntryView(
+                e.position, e.addedAt, s.id, s.title, s.isPublicSong, s.releaseDate, a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM PlaylistSong e JOIN e.song s JOIN s.artist a
+            WHERE (e.id.playlistId = :leftId
+                   AND (:operation = 'UNION'
+                        OR (:operation = 'INTERSECTION' AND EXISTS (
+                            SELECT 1 FROM PlaylistSong r WHERE r.id.playlistId = :rightId AND r.id.songId = e.id.songId))
+                        OR (:operation = 'DIFFERENCE' AND NOT EXISTS (
+                            SELECT 1 FROM PlaylistSong r WHERE r.id.playlistId = :rightId AND r.id.songId = e.id.songId))))
+               OR (:operation = 'UNION' AND e.id.playlistId = :rightId AND NOT EXISTS (
+                    SELECT 1 FROM PlaylistSong l WHERE l.id.playlistId = :leftId AND l.id.songId = e.id.songId))
+            ORDER BY CASE WHEN e.id.playlistId = :leftId THEN 0 ELSE 1 END, e.position, s.id""")
+    List<PlaylistEntryView> combine(@Param("operation") String operation,
+                                    @Param("leftId") Long leftId,
+                                    @Param("rightId") Long rightId);
+
+    // La misma combinación guardada directamente en otra playlist, con posiciones nuevas espaciadas
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO playlist_song (playlist_id, song_id, position, added_at)
+            SELECT :targetId, e.song_id,
+                   65536 * ROW_NUMBER() OVER (ORDER BY e.playlist_id <> :leftId, e.position, e.song_id),
+                   now()
+            FROM playlist_song e
+            WHERE (e.playlist_id = :leftId
+                   AND (:operation = 'UNION'
+                        OR (:operation = 'INTERSECTION' AND EXISTS (
+                            SELECT 1 FROM playlist_song r WHERE r.playlist_id = :rightId AND r.song_id = e.song_id))
+                        OR (:operation = 'DIFFERENCE' AND NOT EXISTS (
+                            SELECT 1 FROM playlist_song r WHERE r.playlist_id = :rightId AND r.song_id = e.song_id))))
+               OR (:operation = 'UNION' AND e.playlist_id = :rightId AND NOT EXISTS (
+                    SELECT 1 FROM playlist_song l WHERE l.playlist_id = :leftId AND l.song_id = e.song_id))""",
+            nativeQuery = true)
+    int insertCombination(@Param("operation") String operation,
+                          @Param("leftId") Long leftId,
+                          @Param("rightId") Long rightId,
+                          @Param("targetId") Long targetId);
+}
@@ -1,14 +1,70 @@
 package com.dylabs.zuko.repository;
 
+import com.dylabs.zuko.dto.response.AlbumSummaryResponse;
+import com.dylabs.zuko.dto.response.PlaylistSummaryResponse;
 import com.dylabs.zuko.model.Shortcuts;
 import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ShortcutsRepository extends JpaRepository<Shortcuts, Long> {
+    // Solo para la respuesta completa (full=true): trae las playlists con su autor en el join. Los álbumes no
+    // van en el mismo grafo (dos colecciones darían playlists × álbumes filas); se cargan aparte con
+    // default_batch_fetch_size, igual que su artista y su género.
+    @EntityGraph(attributePaths = {"playlists", "playlists.user"})
     Optional<Shortcuts> findByUser_Id(Long userId);
-    boolean existsByUser_IdAndPlaylists_PlaylistId(Long userId, Long playlistId);
-    boolean existsByUser_IdAndAlbums_Id(Long userId, Long albumId);
+
+    @EntityGraph(attributePaths = {"albums", "albums.artist", "albums.genre"})
+    Optional<Shortcuts> findWithAlbumsByUser_Id(Long userId);
+
+    @Query("SELECT sc.id FROM Shortcuts sc WHERE sc.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    // Altas y bajas directamente sobre las tablas intermedias, sin cargar la colección.
+    // Devuelven las filas afectadas: 0 si ya estaba (alta) o no estaba (baja).
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO shortcuts_playlists (shortcuts_id, playlist_id) VALUES (:shortcutsId, :playlistId)
+            ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int addPlaylist(@Param("shortcutsId") Long shortcutsId, @Param("playlistId") Long playlistId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM shortcuts_playlists WHERE shortcuts_id = :shortcutsId AND playlist_id = :playlistId", nativeQuery = true)
+    int removePlaylist(@Param("shortcutsId") Long shortcutsId, @Param("playlistId") Long playlistId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO shortcuts_albums (shortcuts_id, album_id) VALUES (:shortcutsId, :albumId)
+            ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int addAlbum(@Param("shortcutsId") Long shortcutsId, @Param("albumId") Long albumId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM shortcuts_albums WHERE shortcuts_id = :shortcutsId AND album_id = :albumId", nativeQuery = true)
+    int removeAlbum(@Param("shortcutsId") Long shortcutsId, @Param("albumId") Long albumId);
+
+    // Vista de la barra lateral: solo título, portada y autor, una consulta por tipo
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.PlaylistSummaryResponse(p.playlistId, p.name, p.url_image, u.username)
+            FROM Shortcuts sc JOIN sc.playlists p JOIN p.user u
+            WHERE sc.user.id = :userId
+            ORDER BY p.name, p.playlistId""")
+    List<PlaylistSummaryResponse> findPlaylistSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.AlbumSummaryResponse(a.id, a.title, a.cover, ar.name)
+            FROM Shortcuts sc JOIN sc.albums a JOIN a.artist ar
+            WHERE sc.user.id = :userId
+            ORDER BY a.title, a.id""")
+    List<AlbumSummaryResponse> findAlbumSummariesByUserId(@Param("userId") Long userId);
 }
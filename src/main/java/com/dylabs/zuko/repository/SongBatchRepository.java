@@ -0,0 +1,12 @@
+package com.dylabs.zuko.repository;
+
+import com.dylabs.zuko.model.Song;
+
+import java.util.List;
+
+// Fragmento de SongRepository para altas masivas: Hibernate no agrupa inserts con ids IDENTITY
+public interface SongBatchRepository {
+
+    // Inserta todas las canciones en un único batch JDBC y devuelve los ids generados en el mismo orden
+    List<Long> insertAll(List<Song> songs);
+}
@@ -0,0 +1,55 @@
+package com.dylabs.zuko.repository;
+
+import com.dylabs.zuko.model.Song;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class SongBatchRepositoryImpl implements SongBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO song (title, is_public, release_date, image_url, youtube_url, artist_id)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertAll(List<Song> songs) {
+        if (songs.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Song song = songs.get(i);
+                        ps.setString(1, song.getTitle());
+                        ps.setBoolean(2, song.isPublicSong());
+                        ps.setDate(3, song.getReleaseDate() == null ? null : Date.valueOf(song.getReleaseDate()));
+                        ps.setString(4, song.getImageUrl());
+                        ps.setString(5, song.getYoutubeUrl());
+                        ps.setLong(6, song.getArtist().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return songs.size();
+                    }
+                },
+                keyHolder);
+
+        return keyHolder.getKeyList().stream()
+                .map(key -> ((Number) key.get("id")).longValue())
+                .toList();
+    }
+}
@@ -1,18 +1,94 @@
 package com.dylabs.zuko.repository;
 
+import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import com.dylabs.zuko.repository.projection.SongKeyView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, SongBatchRepository {
     boolean existsByTitleIgnoreCase(String title);
     boolean existsByTitleIgnoreCaseAndArtistId(String title, Long artistId);
-    List<Song> findByTitleContainingIgnoreCaseAndIsPublicSongTrue(String title);
+    @EntityGraph(attributePaths = "artist")
+    Optional<Song> findById(Long id);
+    // Resolución de las pistas de un álbum: coincidencia exacta por artista y título normalizado
+    @Query("SELECT s FROM Song s WHERE s.artist.id = :artistId AND s.isPublicSong = true AND LOWER(TRIM(s.title)) IN :titles ORDER BY s.id")
+    List<Song> findPublicByArtistIdAndNormalizedTitleIn(@Param("artistId") Long artistId,
+                                                        @Param("titles") Collection<String> titles);
+    @Query("SELECT s.id FROM Song s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    @EntityGraph(attributePaths = "artist")
     List<Song> findAllByArtistId(Long artistId);
     List<Song> findAll();
+    @EntityGraph(attributePaths = "artist")
     List<Song> findTop3ByIsPublicSongTrueOrderByIdDesc();
+    @EntityGraph(attributePaths = "artist")
+    List<Song> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Búsqueda por relevancia: texto completo (search_vector) + trigramas sobre el título normalizado.
+    // Ver DatabaseSchemaInitializer para las columnas, índices y la función zuko_normalize.
+    @Query(value = """
+            SELECT s.id FROM song s
+            WHERE s.is_public = true
+              AND (s.search_vector @@ plainto_tsquery('spanish', zuko_normalize(:query))
+                   OR zuko_normalize(s.title) LIKE '%' || zuko_normalize(:pattern) || '%'
+                   OR zuko_normalize(s.title) % zuko_normalize(:query))
+            ORDER BY ts_rank(s.search_vector, plainto_tsquery('spanish', zuko_normalize(:query))) DESC,
+                     similarity(zuko_normalize(s.title), zuko_normalize(:query)) DESC,
+                     s.id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<Long> searchPublicIds(@Param("query") String query, @Param("pattern") String pattern,
+                               @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("SELECT new com.dylabs.zuko.repository.projection.SearchEntryView(s.id, s.title) FROM Song s WHERE s.isPublicSong = true")
+    List<SearchEntryView> findPublicSearchEntries();
+
+    // Importación masiva: canciones ya existentes para los pares (artista, título) del lote
+    // (con su visibilidad, porque solo las públicas pueden asociarse a un álbum)
+    @Query("""
+            SELECT new com.dylabs.zuko.repository.projection.SongKeyView(s.id, s.artist.id, s.title, s.isPublicSong)
+            FROM Song s
+            WHERE s.artist.id IN :artistIds AND LOWER(TRIM(s.title)) IN :titles""")
+    List<SongKeyView> findKeysByArtistIdsAndNormalizedTitles(@Param("artistIds") Collection<Long> artistIds,
+                                                             @Param("titles") Collection<String> titles);
+
+    // Exportación del catálogo: se recorre con un cursor de base de datos en lugar de cargar la lista completa
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.SongResponse(
+                s.id, s.title, s.isPublicSong, s.releaseDate, CAST(NULL AS String), a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM Song s JOIN s.artist a
+            WHERE s.isPublicSong = true
+            ORDER BY s.id""")
+    Stream<SongResponse> streamPublicResponses();
+
+    // Proyecciones de solo lectura: seleccionan únicamente las columnas de SongResponse
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.SongResponse(
+                s.id, s.title, s.isPublicSong, s.releaseDate, CAST(NULL AS String), a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM Song s JOIN s.artist a
+            WHERE s.isPublicSong = true AND s.id IN :ids""")
+    List<SongResponse> findPublicResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.dylabs.zuko.dto.response.SongResponse(
+                s.id, s.title, s.isPublicSong, s.releaseDate, CAST(NULL AS String), a.id, a.name, s.youtubeUrl, s.imageUrl)
+            FROM Song s JOIN s.artist a
+            WHERE a.id = :artistId
+            ORDER BY s.id""")
+    List<SongResponse> findResponsesByArtistId(@Param("artistId") Long artistId);
 }
\ No newline at end of file
@@ -1,17 +1,56 @@
 package com.dylabs.zuko.repository;
 
 import com.dylabs.zuko.model.User;
+import com.dylabs.zuko.repository.projection.LoginView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // El rol es LAZY; las consultas que lo leen lo traen con un join
+    @EntityGraph(attributePaths = "userRole")
+    Optional<User> findById(Long id);
+
     // Método para encontrar un usuario por su nombre de usuario (username)
+    @EntityGraph(attributePaths = "userRole")
     Optional<User> findByUsername(String username);
+    @EntityGraph(attributePaths = "userRole")
     Optional<User> findByEmailIgnoreCase(String email);
+
+    @Query("""
+            SELECT u AS user, a.id AS artistId
+            FROM User u JOIN FETCH u.userRole
+            LEFT JOIN Artist a ON a.user = u
+            WHERE LOWER(u.email) = LOWER(:email)
+            """)
+    Optional<LoginView> findLoginByEmail(@Param("email") String email);
     // Método para encontrar un usuario por su correo electrónico
+    @EntityGraph(attributePaths = "userRole")
     Optional<User> findByEmail(String email);
+    @EntityGraph(attributePaths = "userRole")
     List<User> findByUsernameContainingIgnoreCase(String username);
+    @EntityGraph(attributePaths = "userRole")
+    List<User> findByUsernameContainingIgnoreCaseOrderByUsernameAsc(String username, Limit limit);
+    // Paginación keyset ordenada por id
+    @EntityGraph(attributePaths = "userRole")
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Versión de tokens del usuario (ver TokenInvalidationRegistry); null equivale a 0
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM User u WHERE u.id = :userId")
+    Optional<Long> findTokenVersionById(@Param("userId") Long userId);
+
+    // Retira todos los tokens emitidos hasta ahora; devuelve la versión nueva
+    @Transactional
+    @Query(value = """
+            UPDATE users SET token_version = COALESCE(token_version, 0) + 1
+            WHERE id = :userId
+            RETURNING token_version""", nativeQuery = true)
+    Long incrementTokenVersion(@Param("userId") Long userId);
 }
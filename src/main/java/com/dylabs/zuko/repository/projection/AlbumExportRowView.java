@@ -0,0 +1,27 @@
+package com.dylabs.zuko.repository.projection;
+
+import java.time.LocalDate;
+
+// Una fila por pista (o una sola sin pista) del álbum; la exportación las agrupa por albumId
+public record AlbumExportRowView(
+        Long albumId,
+        String title,
+        int releaseYear,
+        String cover,
+        Long artistId,
+        String artistName,
+        String genreName,
+        Long genreId,
+        Long songId,
+        String songTitle,
+        LocalDate songReleaseDate,
+        String songYoutubeUrl
+) {
+    public AlbumHeaderView header() {
+        return new AlbumHeaderView(albumId, title, releaseYear, cover, artistId, artistName, genreName, genreId);
+    }
+
+    public AlbumTrackView track() {
+        return songId == null ? null : new AlbumTrackView(albumId, songId, songTitle, songReleaseDate, songYoutubeUrl);
+    }
+}
@@ -0,0 +1,13 @@
+package com.dylabs.zuko.repository.projection;
+
+// Columnas de un álbum necesarias para AlbumResponse, sin su lista de canciones
+public record AlbumHeaderView(
+        Long id,
+        String title,
+        int releaseYear,
+        String cover,
+        Long artistId,
+        String artistName,
+        String genreName,
+        Long genreId
+) {}
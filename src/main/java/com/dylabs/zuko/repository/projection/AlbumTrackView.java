@@ -0,0 +1,17 @@
+package com.dylabs.zuko.repository.projection;
+
+import com.dylabs.zuko.dto.response.AlbumSongSummaryResponse;
+
+import java.time.LocalDate;
+
+public record AlbumTrackView(
+        Long albumId,
+        Long id,
+        String title,
+        LocalDate releaseDate,
+        String youtubeUrl
+) {
+    public AlbumSongSummaryResponse toSummary() {
+        return new AlbumSongSummaryResponse(id, title, releaseDate, youtubeUrl);
+    }
+}
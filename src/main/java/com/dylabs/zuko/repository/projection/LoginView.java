@@ -0,0 +1,11 @@
+package com.dylabs.zuko.repository.projection;
+
+import com.dylabs.zuko.model.User;
+
+// Lo que necesita el login en una sola consulta: el usuario con su rol y el id de su perfil de artista (null si no tiene)
+public interface LoginView {
+
+    User getUser();
+
+    Long getArtistId();
+}
@@ -0,0 +1,26 @@
+package com.dylabs.zuko.repository.projection;
+
+import com.dylabs.zuko.dto.response.PlaylistEntryResponse;
+import com.dylabs.zuko.dto.response.SongResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Fila de playlist_song con las columnas de la canción; position solo se usa para el cursor
+public record PlaylistEntryView(
+        Long position,
+        LocalDateTime addedAt,
+        Long id,
+        String title,
+        boolean isPublicSong,
+        LocalDate releaseDate,
+        Long artistId,
+        String artistName,
+        String youtubeUrl,
+        String imageUrl
+) {
+    public PlaylistEntryResponse toResponse() {
+        return new PlaylistEntryResponse(addedAt,
+                new SongResponse(id, title, isPublicSong, releaseDate, null, artistId, artistName, youtubeUrl, imageUrl));
+    }
+}
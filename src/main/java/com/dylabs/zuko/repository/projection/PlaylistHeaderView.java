@@ -0,0 +1,14 @@
+package com.dylabs.zuko.repository.projection;
+
+import java.time.LocalDate;
+
+// Columnas de una playlist necesarias para PlaylistResponse, sin sus canciones
+public record PlaylistHeaderView(
+        Long playlistId,
+        String name,
+        String description,
+        boolean isPublic,
+        LocalDate createdAt,
+        String url_image,
+        Long userId
+) {}
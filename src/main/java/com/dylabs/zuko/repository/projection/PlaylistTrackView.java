@@ -0,0 +1,21 @@
+package com.dylabs.zuko.repository.projection;
+
+import com.dylabs.zuko.dto.response.SongResponse;
+
+import java.time.LocalDate;
+
+public record PlaylistTrackView(
+        Long playlistId,
+        Long id,
+        String title,
+        boolean isPublicSong,
+        LocalDate releaseDate,
+        Long artistId,
+        String artistName,
+        String youtubeUrl,
+        String imageUrl
+) {
+    public SongResponse toSongResponse() {
+        return new SongResponse(id, title, isPublicSong, releaseDate, null, artistId, artistName, youtubeUrl, imageUrl);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dylabs.zuko.repository.projection;
+
+// Lo necesario antes de cambiar una playlist: su dueño, de qué playlist comparte canciones (si es una bifurcación)
+// y alguna playlist que comparta las suyas (null si nadie lo hace)
+public record PlaylistWriteView(
+        Long ownerId,
+        Long membershipSourceId,
+        Long sharerId
+) {}
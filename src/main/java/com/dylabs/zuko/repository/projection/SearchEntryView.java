@@ -0,0 +1,4 @@
+package com.dylabs.zuko.repository.projection;
+
+public record SearchEntryView(Long id, String text) {
+}
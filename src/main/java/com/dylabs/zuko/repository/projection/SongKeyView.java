@@ -0,0 +1,4 @@
+package com.dylabs.zuko.repository.projection;
+
+public record SongKeyView(Long id, Long artistId, String title, boolean publicSong) {
+}
@@ -0,0 +1,122 @@
+package com.dylabs.zuko.search;
+
+import com.dylabs.zuko.config.DatabaseSchemaInitializer;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.ArtistRepository;
+import com.dylabs.zuko.repository.PlaylistRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Índices en memoria del catálogo: canciones públicas, álbumes, artistas y playlists públicas.
+// Se cargan al arrancar y los servicios los mantienen al día en cada alta, edición o borrado.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final ArtistRepository artistRepository;
+    private final PlaylistRepository playlistRepository;
+    private final DatabaseSchemaInitializer databaseSchemaInitializer;
+
+    private final TrigramIndex songs = new TrigramIndex();
+    private final TrigramIndex albums = new TrigramIndex();
+    private final TrigramIndex artists = new TrigramIndex();
+    private final TrigramIndex playlists = new TrigramIndex();
+
+    // memory: búsquedas desde este índice; database: consultas full-text de PostgreSQL.
+    // Si el esquema de búsqueda de PostgreSQL no se pudo crear se usa siempre este índice.
+    @Value("${zuko.search.engine:memory}")
+    private String engine;
+
+    private volatile boolean ready;
+
+    // Cambios confirmados que llegan mientras se recarga el índice: se aplican después de reemplazarlo,
+    // porque la carga lee una foto anterior y los borraría. null cuando no hay ninguna recarga en curso.
+    private final Object updateLock = new Object();
+    private List<Runnable> pendingUpdates;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (updateLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            songs.replaceAll(toMap(songRepository.findPublicSearchEntries()));
+            albums.replaceAll(toMap(albumRepository.findSearchEntries()));
+            artists.replaceAll(toMap(artistRepository.findSearchEntries()));
+            playlists.replaceAll(toMap(playlistRepository.findPublicSearchEntries()));
+            ready = true;
+            log.info("Índice de búsqueda cargado: {} canciones, {} álbumes, {} artistas, {} playlists",
+                    songs.liveCount(), albums.liveCount(), artists.liveCount(), playlists.liveCount());
+        } catch (RuntimeException e) {
+            ready = false;
+            log.warn("No se pudo cargar el índice de búsqueda, {}: {}", isDatabaseSearchAvailable()
+                    ? "se usarán las consultas a la base de datos" : "las búsquedas no devolverán resultados", e.getMessage());
+        } finally {
+            synchronized (updateLock) {
+                pendingUpdates.forEach(Runnable::run);
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    // Punto de entrada de las altas, ediciones y borrados ya confirmados (ver CatalogSearchService)
+    public void apply(Runnable update) {
+        synchronized (updateLock) {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+                return;
+            }
+            update.run();
+        }
+    }
+
+    public boolean isEnabled() {
+        return "memory".equalsIgnoreCase(engine) || !isDatabaseSearchAvailable();
+    }
+
+    public boolean isDatabaseSearchAvailable() {
+        return databaseSchemaInitializer.isSearchSchemaReady();
+    }
+
+    public boolean isReady() {
+        return ready && isEnabled();
+    }
+
+    public TrigramIndex songs() {
+        return songs;
+    }
+
+    public TrigramIndex albums() {
+        return albums;
+    }
+
+    public TrigramIndex artists() {
+        return artists;
+    }
+
+    public TrigramIndex playlists() {
+        return playlists;
+    }
+
+    private static Map<Long, String> toMap(List<SearchEntryView> entries) {
+        Map<Long, String> documents = new HashMap<>(entries.size() * 2);
+        entries.forEach(entry -> documents.put(entry.id(), entry.text()));
+        return documents;
+    }
+}
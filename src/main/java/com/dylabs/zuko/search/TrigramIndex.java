@@ -0,0 +1,273 @@
+package com.dylabs.zuko.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Índice invertido de trigramas en memoria para un tipo de documento (id + texto).
+// Cada documento recibe un ordinal interno; las listas de postings guardan ordinales (int) en orden creciente.
+// Actualizar o borrar marca el ordinal anterior como eliminado y se compacta cuando los huecos dominan.
+public class TrigramIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double SIMILARITY_THRESHOLD = 0.3;
+    // Cabeza del montículo: menor puntuación y, a igualdad, mayor id
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] ids = new long[16];
+    private String[] texts = new String[16];
+    private int[] gramCounts = new int[16];
+    private final BitSet deleted = new BitSet();
+    private int size;
+
+    public void put(long id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            addLocked(id, normalized);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replaceAll(Map<Long, String> documents) {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            documents.forEach((id, text) -> {
+                String normalized = normalize(text);
+                if (!normalized.isEmpty()) {
+                    addLocked(id, normalized);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int liveCount() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids ordenados por relevancia: coincidencia como subcadena, palabras contenidas y similitud de trigramas.
+    // Las listas de postings están ordenadas, así que se recorren en paralelo contando en cuántas aparece cada ordinal:
+    // la memoria depende del número de trigramas de la consulta, no del tamaño del catálogo.
+    // Solo se conservan los offset + limit mejores en un montículo acotado.
+    public List<Long> search(String query, int offset, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] words = normalized.split(" ");
+        int keep = (int) Math.min((long) Math.max(offset, 0) + limit, Integer.MAX_VALUE);
+        PriorityQueue<Hit> top = new PriorityQueue<>(WORST_FIRST);
+
+        lock.readLock().lock();
+        try {
+            long[] queryGrams = trigrams(normalized);
+            // Consultas de uno o dos caracteres no tienen trigramas completos: se usa el de inicio de palabra
+            // ("  c" o " ca"), que el relleno ya guarda en el índice, así que buscan por prefijo de palabra
+            boolean shortQuery = normalized.length() < 3;
+            long[] lookup = shortQuery ? new long[]{prefixGram(normalized)} : queryGrams;
+            Postings[] lists = Arrays.stream(lookup)
+                    .mapToObj(postings::get)
+                    .filter(Objects::nonNull)
+                    .toArray(Postings[]::new);
+            int[] cursors = new int[lists.length];
+            while (true) {
+                int ordinal = Integer.MAX_VALUE;
+                for (int i = 0; i < lists.length; i++) {
+                    if (cursors[i] < lists[i].length) {
+                        ordinal = Math.min(ordinal, lists[i].ordinals[cursors[i]]);
+                    }
+                }
+                if (ordinal == Integer.MAX_VALUE) {
+                    break;
+                }
+                int shared = 0;
+                for (int i = 0; i < lists.length; i++) {
+                    if (cursors[i] < lists[i].length && lists[i].ordinals[cursors[i]] == ordinal) {
+                        shared++;
+                        cursors[i]++;
+                    }
+                }
+                if (deleted.get(ordinal)) continue;
+                double score = score(ordinal, normalized, words, shortQuery ? 0 : shared, queryGrams.length);
+                if (score > 0) {
+                    top.offer(new Hit(ids[ordinal], score));
+                    if (top.size() > keep) {
+                        top.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> best = new ArrayList<>(top);
+        best.sort(WORST_FIRST.reversed());
+        return best.stream()
+                .skip(Math.max(offset, 0))
+                .map(Hit::id)
+                .toList();
+    }
+
+    // Misma normalización que zuko_normalize en la base de datos: sin tildes y en minúsculas
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String withoutMarks = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutMarks.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    private double score(int ordinal, String query, String[] words, int shared, int queryGramCount) {
+        String text = texts[ordinal];
+        double similarity = shared == 0 ? 0 : (double) shared / (queryGramCount + gramCounts[ordinal] - shared);
+        if (text.startsWith(query)) {
+            return 3 + similarity;
+        }
+        if (text.contains(query)) {
+            return 2 + similarity;
+        }
+        if (Arrays.stream(words).allMatch(text::contains)) {
+            return 1 + similarity;
+        }
+        return similarity >= SIMILARITY_THRESHOLD ? similarity : 0;
+    }
+
+    private void addLocked(long id, String normalized) {
+        ensureCapacity(size + 1);
+        int ordinal = size++;
+        ids[ordinal] = id;
+        texts[ordinal] = normalized;
+        long[] grams = trigrams(normalized);
+        gramCounts[ordinal] = grams.length;
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+        ordinalById.put(id, ordinal);
+    }
+
+    private void removeLocked(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal != null) {
+            deleted.set(ordinal);
+            texts[ordinal] = null;
+        }
+    }
+
+    private void clearLocked() {
+        postings.clear();
+        ordinalById.clear();
+        deleted.clear();
+        ids = new long[16];
+        texts = new String[16];
+        gramCounts = new int[16];
+        size = 0;
+    }
+
+    private void compactIfNeeded() {
+        int dead = deleted.cardinality();
+        if (dead < 1024 || dead * 2 < size) {
+            return;
+        }
+        long[] liveIds = new long[size - dead];
+        String[] liveTexts = new String[size - dead];
+        int n = 0;
+        for (int ordinal = deleted.nextClearBit(0); ordinal < size; ordinal = deleted.nextClearBit(ordinal + 1)) {
+            liveIds[n] = ids[ordinal];
+            liveTexts[n++] = texts[ordinal];
+        }
+        clearLocked();
+        for (int i = 0; i < n; i++) {
+            addLocked(liveIds[i], liveTexts[i]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        texts = Arrays.copyOf(texts, newLength);
+        gramCounts = Arrays.copyOf(gramCounts, newLength);
+    }
+
+    // Trigramas por palabra con relleno de espacios (como pg_trgm), codificados en un long y sin repetir
+    private static long[] trigrams(String normalized) {
+        return Arrays.stream(normalized.split(" "))
+                .flatMapToLong(word -> {
+                    String padded = "  " + word + " ";
+                    long[] grams = new long[padded.length() - 2];
+                    for (int i = 0; i < grams.length; i++) {
+                        grams[i] = gram(padded, i);
+                    }
+                    return Arrays.stream(grams);
+                })
+                .distinct()
+                .toArray();
+    }
+
+    // Trigrama de inicio de palabra de una consulta de uno o dos caracteres
+    private static long prefixGram(String shortQuery) {
+        String padded = "  " + shortQuery;
+        return gram(padded, padded.length() - 3);
+    }
+
+    private static long gram(String padded, int start) {
+        return ((long) padded.charAt(start) << 32) | ((long) padded.charAt(start + 1) << 16) | padded.charAt(start + 2);
+    }
+
+    private record Hit(long id, double score) {}
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int length;
+
+        void add(int ordinal) {
+            if (length == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, length * 2);
+            }
+            ordinals[length++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dylabs.zuko.security;
+
+import java.security.Principal;
+
+// Principal que JwtFilter deja en el contexto de seguridad: los datos firmados del token,
+// para autorizar sin volver a consultar users ni artists en cada petición.
+// getName() devuelve el id, igual que antes, así que authentication.getName() sigue funcionando.
+public record AuthenticatedUser(
+        Long id,
+        String role,     // nombre del rol sin el prefijo ROLE_
+        Long artistId    // null si el usuario no tiene perfil de artista
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return id.toString();
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equalsIgnoreCase(role);
+    }
+
+    public boolean hasArtistProfile() {
+        return artistId != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dylabs.zuko.security;
+
+import org.springframework.security.core.Authentication;
+
+public final class AuthenticationUtils {
+
+    private AuthenticationUtils() {}
+
+    // El rol viaja en el token (ROLE_ADMIN), así que no hace falta consultar la tabla users
+    public static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equalsIgnoreCase(authority.getAuthority()));
+    }
+
+    // Datos del token (id, rol y artista) sin consultar la base de datos
+    public static AuthenticatedUser currentUser(Authentication authentication) {
+        return (AuthenticatedUser) authentication.getPrincipal();
+    }
+}
@@ -0,0 +1,128 @@
+package com.dylabs.zuko.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Claves públicas con las que Google firma sus ID tokens, indexadas por kid.
+// Se descargan en segundo plano y se renuevan cuando vence el max-age de la respuesta,
+// así que verificar un login de Google no hace ninguna llamada de red.
+// Con zuko.google.jwks-file se leen de un fichero JWKS local (pruebas y entornos sin salida a internet).
+@Slf4j
+@Component
+public class GoogleJwksCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+    private static final Duration RETRY_AFTER = Duration.ofMinutes(1);
+    // Se renueva un poco antes de que venza para no quedarse nunca con claves caducadas
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    private record Jwks(Map<String, PublicKey> keys, Instant refreshAt) {
+    }
+
+    private final String url;
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RestTemplate restTemplate;
+    private final AtomicReference<Jwks> jwks = new AtomicReference<>(new Jwks(Map.of(), Instant.EPOCH));
+
+    public GoogleJwksCache(@Value("${zuko.google.jwks-url:https://www.googleapis.com/oauth2/v3/certs}") String url,
+                           @Value("${zuko.google.jwks-file:}") String file) {
+        this.url = url;
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) Duration.ofSeconds(5).toMillis());
+        requestFactory.setReadTimeout((int) Duration.ofSeconds(5).toMillis());
+        this.restTemplate = new RestTemplate(requestFactory);
+        if (this.file != null) {
+            try {
+                this.jwks.set(new Jwks(parse(Files.readString(this.file)), Instant.MAX));
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo leer el fichero JWKS " + file, e);
+            }
+        }
+    }
+
+    // null si el kid no está: puede que Google haya rotado, así que se adelanta la siguiente descarga.
+    // compareAndSet: si entretanto otro hilo guardó claves nuevas, se quedan esas en lugar de volver a las leídas aquí
+    public PublicKey key(String keyId) {
+        Jwks current = jwks.get();
+        PublicKey key = keyId == null ? null : current.keys().get(keyId);
+        if (key == null && file == null) {
+            Instant soon = Instant.now().plus(RETRY_AFTER);
+            if (current.refreshAt().isAfter(soon)) {
+                jwks.compareAndSet(current, new Jwks(current.keys(), soon));
+            }
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${zuko.google.jwks-check-interval-ms:30000}")
+    public void refreshIfStale() {
+        Jwks current = jwks.get();
+        Instant now = Instant.now();
+        if (file != null || now.isBefore(current.refreshAt())) {
+            return;
+        }
+        try {
+            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            Duration maxAge = maxAge(response.getHeaders().getCacheControl());
+            Map<String, PublicKey> keys = parse(response.getBody());
+            Instant refreshAt = now.plus(maxAge.compareTo(REFRESH_MARGIN.multipliedBy(2)) > 0 ? maxAge.minus(REFRESH_MARGIN) : maxAge);
+            jwks.set(new Jwks(keys, refreshAt));
+            log.info("Claves de Google actualizadas: {} claves, próxima descarga en {} s", keys.size(), Duration.between(now, refreshAt).toSeconds());
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            // Se conservan las claves anteriores y se reintenta en breve
+            jwks.updateAndGet(latest -> new Jwks(latest.keys(), now.plus(RETRY_AFTER)));
+            log.warn("No se pudieron descargar las claves de Google de {}: {}", url, e.getMessage());
+        }
+    }
+
+    private Map<String, PublicKey> parse(String json) throws IOException, GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (JsonNode node : objectMapper.readTree(json).path("keys")) {
+            if (!"RSA".equals(node.path("kty").asText()) || !node.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(node.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(node.path("e").asText()));
+            keys.put(node.get("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return Map.copyOf(keys);
+    }
+
+    private static Duration maxAge(String cacheControl) {
+        if (cacheControl != null) {
+            Matcher matcher = MAX_AGE.matcher(cacheControl);
+            if (matcher.find()) {
+                return Duration.ofSeconds(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return DEFAULT_MAX_AGE;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -11,8 +12,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
+@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter{
 
+    private final TokenInvalidationRegistry tokenInvalidationRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -20,8 +25,12 @@ public class JwtFilter extends OncePerRequestFilter{
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            var auth = JwtUtil.getAuthentication(token);
-            SecurityContextHolder.getContext().setAuthentication(auth);
+            VerifiedTokenCache.VerifiedToken verified = verifiedTokenCache.verify(token);
+            // Un token emitido antes de un cambio de rol o de perfil de artista (o de una desactivación)
+            // se trata como ausente, también si ya estaba en la caché
+            if (!tokenInvalidationRegistry.isInvalidated(verified.userId(), verified.tokenVersion())) {
+                SecurityContextHolder.getContext().setAuthentication(verified.authentication());
+            }
         }
         filterChain.doFilter(request, response);
     }
@@ -1,44 +1,195 @@
 package com.dylabs.zuko.security;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.security.Key;
-import java.util.Date;
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
 
+// Firma y verifica los tokens con claves compartidas por todos los nodos, identificadas por kid.
+// Las claves salen de zuko.jwt.secret y/o de zuko.jwt.key-file (kid=secreto en base64, más active=kid),
+// que se relee periódicamente: para rotar se añade la clave nueva en todos los nodos, después se cambia active
+// y la anterior se retira cuando hayan caducado sus tokens.
+// Sin configuración se usa una clave aleatoria, válida solo en este nodo y hasta reiniciar.
+@Slf4j
+@Component
 public class JwtUtil {
 
-    private static final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private static final long EXPIRATION = 86400000;
+    static final Duration EXPIRATION = Duration.ofDays(1);
 
-    public static String generateToken(String id, String role) {
-        return Jwts.builder()
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String ACTIVE_KEY_ID = "active";
+    private static final String TOKEN_VERSION_CLAIM = "tv";
+
+    private record KeyRing(String activeKeyId, Map<String, SecretKey> keys, long version) {
+    }
+
+    private final String secret;
+    private final String secretKeyId;
+    private final Path keyFile;
+    private volatile KeyRing keyRing;
+    private volatile FileTime keyFileModified;
+
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez y resuelve la clave por kid
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return verificationKey(header.getKeyId());
+                }
+            })
+            .build();
+
+    public JwtUtil(@Value("${zuko.jwt.secret:}") String secret,
+                   @Value("${zuko.jwt.key-id:default}") String secretKeyId,
+                   @Value("${zuko.jwt.key-file:}") String keyFile) {
+        this.secret = secret;
+        this.secretKeyId = secretKeyId;
+        this.keyFile = keyFile == null || keyFile.isBlank() ? null : Path.of(keyFile);
+        try {
+            this.keyRing = loadKeys(0);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer el fichero de claves JWT " + keyFile, e);
+        }
+    }
+
+    // artistId es null para usuarios sin perfil de artista; tokenVersion es la de users.token_version al emitirlo
+    public String generateToken(String id, String role, Long artistId, long tokenVersion) {
+        KeyRing ring = keyRing;
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, ring.activeKeyId())
                 .setSubject(id)
-                .claim("role", "ROLE_" + role)
+                .claim("role", ROLE_PREFIX + role)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
-                .signWith(SECRET_KEY)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION.toMillis()));
+        if (artistId != null) {
+            builder.claim("artistId", artistId);
+        }
+        if (tokenVersion > 0) {
+            builder.claim(TOKEN_VERSION_CLAIM, tokenVersion);
+        }
+        return builder.signWith(ring.keys().get(ring.activeKeyId()), SignatureAlgorithm.HS256).compact();
+    }
+
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public static Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Cambia cada vez que se recargan las claves, para que la caché de tokens no sirva los de una clave retirada
+    public long keysVersion() {
+        return keyRing.version();
+    }
+
+    @Scheduled(fixedDelayString = "${zuko.jwt.key-reload-interval-ms:60000}")
+    public void reloadKeys() {
+        if (keyFile == null) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(keyFile).equals(keyFileModified)) {
+                return;
+            }
+            KeyRing ring = loadKeys(keyRing.version() + 1);
+            keyRing = ring;
+            log.info("Claves JWT recargadas: activa '{}', {} para verificar", ring.activeKeyId(), ring.keys().size());
+        } catch (IOException | RuntimeException e) {
+            // Se siguen usando las claves anteriores hasta que el fichero vuelva a ser válido
+            log.warn("No se pudieron recargar las claves JWT de {}: {}", keyFile, e.getMessage());
+        }
+    }
 
-        String username = claims.getSubject();
-        String role = claims.get("role", String.class);
+    public static Authentication toAuthentication(Claims claims) {
+        String authority = claims.get("role", String.class);
+        String role = authority != null && authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority;
+        Number artistId = claims.get("artistId", Number.class);
 
+        AuthenticatedUser principal = new AuthenticatedUser(
+                Long.parseLong(claims.getSubject()),
+                role,
+                artistId == null ? null : artistId.longValue()
+        );
         return new UsernamePasswordAuthenticationToken(
-                username,
+                principal,
                 null,
-                List.of(new SimpleGrantedAuthority(role))
+                List.of(new SimpleGrantedAuthority(authority))
         );
     }
+
+    // Los tokens emitidos antes de existir la versión no la llevan y cuentan como versión 0
+    public static long tokenVersion(Claims claims) {
+        Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return version == null ? 0 : version.longValue();
+    }
+
+    private Key verificationKey(String keyId) {
+        SecretKey key = keyId == null ? null : keyRing.keys().get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Token firmado con una clave desconocida: " + keyId);
+        }
+        return key;
+    }
+
+    private KeyRing loadKeys(long version) throws IOException {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        String activeKeyId = null;
+
+        if (secret != null && !secret.isBlank()) {
+            keys.put(secretKeyId, decodeKey(secretKeyId, secret));
+            activeKeyId = secretKeyId;
+        }
+
+        if (keyFile != null) {
+            FileTime modified = Files.getLastModifiedTime(keyFile);
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keyFile)) {
+                properties.load(reader);
+            }
+            for (String keyId : new TreeSet<>(properties.stringPropertyNames())) {
+                if (!ACTIVE_KEY_ID.equals(keyId)) {
+                    keys.put(keyId, decodeKey(keyId, properties.getProperty(keyId)));
+                }
+            }
+            String fileActive = properties.getProperty(ACTIVE_KEY_ID);
+            if (fileActive != null && !fileActive.isBlank()) {
+                activeKeyId = fileActive.trim();
+            } else if (activeKeyId == null && keys.size() == 1) {
+                activeKeyId = keys.keySet().iterator().next();
+            }
+            keyFileModified = modified;
+        }
+
+        if (keys.isEmpty()) {
+            log.warn("No hay claves JWT configuradas (zuko.jwt.secret o zuko.jwt.key-file): se usa una clave aleatoria " +
+                    "y los tokens no valdrán en otros nodos ni tras reiniciar");
+            String keyId = "local-" + UUID.randomUUID();
+            return new KeyRing(keyId, Map.of(keyId, Keys.secretKeyFor(SignatureAlgorithm.HS256)), version);
+        }
+        if (activeKeyId == null || !keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("La clave JWT activa '" + activeKeyId + "' no está entre las configuradas " + keys.keySet());
+        }
+        return new KeyRing(activeKeyId, Map.copyOf(keys), version);
+    }
+
+    private static SecretKey decodeKey(String keyId, String value) {
+        try {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(value.trim()));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Clave JWT '" + keyId + "' inválida: debe ser base64 de al menos 32 bytes", e);
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package com.dylabs.zuko.security;
+
+import com.dylabs.zuko.exception.userExeptions.LoginUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Verifica contraseñas BCrypt en un pool propio del tamaño de los núcleos, con cola acotada.
+// Una ráfaga de logins solo puede ocupar esos hilos de CPU; el resto de peticiones sigue atendiéndose.
+// Con la cola llena, o si la espera supera el límite, el login se rechaza con 503 en lugar de acumular hilos de Tomcat.
+@Slf4j
+@Component
+public class PasswordHashingPool {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private volatile String unknownUserHash;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingPool(PasswordEncoder passwordEncoder,
+                               @Value("${zuko.auth.hash-threads:0}") int threads,
+                               @Value("${zuko.auth.hash-queue-capacity:64}") int queueCapacity,
+                               @Value("${zuko.auth.hash-timeout-ms:3000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Sin hash (usuario inexistente) se compara igualmente contra uno ficticio, para que la respuesta tarde lo mismo
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                if (encodedPassword == null) {
+                    timedMatches(rawPassword, unknownUserHash());
+                    return false;
+                }
+                return timedMatches(rawPassword, encodedPassword);
+            });
+        } catch (RejectedExecutionException e) {
+            throw unavailable();
+        }
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw unavailable();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw unavailable();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long hashes() {
+        return hashes.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${zuko.auth.hash-report-interval-ms:60000}")
+    public void report() {
+        long count = hashes.sumThenReset();
+        long nanos = hashNanos.sumThenReset();
+        long maxNanos = maxHashNanos.getThenReset();
+        long rejectedCount = rejected.sumThenReset();
+        if (count + rejectedCount > 0) {
+            log.info("Contraseñas verificadas: {} (media {} ms, máx {} ms), {} rechazadas, {} en cola, {} activas",
+                    count, count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos / count),
+                    TimeUnit.NANOSECONDS.toMillis(maxNanos), rejectedCount, queueDepth(), executor.getActiveCount());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean timedMatches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return passwordEncoder.matches(rawPassword, encodedPassword);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashes.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulate(elapsed);
+        }
+    }
+
+    private String unknownUserHash() {
+        if (unknownUserHash == null) {
+            unknownUserHash = passwordEncoder.encode("usuario-inexistente");
+        }
+        return unknownUserHash;
+    }
+
+    private LoginUnavailableException unavailable() {
+        rejected.increment();
+        return new LoginUnavailableException("Hay demasiados inicios de sesión en curso, inténtalo de nuevo en unos segundos.");
+    }
+}
@@ -1,5 +1,6 @@
 package com.dylabs.zuko.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -30,6 +31,8 @@ public class SecurityConfig {
                 .sessionManagement(sess ->
                         sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Las respuestas en streaming terminan en un despacho ASYNC de la petición ya autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/users/login", "/users/signup", "users/google/login","users/google/register").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,61 @@
+package com.dylabs.zuko.security;
+
+import com.dylabs.zuko.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Los tokens llevan rol y artista firmados, junto con la versión de tokens del usuario (users.token_version).
+// Cuando cambian, o se desactiva la cuenta, la versión sube en la base de datos y los tokens firmados con una
+// anterior dejan de aceptarse en todos los nodos.
+// Cada nodo guarda la versión leída durante unos segundos para no consultarla en cada petición:
+// el nodo que invalida la ve al momento y el resto como mucho tras ese tiempo.
+@Component
+public class TokenInvalidationRegistry {
+
+    private record CachedVersion(long version, long loadedAt) {
+    }
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    public TokenInvalidationRegistry(UserRepository userRepository,
+                                     @Value("${zuko.jwt.token-version-ttl-ms:5000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    // Devuelve la versión nueva, con la que hay que firmar los tokens que se emitan a partir de ahora
+    public long invalidate(Long userId) {
+        Long version = userRepository.incrementTokenVersion(userId);
+        long current = version == null ? 0 : version;
+        versions.put(userId, new CachedVersion(current, System.nanoTime()));
+        return current;
+    }
+
+    public boolean isInvalidated(Long userId, long tokenVersion) {
+        return tokenVersion < currentVersion(userId);
+    }
+
+    private long currentVersion(Long userId) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.version();
+        }
+        long version = userRepository.findTokenVersionById(userId).orElse(0L);
+        versions.put(userId, new CachedVersion(version, now));
+        return version;
+    }
+
+    @Scheduled(fixedDelayString = "${zuko.jwt.token-version-ttl-ms:5000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        versions.values().removeIf(cached -> now - cached.loadedAt() >= ttlNanos);
+    }
+}
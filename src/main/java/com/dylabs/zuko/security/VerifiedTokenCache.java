@@ -0,0 +1,116 @@
+package com.dylabs.zuko.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Los clientes repiten el mismo token miles de veces: la firma y el JSON se verifican una vez
+// y el Authentication construido se reutiliza hasta el exp del token.
+// La clave es el SHA-256 del token para no guardar tokens en claro en memoria.
+// Los tokens inválidos no se guardan: parseClaims lanza la excepción igual que antes.
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    public record VerifiedToken(Authentication authentication, Long userId, long tokenVersion, Instant expiresAt,
+                                long keysVersion) {
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(JwtUtil jwtUtil, @Value("${zuko.jwt.cache.max-entries:10000}") int maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = maxEntries;
+    }
+
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        Instant now = Instant.now();
+        long keysVersion = jwtUtil.keysVersion();
+        VerifiedToken cached = entries.get(key);
+        // Tras recargar las claves se vuelve a verificar, por si la que firmó el token se ha retirado
+        if (cached != null && !cached.isExpired(now) && cached.keysVersion() == keysVersion) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        Claims claims = jwtUtil.parseClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+                JwtUtil.toAuthentication(claims),
+                Long.parseLong(claims.getSubject()),
+                JwtUtil.tokenVersion(claims),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant(),
+                keysVersion
+        );
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, verified);
+        return verified;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelayString = "${zuko.jwt.cache.report-interval-ms:60000}")
+    public void report() {
+        long hitCount = hits.sumThenReset();
+        long missCount = misses.sumThenReset();
+        entries.values().removeIf(entry -> entry.isExpired(Instant.now()));
+        if (hitCount + missCount > 0) {
+            log.info("Caché de tokens: {} aciertos, {} fallos ({}% aciertos), {} entradas",
+                    hitCount, missCount, hitCount * 100 / (hitCount + missCount), entries.size());
+        }
+    }
+
+    // Primero los caducados; si no basta, se descartan entradas cualquiera hasta dejar un octavo libre
+    private void evict(Instant now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int target = maxEntries - Math.max(1, maxEntries / 8);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
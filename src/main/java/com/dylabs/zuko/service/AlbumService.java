@@ -1,8 +1,10 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.AlbumRequest;
 import com.dylabs.zuko.dto.request.SongRequest;
 import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.ReleaseItemResponse;
 import com.dylabs.zuko.exception.albumExceptions.AlbumAlreadyExistsException;
 import com.dylabs.zuko.exception.albumExceptions.AlbumNotFoundException;
@@ -16,20 +18,27 @@ import com.dylabs.zuko.model.Album;
 import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.Genre;
 import com.dylabs.zuko.model.Song;
-import com.dylabs.zuko.model.User;
+import com.dylabs.zuko.security.AuthenticatedUser;
 import com.dylabs.zuko.repository.AlbumRepository;
 import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.repository.GenreRepository;
 import com.dylabs.zuko.repository.SongRepository;
-import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.repository.projection.AlbumHeaderView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,7 +51,7 @@ public class AlbumService {
     private final AlbumMapper albumMapper;
     private final SongRepository songRepository;
     private final SongMapper songMapper;
-    private final UserRepository userRepository;
+    private final CatalogSearchService catalogSearchService;
 
     // Método reutilizable para validar que todas las canciones sean públicas
     private void validatePublicSongs(List<SongRequest> songs) {
@@ -52,20 +61,59 @@ public class AlbumService {
         }
     }
 
-    public AlbumResponse createAlbum(AlbumRequest request, String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado"));
+    // Resuelve todas las pistas con una consulta y crea las que faltan en un único batch
+    private List<Song> resolveSongs(List<SongRequest> songRequests, Artist artist) {
+        Set<String> titles = songRequests.stream()
+                .map(songRequest -> normalizeTitle(songRequest.title()))
+                .collect(Collectors.toSet());
+
+        Map<String, Song> songsByTitle = new HashMap<>();
+        songRepository.findPublicByArtistIdAndNormalizedTitleIn(artist.getId(), titles)
+                .forEach(song -> songsByTitle.putIfAbsent(normalizeTitle(song.getTitle()), song));
+
+        Map<String, Song> missing = new LinkedHashMap<>();
+        for (SongRequest songRequest : songRequests) {
+            String title = normalizeTitle(songRequest.title());
+            if (!songsByTitle.containsKey(title) && !missing.containsKey(title)) {
+                Song newSong = new Song();
+                newSong.setTitle(songRequest.title());
+                newSong.setPublicSong(songRequest.isPublicSong());
+                newSong.setReleaseDate(LocalDate.now());
+                newSong.setArtist(artist);
+                newSong.setImageUrl(songRequest.imageUrl());
+                newSong.setYoutubeUrl(songRequest.youtubeUrl());
+                missing.put(title, newSong);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Long> ids = songRepository.insertAll(List.copyOf(missing.values()));
+            songRepository.findAllById(ids).forEach(song -> {
+                songsByTitle.put(normalizeTitle(song.getTitle()), song);
+                catalogSearchService.onSongSaved(song);
+            });
+        }
+
+        return songRequests.stream()
+                .map(songRequest -> songsByTitle.get(normalizeTitle(songRequest.title())))
+                .collect(Collectors.toList());
+    }
+
+    private static String normalizeTitle(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
 
+    @Transactional
+    public AlbumResponse createAlbum(AlbumRequest request, AuthenticatedUser user) {
         Artist artist;
-        if ("ADMIN".equalsIgnoreCase(user.getUserRoleName())) {
+        if (user.isAdmin()) {
             if (request.artistId() == null) {
                 throw new AlbumValidationException("El campo artistId es obligatorio para administradores.");
             }
             artist = artistRepository.findById(request.artistId())
                     .orElseThrow(() -> new ArtistNotFoundException("Artista no encontrado con ID: " + request.artistId()));
         } else {
-            artist = artistRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
+            artist = ownArtist(user);
         }
 
         Genre genre = genreRepository.findById(request.genreId())
@@ -75,40 +123,20 @@ public class AlbumService {
             throw new AlbumAlreadyExistsException("El título del álbum ya existe para este artista.");
         }
 
-        if (request.songs().size() < 2) {
+        if (request.songs() == null || request.songs().size() < 2) {
             throw new AlbumValidationException("El álbum debe contener al menos dos canciones.");
         }
 
         // Validar que todas las canciones sean públicas
         validatePublicSongs(request.songs());
 
-        List<Song> persistedSongs = request.songs().stream()
-                .map(songRequest -> {
-                    Song existingSong = songRepository.findByTitleContainingIgnoreCaseAndIsPublicSongTrue(songRequest.title())
-                            .stream()
-                            .filter(s -> s.getArtist().getId().equals(artist.getId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (existingSong == null) {
-                        Song newSong = new Song();
-                        newSong.setTitle(songRequest.title());
-                        newSong.setPublicSong(songRequest.isPublicSong());
-                        newSong.setReleaseDate(LocalDate.now());
-                        newSong.setArtist(artist);
-                        newSong.setImageUrl(songRequest.imageUrl());
-                        newSong.setYoutubeUrl(songRequest.youtubeUrl());
-                        return songRepository.save(newSong);
-                    }
-
-                    return existingSong;
-                })
-                .collect(Collectors.toList());
+        List<Song> persistedSongs = resolveSongs(request.songs(), artist);
 
         Album album = albumMapper.toAlbumEntity(request, artist, genre);
         album.setSongs(persistedSongs);
         album.setReleaseDate(LocalDate.now());
         album = albumRepository.save(album);
+        catalogSearchService.onAlbumSaved(album);
 
         return albumMapper.toResponse(album);
     }
@@ -132,45 +160,42 @@ public class AlbumService {
     }
 
 
-    public List<AlbumResponse> getAlbumsByTitle(String title) {
-        List<Album> albums = albumRepository.findAllByTitleContainingIgnoreCase(title);
+    public List<AlbumResponse> getAlbumsByTitle(String title, Integer page, Integer limit) {
+        List<AlbumResponse> albums = findAlbumsByTitle(title, page, limit);
 
         if (albums.isEmpty()) {
             throw new AlbumNotFoundException("No se encontraron álbumes con el título especificado.");
         }
 
-        // Filtrar las canciones públicas en cada álbum
-        albums.forEach(album ->
-                album.setSongs(album.getSongs().stream()
-                        .filter(Song::isPublicSong) // Mantener solo canciones públicas
-                        .collect(Collectors.toList())
-                )
-        );
-
-        return albums.stream().map(albumMapper::toResponse).collect(Collectors.toList());
+        return albums;
     }
 
+    // Variante sin excepción para la búsqueda unificada
+    public List<AlbumResponse> findAlbumsByTitle(String title, Integer page, Integer limit) {
+        List<Long> ids = catalogSearchService.searchAlbumIds(title, page, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toResponsesWithPublicSongs(
+                CatalogSearchService.inOrder(ids, albumRepository.findHeadersByIds(ids), AlbumHeaderView::id));
+    }
 
-    public List<AlbumResponse> getAlbumsByTitleAndUser(String title, String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado"));
-
-        Artist artist = artistRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
 
-        List<Album> albums = albumRepository.findAllByTitleContainingIgnoreCaseAndArtistId(title, artist.getId());
+    public List<AlbumResponse> getAlbumsByTitleAndUser(String title, AuthenticatedUser user) {
+        List<Album> albums = albumRepository.findAllByTitleContainingIgnoreCaseAndArtistId(title, ownArtistId(user));
         if (albums.isEmpty()) {
             throw new AlbumNotFoundException("No se encontraron álbumes con el título especificado para este artista.");
         }
         return albums.stream().map(albumMapper::toResponse).collect(Collectors.toList());
     }
 
-    public List<AlbumResponse> getAllAlbums() {
-        List<Album> albums = albumRepository.findAll();
-        if (albums.isEmpty()) {
+    public CursorPageResponse<AlbumResponse> getAllAlbums(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        List<Album> albums = albumRepository.findByIdGreaterThanOrderByIdAsc(Cursor.afterId(cursor), Limit.of(pageSize + 1));
+        if (albums.isEmpty() && cursor == null) {
             throw new AlbumNotFoundException("No se encontraron álbumes.");
         }
-        return albums.stream().map(albumMapper::toResponse).collect(Collectors.toList());
+        return CursorPageResponse.of(albums, pageSize, albumMapper::toResponse, album -> Cursor.encode(album.getId()));
     }
 
     public List<AlbumResponse> getAlbumsByArtistId(Long artistId) {
@@ -178,43 +203,39 @@ public class AlbumService {
             throw new ArtistNotFoundException("Artista no encontrado con ID: " + artistId);
         }
 
-        List<Album> albums = albumRepository.findAllByArtistId(artistId);
+        List<AlbumHeaderView> albums = albumRepository.findHeadersByArtistId(artistId);
 
         if (albums.isEmpty()) {
             throw new AlbumNotFoundException("No se encontraron álbumes para este artista.");
         }
 
-        // Filtrar las canciones públicas en cada álbum
-        albums.forEach(album ->
-                album.setSongs(album.getSongs().stream()
-                        .filter(Song::isPublicSong) // Mantener solo canciones públicas
-                        .collect(Collectors.toList())
-                )
-        );
+        return toResponsesWithPublicSongs(albums);
+    }
 
-        return albums.stream().map(albumMapper::toResponse).collect(Collectors.toList());
+    // Solo las canciones públicas de cada álbum, en una única consulta para todos los álbumes
+    private List<AlbumResponse> toResponsesWithPublicSongs(List<AlbumHeaderView> albums) {
+        List<Long> albumIds = albums.stream().map(AlbumHeaderView::id).toList();
+        return albumMapper.toResponses(albums, albumRepository.findPublicTracksByAlbumIds(albumIds));
     }
 
 
 
 
-    public AlbumResponse updateAlbum(Long id, AlbumRequest request, String userIdFromToken) {
+    @Transactional
+    public AlbumResponse updateAlbum(Long id, AlbumRequest request, AuthenticatedUser user) {
         Album album = albumRepository.findById(id)
                 .orElseThrow(() -> new AlbumNotFoundException("Álbum no disponible."));
 
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado"));
-
         Artist artist;
-        if ("ADMIN".equalsIgnoreCase(user.getUserRoleName()) && request.artistId() != null) {
+        if (user.isAdmin() && request.artistId() != null) {
             artist = artistRepository.findById(request.artistId())
                     .orElseThrow(() -> new ArtistNotFoundException("Artista no encontrado con ID: " + request.artistId()));
         } else {
-            artist = artistRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
-            if (!album.getArtist().getId().equals(artist.getId())) {
+            // El artista del álbum ya viene cargado: basta comparar su id con el del token
+            if (!album.getArtist().getId().equals(ownArtistId(user))) {
                 throw new AccessDeniedException("No puedes modificar este álbum.");
             }
+            artist = album.getArtist();
         }
 
         Genre genre = genreRepository.findById(request.genreId())
@@ -224,40 +245,19 @@ public class AlbumService {
             throw new AlbumAlreadyExistsException("El título del álbum ya existe para este artista.");
         }
 
-        if (request.songs().size() < 2) {
+        if (request.songs() == null || request.songs().size() < 2) {
             throw new AlbumValidationException("El álbum debe contener al menos dos canciones.");
         }
 
         // Validar que todas las canciones sean públicas
         validatePublicSongs(request.songs());
 
-        List<Song> persistedSongs = request.songs().stream()
-                .map(songRequest -> {
-
-                    Song existingSong = songRepository.findByTitleContainingIgnoreCaseAndIsPublicSongTrue(songRequest.title())
-                            .stream()
-                            .filter(s -> s.getArtist().getId().equals(artist.getId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (existingSong == null) {
-                        Song newSong = new Song();
-                        newSong.setTitle(songRequest.title());
-                        newSong.setPublicSong(songRequest.isPublicSong());
-                        newSong.setReleaseDate(LocalDate.now());
-                        newSong.setArtist(artist);
-                        newSong.setImageUrl(songRequest.imageUrl());
-                        newSong.setYoutubeUrl(songRequest.youtubeUrl());
-                        return songRepository.save(newSong);
-                    }
-
-                    return existingSong;
-                })
-                .collect(Collectors.toList());
+        List<Song> persistedSongs = resolveSongs(request.songs(), artist);
 
         albumMapper.updateAlbumFromRequest(album, request, genre, artist);
         album.setSongs(persistedSongs);
         album = albumRepository.save(album);
+        catalogSearchService.onAlbumSaved(album);
 
         return albumMapper.toResponse(album);
     }
@@ -265,26 +265,35 @@ public class AlbumService {
 
 
 
-    public void deleteAlbum(Long id, String userIdFromToken) {
+    public void deleteAlbum(Long id, AuthenticatedUser user) {
         Album album = albumRepository.findById(id)
                 .orElseThrow(() -> new AlbumNotFoundException("Álbum no disponible."));
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado"));
-
-        if (!"ADMIN".equalsIgnoreCase(user.getUserRoleName())) {
-            Artist artist = artistRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
-            if (!album.getArtist().getId().equals(artist.getId())) {
-                throw new AlbumPermissionException("No puedes eliminar este álbum.");
-            }
+
+        if (!user.isAdmin() && !album.getArtist().getId().equals(ownArtistId(user))) {
+            throw new AlbumPermissionException("No puedes eliminar este álbum.");
         }
 
         albumRepository.delete(album);
+        catalogSearchService.onAlbumDeleted(album.getId());
     }
 
 
 
 
+    // El perfil de artista viene firmado en el token
+    private static Long ownArtistId(AuthenticatedUser user) {
+        if (!user.hasArtistProfile()) {
+            throw new ArtistNotFoundException("No tienes un perfil de artista.");
+        }
+        return user.artistId();
+    }
+
+    private Artist ownArtist(AuthenticatedUser user) {
+        Long artistId = ownArtistId(user);
+        return artistRepository.findById(artistId)
+                .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
+    }
+
     public AlbumResponse getAlbumBySongId(Long songId) {
         Album album = albumRepository.findAlbumBySongId(songId)
                 .orElseThrow(() -> new AlbumNotFoundException("No se encontró un álbum para esta canción"));
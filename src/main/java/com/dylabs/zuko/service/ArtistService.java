@@ -1,7 +1,9 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.CreateArtistRequest;
 import com.dylabs.zuko.dto.response.ArtistResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.exception.artistExeptions.ArtistAlreadyExistsException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistValidationException;
@@ -11,7 +13,11 @@ import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.security.AuthenticatedUser;
+import com.dylabs.zuko.security.JwtUtil;
+import com.dylabs.zuko.security.TokenInvalidationRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +29,9 @@ public class ArtistService {
     private final ArtistRepository artistRepository;
     private final ArtistMapper artistMapper;
     private final UserRepository userRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final TokenInvalidationRegistry tokenInvalidationRegistry;
+    private final JwtUtil jwtUtil;
 
     //Crear artista
     public ArtistResponse createArtist(CreateArtistRequest request, String username) {
@@ -40,8 +49,14 @@ public class ArtistService {
         Artist artist = artistMapper.toEntity(request, currentUser);
         artist.setIsActive(true);
         Artist savedArtist = artistRepository.save(artist);
-
-        return artistMapper.toResponse(savedArtist);
+        catalogSearchService.onArtistSaved(savedArtist);
+        // Sus tokens no llevan el id de artista: se retiran y la respuesta trae uno nuevo que sí lo lleva,
+        // como el que se emite al iniciar sesión
+        long tokenVersion = tokenInvalidationRegistry.invalidate(currentUser.getId());
+        String token = jwtUtil.generateToken(currentUser.getId().toString(), currentUser.getUserRoleName(),
+                savedArtist.getId(), tokenVersion);
+
+        return artistMapper.toResponse(savedArtist).withToken(token);
     }
 
     //Actualizar artista
@@ -73,28 +88,23 @@ public class ArtistService {
         }
 
         Artist updatedArtist = artistRepository.save(artist);
+        catalogSearchService.onArtistSaved(updatedArtist);
         return artistMapper.toResponse(updatedArtist);
     }
 
     // Para validar al dueño
-    public ArtistResponse updateArtist(Long id, UpdateArtistRequest request, String username) {
-        Artist artist = artistRepository.findById(id)
-                .orElseThrow(() -> new ArtistNotFoundException("Artista no encontrado con ID: " + id));
-
-        if (!artist.getUser().getId().toString().equals(username)) {
-            User user = userRepository.findById(Long.valueOf(username))
-                    .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado para el id: " + username));
-            if (!"ADMIN".equalsIgnoreCase(user.getUserRoleName())) {
-                throw new org.springframework.security.access.AccessDeniedException("No tienes permiso para editar este artista");
-            }
+    public ArtistResponse updateArtist(Long id, UpdateArtistRequest request, AuthenticatedUser user) {
+        if (!id.equals(user.artistId()) && !user.isAdmin()) {
+            throw new org.springframework.security.access.AccessDeniedException("No tienes permiso para editar este artista");
         }
         return updateArtist(id, request);
     }
 
     // Obtener todos los artistas
-    public List<ArtistResponse> getAllArtists() {
-        List<Artist> artists = artistRepository.findAll();
-        return artistMapper.toResponseList(artists);
+    public CursorPageResponse<ArtistResponse> getAllArtists(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        List<Artist> artists = artistRepository.findByIdGreaterThanOrderByIdAsc(Cursor.afterId(cursor), Limit.of(pageSize + 1));
+        return CursorPageResponse.of(artists, pageSize, artistMapper::toResponse, artist -> Cursor.encode(artist.getId()));
     }
 
     public ArtistResponse getArtistById(Long id) {
@@ -103,22 +113,22 @@ public class ArtistService {
         return artistMapper.toResponse(artist);
     }
 
-    public List<ArtistResponse> searchArtistsByName(String name) {
-        List<Artist> artists = artistRepository.findByNameContainingIgnoreCase(name);
+    public List<ArtistResponse> searchArtistsByName(String name, Integer page, Integer limit) {
+        List<Long> ids = catalogSearchService.searchArtistIds(name, page, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Artist> artists = CatalogSearchService.inOrder(ids, artistRepository.findAllById(ids), Artist::getId);
         return artistMapper.toResponseList(artists);
     }
 
     // Para alternar el estado del artista
-    public void toggleArtistActiveStatus(Long id, String username) {
+    public void toggleArtistActiveStatus(Long id, AuthenticatedUser user) {
         Artist artist = artistRepository.findById(id)
                 .orElseThrow(() -> new ArtistNotFoundException("Artista no encontrado con ID: " + id));
 
-        if (!artist.getUser().getId().toString().equals(username)) {
-            User user = userRepository.findById(Long.valueOf(username))
-                    .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado para el id: " + username));
-            if (!"ADMIN".equalsIgnoreCase(user.getUserRoleName())) {
-                throw new org.springframework.security.access.AccessDeniedException("No tienes permiso para cambiar el estado de este artista");
-            }
+        if (!id.equals(user.artistId()) && !user.isAdmin()) {
+            throw new org.springframework.security.access.AccessDeniedException("No tienes permiso para cambiar el estado de este artista");
         }
         artist.setIsActive(!artist.getIsActive());
         artistRepository.save(artist);
@@ -0,0 +1,90 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CatalogExportLine;
+import com.dylabs.zuko.dto.response.SongResponse;
+import com.dylabs.zuko.mapper.AlbumMapper;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.AlbumExportRowView;
+import com.dylabs.zuko.repository.projection.AlbumHeaderView;
+import com.dylabs.zuko.repository.projection.AlbumTrackView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Exportación NDJSON del catálogo público: canciones con su artista y álbumes con sus pistas públicas.
+// Las filas se leen con cursores de base de datos (fetch size) y se escriben una a una, sin acumularlas en memoria.
+@Service
+@RequiredArgsConstructor
+public class CatalogExportService {
+    private static final int FLUSH_EVERY = 500;
+
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final AlbumMapper albumMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    public void exportCatalog(OutputStream out) {
+        // Los Stream de Spring Data necesitan una transacción abierta mientras se recorren
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try {
+                write(out, new CatalogExportLine("export", Map.of("generatedAt", LocalDateTime.now().toString())));
+                out.flush();
+
+                long written = 0;
+                try (Stream<SongResponse> songs = songRepository.streamPublicResponses()) {
+                    for (Iterator<SongResponse> it = songs.iterator(); it.hasNext(); ) {
+                        write(out, new CatalogExportLine("song", it.next()));
+                        if (++written % FLUSH_EVERY == 0) out.flush();
+                    }
+                }
+
+                try (Stream<AlbumExportRowView> rows = albumRepository.streamExportRows()) {
+                    AlbumHeaderView current = null;
+                    List<AlbumTrackView> tracks = new ArrayList<>();
+                    for (Iterator<AlbumExportRowView> it = rows.iterator(); it.hasNext(); ) {
+                        AlbumExportRowView row = it.next();
+                        if (current != null && !current.id().equals(row.albumId())) {
+                            write(out, new CatalogExportLine("album", toResponse(current, tracks)));
+                            if (++written % FLUSH_EVERY == 0) out.flush();
+                            tracks.clear();
+                        }
+                        current = row.header();
+                        if (row.track() != null) tracks.add(row.track());
+                    }
+                    if (current != null) {
+                        write(out, new CatalogExportLine("album", toResponse(current, tracks)));
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private AlbumResponse toResponse(AlbumHeaderView header, List<AlbumTrackView> tracks) {
+        return albumMapper.toResponses(List.of(header), List.copyOf(tracks)).get(0);
+    }
+
+    private void write(OutputStream out, CatalogExportLine line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+    }
+}
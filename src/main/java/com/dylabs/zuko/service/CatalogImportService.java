@@ -0,0 +1,424 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.request.CatalogImportRow;
+import com.dylabs.zuko.dto.response.ImportRowResult;
+import com.dylabs.zuko.dto.response.ImportSummaryResponse;
+import com.dylabs.zuko.model.Album;
+import com.dylabs.zuko.model.Artist;
+import com.dylabs.zuko.model.Genre;
+import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.ArtistRepository;
+import com.dylabs.zuko.repository.GenreRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.AlbumKeyView;
+import com.dylabs.zuko.repository.projection.SongKeyView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Importación masiva del catálogo (NDJSON o CSV con cabecera).
+// La entrada se procesa en lotes: cada lote resuelve artistas, géneros, canciones y álbumes existentes con
+// una consulta por tipo, inserta las canciones nuevas en un batch JDBC y se confirma en su propia transacción.
+// Solo se escriben en la salida las filas con error o duplicadas, más un resumen final.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+    static final int BATCH_SIZE = 1000;
+    // Longitud de las columnas de texto de song y albums (varchar(255))
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final ArtistRepository artistRepository;
+    private final GenreRepository genreRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ImportSummaryResponse importCatalog(BufferedReader reader, boolean csv, Writer out) throws IOException {
+        Counters counters = new Counters();
+        List<ParsedRow> batch = new ArrayList<>(BATCH_SIZE);
+        String[] header = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            if (csv && header == null) {
+                header = parseCsvLine(line).toArray(String[]::new);
+                continue;
+            }
+            counters.rows++;
+            try {
+                CatalogImportRow row = csv ? fromCsv(header, parseCsvLine(line)) : objectMapper.readValue(line, CatalogImportRow.class);
+                batch.add(new ParsedRow(lineNumber, row));
+            } catch (JsonProcessingException | IllegalArgumentException | DateTimeParseException e) {
+                report(out, counters, new ImportRowResult(lineNumber, "error", null, "Fila con formato inválido."));
+            }
+            if (batch.size() == BATCH_SIZE) {
+                flushBatch(batch, out, counters);
+            }
+        }
+        flushBatch(batch, out, counters);
+
+        ImportSummaryResponse summary = new ImportSummaryResponse(
+                counters.rows, counters.created, counters.duplicates, counters.failed, counters.albumsCreated);
+        out.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        out.write('\n');
+        out.flush();
+        return summary;
+    }
+
+    private void flushBatch(List<ParsedRow> batch, Writer out, Counters counters) throws IOException {
+        if (batch.isEmpty()) return;
+        BatchResult result;
+        try {
+            result = transactionTemplate.execute(status -> importBatch(batch));
+        } catch (RuntimeException e) {
+            // Cualquier fallo (base de datos, Bean Validation al guardar un álbum...) revierte el lote completo;
+            // sus filas se reportan como error y el resto de la importación continúa hasta el resumen
+            log.warn("Lote de importación revertido (líneas {}-{}): {}", batch.get(0).line(), batch.get(batch.size() - 1).line(), e.toString());
+            result = new BatchResult(batch.stream()
+                    .map(r -> new ImportRowResult(r.line(), "error", null, "No se pudo guardar el lote de esta fila."))
+                    .toList(), List.of(), List.of());
+        }
+        batch.clear();
+
+        // El índice de búsqueda solo se actualiza con lo que ya está confirmado
+        result.createdSongs().forEach(catalogSearchService::onSongSaved);
+        result.createdAlbums().forEach(catalogSearchService::onAlbumSaved);
+        counters.created += result.createdSongs().size();
+        counters.albumsCreated += result.createdAlbums().size();
+        for (ImportRowResult rowResult : result.rows()) {
+            report(out, counters, rowResult);
+        }
+        out.flush();
+    }
+
+    private BatchResult importBatch(List<ParsedRow> batch) {
+        List<ImportRowResult> results = new ArrayList<>();
+
+        Map<Long, Artist> artistsById = new HashMap<>();
+        Map<String, Artist> artistsByName = new HashMap<>();
+        Set<Long> artistIds = batch.stream().map(r -> r.row().artistId()).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> artistNames = batch.stream().map(r -> normalize(r.row().artist())).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!artistIds.isEmpty()) {
+            artistRepository.findAllById(artistIds).forEach(a -> artistsById.put(a.getId(), a));
+        }
+        if (!artistNames.isEmpty()) {
+            artistRepository.findByNormalizedNameIn(artistNames).forEach(a -> artistsByName.putIfAbsent(normalize(a.getName()), a));
+        }
+
+        Set<String> genreNames = batch.stream().map(r -> normalize(r.row().genre())).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, Genre> genresByName = new HashMap<>();
+        if (!genreNames.isEmpty()) {
+            genreRepository.findByNormalizedNameIn(genreNames).forEach(g -> genresByName.putIfAbsent(normalize(g.getName()), g));
+        }
+
+        // Validación y resolución del artista de cada fila
+        List<ValidRow> candidates = new ArrayList<>();
+        for (ParsedRow parsed : batch) {
+            CatalogImportRow row = parsed.row();
+            String title = row.title() == null ? "" : row.title().trim();
+            Artist artist = row.artistId() != null ? artistsById.get(row.artistId()) : artistsByName.get(normalize(row.artist()));
+            String error = rowError(row, title, artist, genresByName);
+            if (error != null) {
+                results.add(new ImportRowResult(parsed.line(), "error", null, error));
+            } else {
+                candidates.add(new ValidRow(parsed.line(), row, title, artist));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new BatchResult(results, List.of(), List.of());
+        }
+
+        // Canciones ya existentes para los pares (artista, título) del lote
+        Set<Long> validArtistIds = candidates.stream().map(v -> v.artist().getId()).collect(Collectors.toSet());
+        Set<String> titles = candidates.stream().map(v -> normalize(v.title())).collect(Collectors.toSet());
+        Map<String, SongKeyView> existingByKey = new HashMap<>();
+        for (SongKeyView key : songRepository.findKeysByArtistIdsAndNormalizedTitles(validArtistIds, titles)) {
+            existingByKey.putIfAbsent(key(key.artistId(), key.title()), key);
+        }
+
+        // Reglas de álbum de AlbumService.createAlbum: solo se rechazan las filas que las incumplen
+        Map<String, Long> albumIdsByKey = findAlbumIds(candidates);
+        List<ValidRow> valid = validateAlbumTracks(candidates, existingByKey, albumIdsByKey, results);
+        if (valid.isEmpty()) {
+            return new BatchResult(results, List.of(), List.of());
+        }
+
+        // Deduplicación contra la base de datos y dentro del propio lote
+        Map<String, Long> songIdsByKey = new HashMap<>();
+        existingByKey.forEach((key, view) -> songIdsByKey.put(key, view.id()));
+        Map<String, Song> newSongs = new LinkedHashMap<>();
+        for (ValidRow v : valid) {
+            String key = key(v.artist().getId(), v.title());
+            if (songIdsByKey.containsKey(key) || newSongs.containsKey(key)) {
+                results.add(new ImportRowResult(v.line(), "duplicate", songIdsByKey.get(key), "La canción ya existe para este artista."));
+                continue;
+            }
+            CatalogImportRow row = v.row();
+            Song song = new Song();
+            song.setTitle(v.title());
+            song.setPublicSong(row.isPublic() == null || row.isPublic());
+            song.setReleaseDate(row.releaseDate() == null ? LocalDate.now() : row.releaseDate());
+            song.setYoutubeUrl(row.youtubeUrl());
+            song.setImageUrl(row.imageUrl());
+            song.setArtist(v.artist());
+            newSongs.put(key, song);
+        }
+
+        List<Song> created = List.copyOf(newSongs.values());
+        List<Long> ids = songRepository.insertAll(created);
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setId(ids.get(i));
+        }
+        newSongs.forEach((key, song) -> songIdsByKey.put(key, song.getId()));
+
+        List<Album> createdAlbums = importAlbums(valid, songIdsByKey, albumIdsByKey, genresByName);
+
+        entityManager.flush();
+        entityManager.clear();
+        return new BatchResult(results, created, createdAlbums);
+    }
+
+    // Lo que se puede comprobar con la fila sola; las columnas de texto son varchar(255) y un valor más largo
+    // haría fallar el insert del lote entero
+    private static String rowError(CatalogImportRow row, String title, Artist artist, Map<String, Genre> genresByName) {
+        if (title.length() < 3) {
+            return "El título debe tener al menos 3 caracteres.";
+        }
+        if (title.length() > MAX_TEXT_LENGTH) {
+            return tooLong("title");
+        }
+        if (row.youtubeUrl() != null && row.youtubeUrl().length() > MAX_TEXT_LENGTH) {
+            return tooLong("youtubeUrl");
+        }
+        if (row.imageUrl() != null && row.imageUrl().length() > MAX_TEXT_LENGTH) {
+            return tooLong("imageUrl");
+        }
+        if (artist == null) {
+            return "Artista no encontrado.";
+        }
+        if (!hasAlbum(row)) {
+            return null;
+        }
+        if (row.album().trim().length() > MAX_TEXT_LENGTH) {
+            return tooLong("album");
+        }
+        if (row.cover() != null && row.cover().length() > MAX_TEXT_LENGTH) {
+            return tooLong("cover");
+        }
+        if (Boolean.FALSE.equals(row.isPublic())) {
+            return "Solo las canciones públicas pueden asociarse a álbumes.";
+        }
+        if (genresByName.get(normalize(row.genre())) == null) {
+            return "Género no encontrado para el álbum.";
+        }
+        if (row.releaseYear() == null) {
+            return "El año de lanzamiento del álbum es obligatorio.";
+        }
+        return null;
+    }
+
+    // Álbumes ya existentes para los pares (artista, álbum) del lote
+    private Map<String, Long> findAlbumIds(List<ValidRow> rows) {
+        Set<Long> artistIds = new HashSet<>();
+        Set<String> albumTitles = new HashSet<>();
+        rows.stream().filter(v -> hasAlbum(v.row())).forEach(v -> {
+            artistIds.add(v.artist().getId());
+            albumTitles.add(normalize(v.row().album()));
+        });
+        Map<String, Long> albumIdsByKey = new HashMap<>();
+        if (albumTitles.isEmpty()) {
+            return albumIdsByKey;
+        }
+        for (AlbumKeyView key : albumRepository.findKeysByArtistIdsAndNormalizedTitles(artistIds, albumTitles)) {
+            albumIdsByKey.putIfAbsent(key(key.artistId(), key.title()), key.id());
+        }
+        return albumIdsByKey;
+    }
+
+    // Una canción existente privada no se asocia al álbum, y un álbum nuevo necesita al menos dos canciones
+    // distintas en el lote (uno existente ya las tiene). Devuelve las filas que se pueden importar.
+    private static List<ValidRow> validateAlbumTracks(List<ValidRow> rows, Map<String, SongKeyView> existingByKey,
+                                                      Map<String, Long> albumIdsByKey, List<ImportRowResult> results) {
+        Set<Long> rejectedLines = new HashSet<>();
+        Map<String, List<ValidRow>> newAlbumRows = new HashMap<>();
+        for (ValidRow v : rows) {
+            if (!hasAlbum(v.row())) continue;
+            SongKeyView existing = existingByKey.get(key(v.artist().getId(), v.title()));
+            if (existing != null && !existing.publicSong()) {
+                rejectedLines.add(v.line());
+                results.add(new ImportRowResult(v.line(), "error", existing.id(), "Solo las canciones públicas pueden asociarse a álbumes."));
+                continue;
+            }
+            String albumKey = key(v.artist().getId(), v.row().album());
+            if (!albumIdsByKey.containsKey(albumKey)) {
+                newAlbumRows.computeIfAbsent(albumKey, k -> new ArrayList<>()).add(v);
+            }
+        }
+        for (List<ValidRow> albumRows : newAlbumRows.values()) {
+            if (albumRows.stream().map(v -> normalize(v.title())).distinct().count() < 2) {
+                for (ValidRow v : albumRows) {
+                    rejectedLines.add(v.line());
+                    results.add(new ImportRowResult(v.line(), "error", null,
+                            "El álbum debe contener al menos dos canciones (en el mismo lote si es nuevo)."));
+                }
+            }
+        }
+        return rows.stream().filter(v -> !rejectedLines.contains(v.line())).toList();
+    }
+
+    // Agrupa las filas por (artista, álbum), crea los álbumes que falten y asocia las pistas en un batch
+    private List<Album> importAlbums(List<ValidRow> valid, Map<String, Long> songIdsByKey,
+                                     Map<String, Long> albumIdsByKey, Map<String, Genre> genresByName) {
+        Map<String, List<ValidRow>> rowsByAlbum = valid.stream()
+                .filter(v -> hasAlbum(v.row()))
+                .collect(Collectors.groupingBy(v -> key(v.artist().getId(), v.row().album()), LinkedHashMap::new, Collectors.toList()));
+        if (rowsByAlbum.isEmpty()) {
+            return List.of();
+        }
+
+        List<Album> createdAlbums = new ArrayList<>();
+        Map<Long, Set<Long>> songIdsByAlbum = new LinkedHashMap<>();
+        rowsByAlbum.forEach((albumKey, rows) -> {
+            Long albumId = albumIdsByKey.get(albumKey);
+            if (albumId == null) {
+                CatalogImportRow first = rows.get(0).row();
+                Album album = new Album();
+                album.setTitle(first.album().trim());
+                album.setReleaseYear(first.releaseYear());
+                album.setCover(first.cover());
+                album.setArtist(rows.get(0).artist());
+                album.setGenre(genresByName.get(normalize(first.genre())));
+                album.setReleaseDate(LocalDate.now());
+                album.setCreationDate(LocalDate.now());
+                album = albumRepository.save(album);
+                createdAlbums.add(album);
+                albumId = album.getId();
+            }
+            Set<Long> songIds = songIdsByAlbum.computeIfAbsent(albumId, id -> new LinkedHashSet<>());
+            rows.forEach(v -> songIds.add(songIdsByKey.get(key(v.artist().getId(), v.title()))));
+        });
+
+        albumRepository.flush();
+        albumRepository.addSongs(songIdsByAlbum);
+        return createdAlbums;
+    }
+
+    private void report(Writer out, Counters counters, ImportRowResult result) throws IOException {
+        if ("error".equals(result.status())) counters.failed++;
+        else counters.duplicates++;
+        out.write(objectMapper.writeValueAsString(result));
+        out.write('\n');
+    }
+
+    private static CatalogImportRow fromCsv(String[] header, List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            fields.put(header[i].trim(), value.isEmpty() ? null : value);
+        }
+        return new CatalogImportRow(
+                fields.get("artistId") == null ? null : Long.valueOf(fields.get("artistId")),
+                fields.get("artist"),
+                fields.get("title"),
+                fields.get("isPublic") == null ? null : Boolean.valueOf(fields.get("isPublic")),
+                fields.get("releaseDate") == null ? null : LocalDate.parse(fields.get("releaseDate")),
+                fields.get("youtubeUrl"),
+                fields.get("imageUrl"),
+                fields.get("album"),
+                fields.get("releaseYear") == null ? null : Integer.valueOf(fields.get("releaseYear")),
+                fields.get("genre"),
+                fields.get("cover")
+        );
+    }
+
+    // CSV de una línea por registro: campos entre comillas dobles admiten comas y "" como comilla escapada
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean hasAlbum(CatalogImportRow row) {
+        return row.album() != null && !row.album().isBlank();
+    }
+
+    private static String tooLong(String field) {
+        return "El campo " + field + " no puede superar " + MAX_TEXT_LENGTH + " caracteres.";
+    }
+
+    private static String key(Long artistId, String title) {
+        return artistId + "|" + normalize(title);
+    }
+
+    private record ParsedRow(long line, CatalogImportRow row) {}
+
+    private record ValidRow(long line, CatalogImportRow row, String title, Artist artist) {}
+
+    private record BatchResult(List<ImportRowResult> rows, List<Song> createdSongs, List<Album> createdAlbums) {}
+
+    private static final class Counters {
+        long rows;
+        long created;
+        long duplicates;
+        long failed;
+        long albumsCreated;
+    }
+}
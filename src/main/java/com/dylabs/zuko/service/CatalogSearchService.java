@@ -0,0 +1,155 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.Cursor;
+import com.dylabs.zuko.model.Album;
+import com.dylabs.zuko.model.Artist;
+import com.dylabs.zuko.model.Playlist;
+import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.ArtistRepository;
+import com.dylabs.zuko.repository.PlaylistRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.search.CatalogSearchIndex;
+import com.dylabs.zuko.search.TrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Resuelve las búsquedas del catálogo a ids ordenados por relevancia; cada servicio hidrata sus propios DTOs.
+// Usa el índice en memoria si está activo y cargado, si no las consultas full-text de PostgreSQL.
+@Service
+@RequiredArgsConstructor
+public class CatalogSearchService {
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final ArtistRepository artistRepository;
+    private final PlaylistRepository playlistRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+
+    public List<Long> searchPublicSongIds(String query, Integer page, Integer limit) {
+        return search(query, page, limit, catalogSearchIndex.songs(), songRepository::searchPublicIds);
+    }
+
+    public List<Long> searchAlbumIds(String query, Integer page, Integer limit) {
+        return search(query, page, limit, catalogSearchIndex.albums(), albumRepository::searchIds);
+    }
+
+    public List<Long> searchArtistIds(String query, Integer page, Integer limit) {
+        return search(query, page, limit, catalogSearchIndex.artists(), artistRepository::searchIds);
+    }
+
+    public List<Long> searchPublicPlaylistIds(String query, Integer page, Integer limit) {
+        return search(query, page, limit, catalogSearchIndex.playlists(), playlistRepository::searchPublicIds);
+    }
+
+    // Firma común de las consultas searchIds / searchPublicIds de los repositorios
+    private interface DatabaseSearch {
+        List<Long> search(String query, String pattern, int limit, int offset);
+    }
+
+    private List<Long> search(String query, Integer page, Integer limit, TrigramIndex index, DatabaseSearch database) {
+        if (isBlank(query)) return List.of();
+        int pageSize = Cursor.limit(limit);
+        if (catalogSearchIndex.isReady()) {
+            return index.search(query, offset(page, pageSize), pageSize);
+        }
+        // Sin esquema full-text y con el índice aún cargándose no hay con qué buscar
+        if (!catalogSearchIndex.isDatabaseSearchAvailable()) return List.of();
+        return database.search(query.trim(), likePattern(query), pageSize, offset(page, pageSize));
+    }
+
+    // Mantenimiento del índice en memoria tras cada escritura confirmada: dentro de una transacción
+    // el cambio se aplica en afterCommit, así un rollback no deja entradas fantasma en el índice.
+    // Los valores se copian ya, porque la entidad puede cambiar o desligarse antes del commit.
+    public void onSongSaved(Song song) {
+        if (!catalogSearchIndex.isEnabled()) return;
+        long id = song.getId();
+        String title = song.getTitle();
+        if (song.isPublicSong()) {
+            afterCommit(() -> catalogSearchIndex.songs().put(id, title));
+        } else {
+            afterCommit(() -> catalogSearchIndex.songs().remove(id));
+        }
+    }
+
+    public void onSongDeleted(Long songId) {
+        if (catalogSearchIndex.isEnabled()) afterCommit(() -> catalogSearchIndex.songs().remove(songId));
+    }
+
+    public void onAlbumSaved(Album album) {
+        if (!catalogSearchIndex.isEnabled()) return;
+        long id = album.getId();
+        String title = album.getTitle();
+        afterCommit(() -> catalogSearchIndex.albums().put(id, title));
+    }
+
+    public void onAlbumDeleted(Long albumId) {
+        if (catalogSearchIndex.isEnabled()) afterCommit(() -> catalogSearchIndex.albums().remove(albumId));
+    }
+
+    public void onArtistSaved(Artist artist) {
+        if (!catalogSearchIndex.isEnabled()) return;
+        long id = artist.getId();
+        String name = artist.getName();
+        afterCommit(() -> catalogSearchIndex.artists().put(id, name));
+    }
+
+    public void onPlaylistSaved(Playlist playlist) {
+        onPlaylistSaved(playlist.getPlaylistId(), playlist.getName(), playlist.isPublic());
+    }
+
+    public void onPlaylistSaved(long id, String name, boolean isPublic) {
+        if (!catalogSearchIndex.isEnabled()) return;
+        if (isPublic) {
+            afterCommit(() -> catalogSearchIndex.playlists().put(id, name));
+        } else {
+            afterCommit(() -> catalogSearchIndex.playlists().remove(id));
+        }
+    }
+
+    public void onPlaylistDeleted(Long playlistId) {
+        if (catalogSearchIndex.isEnabled()) afterCommit(() -> catalogSearchIndex.playlists().remove(playlistId));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catalogSearchIndex.apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalogSearchIndex.apply(update);
+            }
+        });
+    }
+
+    // Las consultas por ids no conservan el orden de relevancia, se reordena aquí
+    public static <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static boolean isBlank(String query) {
+        return query == null || query.isBlank();
+    }
+
+    private static int offset(Integer page, int pageSize) {
+        return page == null || page < 0 ? 0 : (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+    }
+
+    // El término se usa dentro de LIKE: % y _ deben buscarse literalmente
+    private static String likePattern(String query) {
+        return query.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
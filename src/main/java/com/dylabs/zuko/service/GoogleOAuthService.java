@@ -2,78 +2,97 @@ package com.dylabs.zuko.service;
 
 import com.dylabs.zuko.dto.response.GoogleUserInfo;
 import com.dylabs.zuko.exception.userExeptions.OAuthException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import com.dylabs.zuko.security.GoogleJwksCache;
+import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import java.util.Base64;
 
+import java.security.Key;
+import java.util.Set;
+
+// Verifica los ID tokens de Google sin llamadas de red: firma RS256 con las claves de GoogleJwksCache,
+// audiencia (nuestro client id), emisor y caducidad.
 @Service
-@RequiredArgsConstructor
 public class GoogleOAuthService {
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
 
-    private static final String GOOGLE_USERINFO_URL = "https://www.googleapis.com/oauth2/v2/userinfo";
+    private static final Set<String> GOOGLE_ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+    private static final long ALLOWED_CLOCK_SKEW_SECONDS = 60;
+
+    private final GoogleJwksCache googleJwksCache;
+    private final String clientId;
+    private final JwtParser parser;
+
+    public GoogleOAuthService(GoogleJwksCache googleJwksCache,
+                              @Value("${zuko.google.client-id:}") String clientId) {
+        this.googleJwksCache = googleJwksCache;
+        this.clientId = clientId;
+        JwtParserBuilder builder = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return signingKey(header);
+                    }
+                })
+                .setAllowedClockSkewSeconds(ALLOWED_CLOCK_SKEW_SECONDS);
+        if (clientId != null && !clientId.isBlank()) {
+            builder.requireAudience(clientId);
+        }
+        this.parser = builder.build();
+    }
 
     public GoogleUserInfo getUserInfo(String jwtToken) {
+        if (clientId == null || clientId.isBlank()) {
+            throw new OAuthException("El inicio de sesión con Google no está configurado (zuko.google.client-id).");
+        }
         try {
-            // Decodificar el JWT directamente (sin llamada HTTP)
-            return decodeGoogleJWT(jwtToken);
+            return toUserInfo(verify(jwtToken));
+        } catch (OAuthException e) {
+            throw e;
         } catch (Exception e) {
             throw new OAuthException("Error al procesar el JWT de Google: " + e.getMessage(), e);
         }
     }
 
-    private GoogleUserInfo decodeGoogleJWT(String jwtToken) {
-        try {
-            // Dividir el JWT en sus 3 partes
-            String[] parts = jwtToken.split("\\.");
-            if (parts.length != 3) {
-                throw new IllegalArgumentException("JWT inválido");
-            }
-
-            // Decodificar la parte del payload (índice 1)
-            String payload = parts[1];
-            byte[] decodedBytes = Base64.getUrlDecoder().decode(payload);
-            String jsonPayload = new String(decodedBytes);
-
-            // Log para debugging
-            System.out.println("🔍 JWT Payload decodificado: " + jsonPayload);
-
-            // Parsear el JSON usando Jackson
-            JsonNode node = objectMapper.readTree(jsonPayload);
-
-            // Obtener los valores de manera segura
-            String sub = getTextSafely(node, "sub");
-            String name = getTextSafely(node, "name");
-            String givenName = getTextSafely(node, "given_name");
-            String familyName = getTextSafely(node, "family_name");
-            String picture = getTextSafely(node, "picture");
-            String email = getTextSafely(node, "email");
-            Boolean emailVerified = getBooleanSafely(node, "email_verified");
-            String locale = getTextSafely(node, "locale");
-
-            return new GoogleUserInfo(
-                    sub, name, givenName, familyName,
-                    picture, email, emailVerified, locale
-            );
+    private Claims verify(String jwtToken) {
+        Claims claims = parser.parseClaimsJws(jwtToken).getBody();
+        if (!GOOGLE_ISSUERS.contains(claims.getIssuer())) {
+            throw new OAuthException("El JWT no fue emitido por Google.");
+        }
+        if (claims.getExpiration() == null) {
+            throw new OAuthException("El JWT de Google no tiene fecha de caducidad.");
+        }
+        return claims;
+    }
 
-        } catch (Exception e) {
-            throw new OAuthException("Error decodificando JWT de Google: " + e.getMessage(), e);
+    private Key signingKey(JwsHeader header) {
+        if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+            throw new OAuthException("Algoritmo de firma no admitido: " + header.getAlgorithm());
         }
+        Key key = googleJwksCache.key(header.getKeyId());
+        if (key == null) {
+            throw new OAuthException("El JWT de Google está firmado con una clave desconocida.");
+        }
+        return key;
     }
 
-    // Métodos helper para manejo seguro de campos
-    private String getTextSafely(JsonNode node, String fieldName) {
-        JsonNode field = node.get(fieldName);
-        return field != null && !field.isNull() ? field.asText() : null;
+    private static GoogleUserInfo toUserInfo(Claims claims) {
+        return new GoogleUserInfo(
+                claims.getSubject(),
+                claims.get("name", String.class),
+                claims.get("given_name", String.class),
+                claims.get("family_name", String.class),
+                claims.get("picture", String.class),
+                claims.get("email", String.class),
+                emailVerified(claims.get("email_verified")),
+                claims.get("locale", String.class)
+        );
     }
 
-    private Boolean getBooleanSafely(JsonNode node, String fieldName) {
-        JsonNode field = node.get(fieldName);
-        return field != null && !field.isNull() ? field.asBoolean() : null;
+    // Google lo envía como booleano, pero algunos clientes antiguos lo reciben como texto
+    private static Boolean emailVerified(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Boolean bool ? bool : Boolean.valueOf(value.toString());
     }
 }
@@ -0,0 +1,98 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.PlaylistRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+// Contadores de veces fijado en accesos directos (pin_count de playlists y albums).
+// Cada alta o baja solo suma en un LongAdder en memoria; el total se vuelca periódicamente
+// con una sentencia por tabla, así el ranking no necesita agrupar shortcuts_playlists ni shortcuts_albums.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PinCounterService {
+
+    private final PlaylistRepository playlistRepository;
+    private final AlbumRepository albumRepository;
+
+    // Las entradas no se eliminan al volcar: quitarlas podría perder incrementos concurrentes,
+    // y su número está acotado por el catálogo
+    private final Map<Long, LongAdder> playlistDeltas = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> albumDeltas = new ConcurrentHashMap<>();
+
+    public void playlistPinned(Long playlistId) {
+        delta(playlistDeltas, playlistId).increment();
+    }
+
+    public void playlistUnpinned(Long playlistId) {
+        delta(playlistDeltas, playlistId).decrement();
+    }
+
+    public void albumPinned(Long albumId) {
+        delta(albumDeltas, albumId).increment();
+    }
+
+    public void albumUnpinned(Long albumId) {
+        delta(albumDeltas, albumId).decrement();
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${zuko.pins.flush-interval-ms:10000}")
+    public void flush() {
+        flush("playlists", playlistDeltas, playlistRepository::addPinCounts);
+        flush("álbumes", albumDeltas, albumRepository::addPinCounts);
+    }
+
+    // Red de seguridad ante incrementos perdidos (caídas antes de volcar): recuento completo fuera de horas punta.
+    // Los incrementos que lleguen entre el volcado y el recuento pueden desviarlo en unas pocas unidades hasta el siguiente.
+    @Scheduled(cron = "${zuko.pins.reconcile-cron:0 30 4 * * *}")
+    public void reconcile() {
+        flush();
+        try {
+            int playlists = playlistRepository.reconcilePinCounts();
+            int albums = albumRepository.reconcilePinCounts();
+            log.info("Contadores de accesos directos corregidos: {} playlists, {} álbumes", playlists, albums);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron recalcular los contadores de accesos directos: {}", e.getMessage());
+        }
+    }
+
+    private void flush(String description, Map<Long, LongAdder> deltas, BiConsumer<List<Long>, List<Long>> writer) {
+        List<Long> ids = new ArrayList<>();
+        List<Long> amounts = new ArrayList<>();
+        deltas.forEach((id, adder) -> {
+            long amount = adder.sumThenReset();
+            if (amount != 0) {
+                ids.add(id);
+                amounts.add(amount);
+            }
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(ids, amounts);
+        } catch (RuntimeException e) {
+            // Se devuelven a memoria para el siguiente volcado
+            for (int i = 0; i < ids.size(); i++) {
+                delta(deltas, ids.get(i)).add(amounts.get(i));
+            }
+            log.warn("No se pudieron volcar los contadores de {}: {}", description, e.getMessage());
+        }
+    }
+
+    private static LongAdder delta(Map<Long, LongAdder> deltas, Long id) {
+        return deltas.computeIfAbsent(id, key -> new LongAdder());
+    }
+}
@@ -1,34 +1,64 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.PlaylistRequest;
 import com.dylabs.zuko.dto.request.UpdatePlaylistRequest;
+import com.dylabs.zuko.dto.request.UpdatePlaylistSongsRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
+import com.dylabs.zuko.dto.response.PlaylistChangeResponse;
+import com.dylabs.zuko.dto.response.PlaylistChangesResponse;
+import com.dylabs.zuko.dto.response.PlaylistEntryResponse;
 import com.dylabs.zuko.dto.response.PlaylistResponse;
+import com.dylabs.zuko.dto.response.PlaylistSongsUpdateResponse;
+import com.dylabs.zuko.dto.response.PlaylistOverviewResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
-import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.playlistExceptions.*;
 import com.dylabs.zuko.exception.songExceptions.SongNotFoundException;
 import com.dylabs.zuko.exception.userExeptions.UserNotFoundExeption;
 import com.dylabs.zuko.mapper.PlaylistMapper;
 import com.dylabs.zuko.model.Playlist;
-import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.model.PlaylistChange;
+import com.dylabs.zuko.model.PlaylistChangeType;
+import com.dylabs.zuko.model.PlaylistSetOperation;
+import com.dylabs.zuko.model.PlaylistSong;
 import com.dylabs.zuko.model.User;
+import com.dylabs.zuko.repository.PlaylistChangeRepository;
 import com.dylabs.zuko.repository.PlaylistRepository;
+import com.dylabs.zuko.repository.PlaylistSongRepository;
 import com.dylabs.zuko.repository.SongRepository;
 import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.repository.projection.PlaylistEntryView;
+import com.dylabs.zuko.repository.projection.PlaylistHeaderView;
+import com.dylabs.zuko.repository.projection.PlaylistWriteView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PlaylistService {
 
+    // Versiones que se conservan en playlist_change por playlist
+    private static final long CHANGE_LOG_VERSIONS = 500;
+
     private final PlaylistRepository playlistRepository;
+    private final PlaylistSongRepository playlistSongRepository;
+    private final PlaylistChangeRepository playlistChangeRepository;
     private final SongRepository songRepository;
     private final UserRepository userRepository;
     private final PlaylistMapper playlistMapper;
+    private final CatalogSearchService catalogSearchService;
 
     public PlaylistResponse createPlaylist(String userId, PlaylistRequest playlistRequest) {
         User user = userRepository.findById(Long.parseLong(userId))
@@ -41,177 +71,444 @@ public class PlaylistService {
         Playlist playlist = playlistMapper.toEntity(playlistRequest);
         playlist.setUser(user);
         Playlist savedPlaylist = playlistRepository.save(playlist);
+        catalogSearchService.onPlaylistSaved(savedPlaylist);
         return playlistMapper.toResponse(savedPlaylist);
     }
 
-    public PlaylistResponse getPlaylistById(String userId, Long playlistId) {
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId));
+    public PlaylistResponse getPlaylistById(String userId, boolean isAdmin, Long playlistId) {
+        Playlist playlist = playlistRepository.findVisibleById(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
+        return playlistMapper.toResponse(playlist);
+    }
 
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(()-> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
+    // Cabecera + COUNT: coste acotado sin importar el tamaño de la playlist
+    public PlaylistResponse getPlaylistSummaryById(String userId, boolean isAdmin, Long playlistId) {
+        PlaylistHeaderView header = findVisibleHeader(userId, isAdmin, playlistId);
+        return playlistMapper.toSummaryResponse(header, playlistRepository.countSongs(playlistId));
+    }
 
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isPublic = playlist.isPublic();
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
+    // Canciones en el orden de la playlist; el cursor guarda (position, songId) de la última fila entregada
+    public CursorPageResponse<PlaylistEntryResponse> listSongsInPlaylist(String userId, boolean isAdmin, Long playlistId,
+                                                                         String cursor, Integer limit) {
+        findVisibleHeader(userId, isAdmin, playlistId);
+        int pageSize = Cursor.limit(limit);
+        long[] after = cursor == null || cursor.isBlank()
+                ? new long[]{Long.MIN_VALUE, Long.MIN_VALUE}
+                : Cursor.decode(cursor, 2);
+        List<PlaylistEntryView> rows = playlistSongRepository.findPage(playlistId, after[0], after[1], Limit.of(pageSize + 1));
+        return CursorPageResponse.of(rows, pageSize, PlaylistEntryView::toResponse,
+                row -> Cursor.encode(row.position(), row.id()));
+    }
+
+    private PlaylistHeaderView findVisibleHeader(String userId, boolean isAdmin, Long playlistId) {
+        return playlistRepository.findVisibleHeaderById(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
+    }
 
-        if (!isOwner && !isPublic && !isAdmin) {
-            throw new PlaylistNotPublicException("No tienes acceso a esta playlist privada");
+    // Solo en el camino de error: distingue playlist inexistente de playlist privada ajena
+    private RuntimeException notVisible(Long playlistId) {
+        if (playlistRepository.existsById(playlistId)) {
+            return new PlaylistNotPublicException("No tienes acceso a esta playlist privada");
         }
-        return playlistMapper.toResponse(playlist);
+        return new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId);
     }
 
-    public void deletePlaylist(String userId, Long playlistId) {
+    // Copia bajo demanda: la nueva playlist solo apunta a las filas de la original (una inserción,
+    // sin copiar playlist_song); las filas se copian cuando alguna de las dos cambia sus canciones
+    @Transactional
+    public PlaylistResponse forkPlaylist(String userId, boolean isAdmin, Long playlistId, String name) {
+        Playlist original = playlistRepository.findVisibleWithoutSongsById(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
         User user = userRepository.findById(Long.parseLong(userId))
                 .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
 
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException(
-                        "Playlist no encontrada con ID: " + playlistId));
-
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        if (!isOwner && !isAdmin) {
-            throw new PlaylistAccessDeniedException("No tienes permisos para eliminar esta playlist.");
+        String forkName = name == null || name.isBlank() ? original.getName() : name;
+        if (playlistRepository.existsByNameIgnoreCaseAndUser_id(forkName, user.getId())) {
+            throw new PlaylistAlreadyExistsException("Playlist con el nombre '" + forkName + "' ya existe para el usuario.");
         }
 
-        playlistRepository.delete(playlist);
+        Playlist fork = new Playlist();
+        fork.setName(forkName);
+        fork.setDescription(original.getDescription());
+        fork.setUrl_image(original.getUrl_image());
+        fork.setPublic(false);
+        fork.setUser(user);
+        // Una copia de otra copia apunta directamente a quien guarda las filas
+        fork.setMembershipSourceId(original.getMembershipId());
+        Playlist saved = playlistRepository.save(fork);
+        catalogSearchService.onPlaylistSaved(saved);
+
+        PlaylistHeaderView header = new PlaylistHeaderView(saved.getPlaylistId(), saved.getName(), saved.getDescription(),
+                saved.isPublic(), saved.getCreatedAt(), saved.getUrl_image(), user.getId());
+        return playlistMapper.toSummaryResponse(header, playlistRepository.countSongs(saved.getPlaylistId()));
     }
 
-    public List<SongResponse> listSongsInPlaylist(String userId, Long playlistId) {
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId));
+    // Unión, intersección o diferencia de dos playlists accesibles, calculada en la base de datos
+    public List<PlaylistEntryResponse> combinePlaylists(String userId, boolean isAdmin, PlaylistSetOperation operation,
+                                                        Long leftPlaylistId, Long rightPlaylistId) {
+        Long leftId = findVisibleMembershipId(userId, isAdmin, leftPlaylistId);
+        Long rightId = findVisibleMembershipId(userId, isAdmin, rightPlaylistId);
+        return playlistSongRepository.combine(operation.name(), leftId, rightId).stream()
+                .map(PlaylistEntryView::toResponse)
+                .toList();
+    }
 
+    // El resultado se inserta en la nueva playlist con INSERT ... SELECT, sin pasar por la aplicación
+    @Transactional
+    public PlaylistResponse saveCombinedPlaylist(String userId, boolean isAdmin, PlaylistSetOperation operation,
+                                                 Long leftPlaylistId, Long rightPlaylistId, String name) {
+        Long leftId = findVisibleMembershipId(userId, isAdmin, leftPlaylistId);
+        Long rightId = findVisibleMembershipId(userId, isAdmin, rightPlaylistId);
         User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado: " + userId));
-
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isPublic = playlist.isPublic();
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        if (!isOwner && !isPublic && !isAdmin) {
-            throw new PlaylistNotPublicException("No tienes acceso a esta playlist privada " + user.getUserRoleName());
+                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
+        if (playlistRepository.existsByNameIgnoreCaseAndUser_id(name, user.getId())) {
+            throw new PlaylistAlreadyExistsException("Playlist con el nombre '" + name + "' ya existe para el usuario.");
         }
-            return playlist.getSongs().stream()
-                    .map(playlistMapper::toSongResponse)
-                    .collect(Collectors.toList());
+
+        Playlist playlist = new Playlist();
+        playlist.setName(name);
+        playlist.setPublic(false);
+        playlist.setUser(user);
+        Playlist saved = playlistRepository.save(playlist);
+        int songCount = playlistSongRepository.insertCombination(operation.name(), leftId, rightId, saved.getPlaylistId());
+        catalogSearchService.onPlaylistSaved(saved);
+
+        PlaylistHeaderView header = new PlaylistHeaderView(saved.getPlaylistId(), saved.getName(), saved.getDescription(),
+                saved.isPublic(), saved.getCreatedAt(), saved.getUrl_image(), user.getId());
+        return playlistMapper.toSummaryResponse(header, songCount);
     }
 
-    public void addSongToPlaylist(String userId, Long playlistId, Long songId) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado con id: " + userId));
+    private Long findVisibleMembershipId(String userId, boolean isAdmin, Long playlistId) {
+        return playlistRepository.findVisibleMembershipId(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
+    }
 
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId));
+    @Transactional
+    public void deletePlaylist(String userId, boolean isAdmin, Long playlistId) {
+        PlaylistWriteView playlist = checkCanModify(userId, isAdmin, playlistId, "No tienes permisos para eliminar esta playlist.");
+
+        if (playlist.membershipSourceId() == null && playlist.sharerId() != null) {
+            // Sus copias siguen usando las filas: se traspasan en lugar de borrarlas
+            handOverMembership(playlistId, playlist.sharerId());
+        }
+        playlistRepository.removeAllSongs(playlistId);
+        playlistChangeRepository.deleteByPlaylist(playlistId);
+        playlistRepository.deleteById(playlistId);
+        catalogSearchService.onPlaylistDeleted(playlistId);
+    }
+
+    public List<SongResponse> listSongsInPlaylist(String userId, boolean isAdmin, Long playlistId) {
+        Playlist playlist = playlistRepository.findVisibleById(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
+        return playlistMapper.toSongResponses(playlist);
+    }
 
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        if (!isOwner && !isAdmin) {
-            throw new PlaylistAccessDeniedException("No tienes permisos para modificar esta playlist.");
+    // Una sola sentencia sobre playlist_song; la existencia de la canción solo se consulta si no se insertó nada.
+    // Sin afterSongId se añade al final; con él, en el hueco entre esa canción y la siguiente.
+    @Transactional
+    public void addSongToPlaylist(String userId, boolean isAdmin, Long playlistId, Long songId, Long afterSongId) {
+        detachMembership(playlistId, checkCanModify(userId, isAdmin, playlistId));
+
+        int inserted = afterSongId == null
+                ? playlistRepository.addSong(playlistId, songId)
+                : insertAfter(playlistId, songId, afterSongId);
+        if (inserted == 0) {
+            if (!songRepository.existsById(songId)) {
+                throw new SongNotFoundException("Canción no encontrada con ID: " + songId);
+            }
+            return;
         }
+        recordSongChanges(playlistId, PlaylistChangeType.ADD, List.of(songId));
+    }
 
-        Song song = songRepository.findById(songId)
-                .orElseThrow(() -> new SongNotFoundException("Canción no encontrada con ID: " + songId));
+    // Mover una canción solo actualiza su fila; afterSongId null la lleva al principio
+    @Transactional
+    public void moveSongInPlaylist(String userId, boolean isAdmin, Long playlistId, Long songId, Long afterSongId) {
+        detachMembership(playlistId, checkCanModify(userId, isAdmin, playlistId));
 
-        playlist.getSongs().add(song);
-        playlistRepository.save(playlist);
+        if (playlistSongRepository.findPosition(playlistId, songId).isEmpty()) {
+            throw new SongNotInPlaylistException("La canción con ID: " + songId + " no pertenece a la Playlist.");
+        }
+        if (songId.equals(afterSongId)) {
+            return;
+        }
+        playlistSongRepository.updatePosition(playlistId, songId, positionAfter(playlistId, afterSongId));
+        recordSongChanges(playlistId, PlaylistChangeType.MOVE, List.of(songId));
     }
 
-    public void removeSongFromPlaylist(String userId, Long playlistId, Long songId) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado con id: " + userId));
+    // La posición libre se calcula con la playlist bloqueada; si aun así está ocupada se reparte y se reintenta una vez
+    private int insertAfter(Long playlistId, Long songId, Long afterSongId) {
+        int inserted = playlistSongRepository.insertAt(playlistId, songId, positionAfter(playlistId, afterSongId));
+        if (inserted == 0 && songRepository.existsById(songId)
+                && playlistSongRepository.findPosition(playlistId, songId).isEmpty()) {
+            playlistSongRepository.renumber(playlistId);
+            recordChange(playlistId, PlaylistChangeType.RESET);
+            inserted = playlistSongRepository.insertAt(playlistId, songId, positionAfter(playlistId, afterSongId));
+        }
+        return inserted;
+    }
 
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId));
+    private long positionAfter(Long playlistId, Long afterSongId) {
+        Long position = freePositionAfter(playlistId, afterSongId);
+        if (position == null) {
+            // No queda hueco entre las dos vecinas: se reparte de nuevo y se vuelve a calcular
+            playlistSongRepository.renumber(playlistId);
+            recordChange(playlistId, PlaylistChangeType.RESET);
+            position = freePositionAfter(playlistId, afterSongId);
+        }
+        return position;
+    }
 
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        if (!isOwner && !isAdmin) {
-            throw new PlaylistAccessDeniedException("No tienes permisos para modificar esta playlist.");
+    private Long freePositionAfter(Long playlistId, Long afterSongId) {
+        if (afterSongId == null) {
+            Long first = playlistSongRepository.findFirstPosition(playlistId);
+            return first == null ? PlaylistSong.POSITION_GAP : first - PlaylistSong.POSITION_GAP;
+        }
+        long lower = playlistSongRepository.findPosition(playlistId, afterSongId)
+                .orElseThrow(() -> new SongNotInPlaylistException(
+                        "La canción con ID: " + afterSongId + " no pertenece a la Playlist."));
+        Long upper = playlistSongRepository.findNextPosition(playlistId, lower);
+        if (upper == null) {
+            return lower + PlaylistSong.POSITION_GAP;
         }
+        return upper - lower > 1 ? lower + (upper - lower) / 2 : null;
+    }
 
-        Song song = songRepository.findById(songId)
-                .orElseThrow(() -> new SongNotFoundException("Canción no encontrada con ID: " + songId));
+    @Transactional
+    public void removeSongFromPlaylist(String userId, boolean isAdmin, Long playlistId, Long songId) {
+        detachMembership(playlistId, checkCanModify(userId, isAdmin, playlistId));
 
-        if (!playlist.getSongs().remove(song)) {
+        if (playlistRepository.removeSong(playlistId, songId) == 0) {
+            if (!songRepository.existsById(songId)) {
+                throw new SongNotFoundException("Canción no encontrada con ID: " + songId);
+            }
             throw new SongNotInPlaylistException("La canción con ID: " + songId + " no pertenece a la Playlist.");
         }
+        recordSongChanges(playlistId, PlaylistChangeType.REMOVE, List.of(songId));
+    }
+
+    // Altas, bajas o reemplazo masivo: una consulta IN para validar, un chequeo de permisos
+    // y una sentencia por operación sobre playlist_song, todo en la misma transacción
+    @Transactional
+    public PlaylistSongsUpdateResponse updatePlaylistSongs(String userId, boolean isAdmin, Long playlistId,
+                                                           UpdatePlaylistSongsRequest request) {
+        Set<Long> toAdd = distinctIds(request.add());
+        Set<Long> toRemove = distinctIds(request.remove());
+        Set<Long> replacement = request.replace() == null ? null : distinctIds(request.replace());
+
+        if (replacement != null && (!toAdd.isEmpty() || !toRemove.isEmpty())) {
+            throw new InvalidPlaylistSongsRequestException("No se puede combinar 'replace' con 'add' o 'remove'.");
+        }
+        if (replacement == null && toAdd.isEmpty() && toRemove.isEmpty()) {
+            throw new InvalidPlaylistSongsRequestException("Debe indicar canciones en 'add', 'remove' o 'replace'.");
+        }
+        if (!Collections.disjoint(toAdd, toRemove)) {
+            throw new InvalidPlaylistSongsRequestException("Una canción no puede añadirse y quitarse en la misma petición.");
+        }
+
+        PlaylistWriteView playlist = checkCanModify(userId, isAdmin, playlistId);
+
+        Set<Long> requested = new LinkedHashSet<>(toAdd);
+        requested.addAll(toRemove);
+        if (replacement != null) {
+            requested.addAll(replacement);
+        }
+        if (!requested.isEmpty()) {
+            Set<Long> missing = new LinkedHashSet<>(requested);
+            missing.removeAll(songRepository.findExistingIds(requested));
+            if (!missing.isEmpty()) {
+                throw new SongNotFoundException("Canciones no encontradas con ID: " + missing);
+            }
+        }
 
-        playlistRepository.save(playlist);
+        detachMembership(playlistId, playlist);
+        int added;
+        int removed;
+        if (replacement != null) {
+            removed = replacement.isEmpty()
+                    ? playlistRepository.removeAllSongs(playlistId)
+                    : playlistRepository.removeSongsNotIn(playlistId, replacement);
+            added = replacement.isEmpty() ? 0 : playlistRepository.addSongs(playlistId, replacement).size();
+            if (!replacement.isEmpty()) {
+                playlistSongRepository.applyOrder(playlistId, replacement);
+            }
+            recordChange(playlistId, PlaylistChangeType.RESET);
+        } else {
+            // Solo las canciones que cambiaron: las que ya estaban (o no estaban) no llegan al registro
+            List<Long> removedIds = toRemove.isEmpty() ? List.of() : playlistRepository.removeSongs(playlistId, toRemove);
+            List<Long> addedIds = toAdd.isEmpty() ? List.of() : playlistRepository.addSongs(playlistId, toAdd);
+            removed = removedIds.size();
+            added = addedIds.size();
+            if (!removedIds.isEmpty()) {
+                recordSongChanges(playlistId, PlaylistChangeType.REMOVE, removedIds);
+            }
+            if (!addedIds.isEmpty()) {
+                recordSongChanges(playlistId, PlaylistChangeType.ADD, addedIds);
+            }
+        }
+        return new PlaylistSongsUpdateResponse(playlistId, added, removed);
     }
 
-    public PlaylistResponse getPlaylistByName(String userId, String playlistName) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
-        Playlist playlist = playlistRepository.findByNameIgnoreCaseAndUser_id(playlistName, user.getId())
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con nombre: " + playlistName));
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        boolean isPublic = playlist.isPublic();
-        if (!isOwner && !isAdmin && !isPublic) {
-            throw new PlaylistNotPublicException("No tienes acceso a esta playlist privada");
+    // Sincronización incremental: una consulta por la versión si no hubo cambios;
+    // si el registro ya no cubre "since" (o hubo un cambio masivo) se pide al cliente que recargue.
+    // La versión y el registro se leen en la misma foto (REPEATABLE READ): un cambio confirmado entre
+    // las dos consultas no puede quedar fuera de la respuesta ni aparecer por encima de su versión.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<PlaylistChangesResponse> getPlaylistChanges(String userId, boolean isAdmin, Long playlistId, long since) {
+        long version = playlistRepository.findVisibleVersionById(playlistId, Long.parseLong(userId), isAdmin)
+                .orElseThrow(() -> notVisible(playlistId));
+        if (version == since) {
+            return Optional.empty();
         }
-        return playlistMapper.toResponse(playlist);
+        if (since > version) {
+            return Optional.of(new PlaylistChangesResponse(playlistId, version, true, List.of()));
+        }
+
+        List<PlaylistChange> changes = playlistChangeRepository
+                .findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(playlistId, since);
+        boolean complete = !changes.isEmpty() && changes.get(0).getVersion() == since + 1;
+        boolean reset = !complete || changes.stream().anyMatch(c -> c.getOperation() == PlaylistChangeType.RESET);
+        if (reset) {
+            return Optional.of(new PlaylistChangesResponse(playlistId, version, true, List.of()));
+        }
+        return Optional.of(new PlaylistChangesResponse(playlistId, version, false, changes.stream()
+                .map(c -> new PlaylistChangeResponse(c.getVersion(), c.getOperation(), c.getSongId(), c.getPosition()))
+                .toList()));
     }
 
-    public List<PlaylistResponse> getAllPlaylistsByUser(String userId) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
-        return playlistRepository.findAllByUser_Id(user.getId())
-                .stream().map(playlistMapper::toResponse)
-                .collect(Collectors.toList());
+    private void recordSongChanges(Long playlistId, PlaylistChangeType type, Collection<Long> songIds) {
+        playlistChangeRepository.recordSongChanges(playlistId, type.name(), songIds);
+        playlistChangeRepository.prune(playlistId, CHANGE_LOG_VERSIONS);
     }
 
-    public List<PlaylistResponse> searchPublicPlaylistsByName(String name) {
-        List<Playlist> playlists = playlistRepository
-                .findByisPublicTrueAndNameContainingIgnoreCase(name);
-        return playlists.stream()
-                .map(playlistMapper::toResponse)
-                .toList();
+    private Long recordChange(Long playlistId, PlaylistChangeType type) {
+        Long version = playlistChangeRepository.recordChange(playlistId, type.name());
+        playlistChangeRepository.prune(playlistId, CHANGE_LOG_VERSIONS);
+        return version;
     }
 
+    private static Set<Long> distinctIds(List<Long> ids) {
+        return ids == null ? new LinkedHashSet<>() : new LinkedHashSet<>(ids);
+    }
 
-    public PlaylistResponse editPlaylistById(Long playlistId, String userId, UpdatePlaylistRequest updatePlaylistRequest) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new ArtistNotFoundException("Usuario no encontrado con id: " + userId));
+    // Solo el dueño o un administrador pueden cambiar la playlist; una única consulta por el dueño
+    // que además indica si la playlist comparte canciones con otras
+    private PlaylistWriteView checkCanModify(String userId, boolean isAdmin, Long playlistId) {
+        return checkCanModify(userId, isAdmin, playlistId, "No tienes permisos para modificar esta playlist.");
+    }
+
+    private PlaylistWriteView checkCanModify(String userId, boolean isAdmin, Long playlistId, String deniedMessage) {
+        PlaylistWriteView playlist = findWriteView(playlistId);
+
+        if (!isAdmin && !playlist.ownerId().equals(Long.parseLong(userId))) {
+            throw new PlaylistAccessDeniedException(deniedMessage);
+        }
+        return lockForWrite(playlistId, playlist);
+    }
 
-        Playlist playlist = playlistRepository.findById(playlistId)
+    private PlaylistWriteView findWriteView(Long playlistId) {
+        return playlistRepository.findWriteViewById(playlistId)
                 .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con ID: " + playlistId));
+    }
 
-        boolean isOwner = playlist.getUser().getId().equals(user.getId());
-        boolean isAdmin = user.getUserRoleName().equalsIgnoreCase("ADMIN");
-        if (!isOwner && !isAdmin) {
-            throw new PlaylistAccessDeniedException("No tienes permisos para modificar esta playlist.");
+    // Bloquea hasta el final de la transacción la playlist y las que comparten sus filas (su origen o la copia que
+    // las heredaría), en orden de id, y vuelve a leer la vista con ellas bloqueadas. Si mientras esperaba otra
+    // escritura cambió con quién comparte, bloquea también las nuevas. Así MAX(position), la copia de detachMembership
+    // y el traspaso al borrar se hacen sobre un estado que nadie más está cambiando.
+    private PlaylistWriteView lockForWrite(Long playlistId, PlaylistWriteView playlist) {
+        Set<Long> locked = new HashSet<>();
+        while (true) {
+            List<Long> toLock = Stream.of(playlistId, playlist.membershipSourceId(), playlist.sharerId())
+                    .filter(id -> id != null && !locked.contains(id))
+                    .toList();
+            if (toLock.isEmpty()) {
+                return playlist;
+            }
+            playlistRepository.lockByIds(toLock);
+            locked.addAll(toLock);
+            playlist = findWriteView(playlistId);
         }
+    }
 
-        if (updatePlaylistRequest.name() !=null)
-        {
-            playlist.setName(updatePlaylistRequest.name());
+    // Antes de cambiar canciones la playlist tiene que tener filas propias que nadie más lea.
+    // Recibe la vista leída con la playlist, su origen y su heredera bloqueados (ver lockForWrite).
+    // Una copia copia las filas de su origen; una original con copias conserva sus filas sin tocarlas y se las
+    // copia a una de ellas, que pasa a ser el origen de las demás. Así el coste no depende del número de copias.
+    private void detachMembership(Long playlistId, PlaylistWriteView playlist) {
+        if (playlist.membershipSourceId() != null) {
+            playlistSongRepository.copyMembership(playlist.membershipSourceId(), playlistId);
+            playlistRepository.clearMembershipSource(playlistId);
+        } else if (playlist.sharerId() != null) {
+            playlistSongRepository.copyMembership(playlistId, playlist.sharerId());
+            // También deja sin origen a la heredera
+            playlistRepository.repointSharers(playlistId, playlist.sharerId());
         }
-        if (updatePlaylistRequest.description() !=null){
-            playlist.setDescription(updatePlaylistRequest.description());
+    }
+
+    // Solo al borrar: las filas de la original desaparecen, así que se traspasan en lugar de copiarse
+
+    private void handOverMembership(Long playlistId, Long heirId) {
+        playlistSongRepository.moveMembership(playlistId, heirId);
+        playlistRepository.repointSharers(playlistId, heirId);
+    }
+
+    // La consulta ya filtra por el usuario autenticado, así que la playlist siempre es suya
+    public PlaylistResponse getPlaylistByName(String userId, String playlistName) {
+        Playlist playlist = playlistRepository.findByNameIgnoreCaseAndUser_id(playlistName, Long.parseLong(userId))
+                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con nombre: " + playlistName));
+        return playlistMapper.toResponse(playlist);
+    }
+
+    public List<PlaylistResponse> getAllPlaylistsByUser(String userId) {
+        User user = userRepository.findById(Long.parseLong(userId))
+                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
+        return toFullResponses(playlistRepository.findAllByUser_Id(user.getId()));
+    }
+
+    // Una consulta por las playlists y otra por las canciones de todas ellas, sean copias sin cambios o no
+    private List<PlaylistResponse> toFullResponses(List<Playlist> playlists) {
+        if (playlists.isEmpty()) {
+            return List.of();
         }
+        List<Long> ids = playlists.stream().map(Playlist::getPlaylistId).toList();
+        return playlistMapper.toFullResponses(playlists, playlistRepository.findTracksByPlaylistIds(ids));
+    }
 
-        playlist.setPublic(updatePlaylistRequest.isPublic());
+    public List<PlaylistOverviewResponse> getPlaylistOverviewsByUser(String userId) {
+        return playlistRepository.findOverviewsByUserId(Long.parseLong(userId));
+    }
 
-        if (updatePlaylistRequest.url_image().isBlank()) {
-            playlist.setUrl_image(null);
-        } else {
-            playlist.setUrl_image(updatePlaylistRequest.url_image());
+    public List<PlaylistResponse> searchPublicPlaylistsByName(String name, Integer page, Integer limit) {
+        List<Long> ids = catalogSearchService.searchPublicPlaylistIds(name, page, limit);
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        List<PlaylistHeaderView> playlists = CatalogSearchService.inOrder(
+                ids, playlistRepository.findPublicHeadersByIds(ids), PlaylistHeaderView::playlistId);
+        return playlistMapper.toResponses(playlists, playlistRepository.findTracksByPlaylistIds(ids));
+    }
 
-        playlistRepository.save(playlist);
 
-        return playlistMapper.toResponse(playlist);
+    // Datos de la playlist en una sola sentencia, sin cargar sus canciones; la respuesta es cabecera + COUNT
+    // con la versión que deja el cambio.
+    // Un campo omitido se deja como está y una imagen en blanco se quita.
+    @Transactional
+    public PlaylistResponse editPlaylistById(Long playlistId, String userId, boolean isAdmin,
+                                             UpdatePlaylistRequest updatePlaylistRequest) {
+        checkCanModify(userId, isAdmin, playlistId);
 
+        String urlImage = updatePlaylistRequest.url_image();
+        playlistRepository.updateDetails(playlistId, updatePlaylistRequest.name(), updatePlaylistRequest.description(),
+                updatePlaylistRequest.isPublic(), urlImage == null, urlImage == null || urlImage.isBlank() ? null : urlImage);
+        Long version = recordChange(playlistId, PlaylistChangeType.UPDATE);
 
+        PlaylistHeaderView header = findVisibleHeader(userId, isAdmin, playlistId);
+        catalogSearchService.onPlaylistSaved(header.playlistId(), header.name(), header.isPublic());
+        return playlistMapper.toSummaryResponse(header, playlistRepository.countSongs(playlistId), version);
     }
 
     public List<PlaylistResponse> searchMyPlaylistsByName(String userId, String name) {
-        List<Playlist> playlists = playlistRepository
-                .findByUser_IdAndNameContainingIgnoreCase(Long.parseLong(userId), name);
-        return playlists.stream()
-                .map(playlistMapper::toResponse)
-                .toList();
+        return toFullResponses(playlistRepository.findByUser_IdAndNameContainingIgnoreCase(Long.parseLong(userId), name));
     }
 
 
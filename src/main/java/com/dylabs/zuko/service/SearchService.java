@@ -0,0 +1,115 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.Cursor;
+import com.dylabs.zuko.dto.response.SearchResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Búsqueda unificada: consulta las cinco fuentes en paralelo y devuelve lo que llegue a tiempo.
+// orTimeout solo completa el future: para que una fuente lenta suelte su conexión de Hikari, cada una corre
+// en una transacción de solo lectura con el mismo límite, que Spring aplica como timeout de las consultas JPA.
+// Un semáforo común a todas las peticiones acota cuántas fuentes consultan la base de datos a la vez.
+@Slf4j
+@Service
+public class SearchService {
+    private static final int DEFAULT_LIMIT = 5;
+
+    private final SongService songService;
+    private final AlbumService albumService;
+    private final ArtistService artistService;
+    private final PlaylistService playlistService;
+    private final UserService userService;
+    private final PlatformTransactionManager transactionManager;
+    private final long sourceTimeoutMs;
+    private final Semaphore concurrentQueries;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SearchService(SongService songService, AlbumService albumService, ArtistService artistService,
+                         PlaylistService playlistService, UserService userService,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${zuko.search.source-timeout-ms:800}") long sourceTimeoutMs,
+                         @Value("${zuko.search.max-concurrent-queries:3}") int maxConcurrentQueries) {
+        this.songService = songService;
+        this.albumService = albumService;
+        this.artistService = artistService;
+        this.playlistService = playlistService;
+        this.userService = userService;
+        this.transactionManager = transactionManager;
+        this.sourceTimeoutMs = sourceTimeoutMs;
+        this.concurrentQueries = new Semaphore(maxConcurrentQueries);
+    }
+
+    public SearchResponse search(String query, Integer limit) {
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty()) {
+            return new SearchResponse(q, List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+        int perType = limit == null ? DEFAULT_LIMIT : Cursor.limit(limit);
+        Set<String> degraded = ConcurrentHashMap.newKeySet();
+
+        var songs = fetch("songs", () -> songService.findPublicSongsByTitle(q, 0, perType), degraded);
+        var albums = fetch("albums", () -> albumService.findAlbumsByTitle(q, 0, perType), degraded);
+        var artists = fetch("artists", () -> artistService.searchArtistsByName(q, 0, perType), degraded);
+        var playlists = fetch("playlists", () -> playlistService.searchPublicPlaylistsByName(q, 0, perType), degraded);
+        var users = fetch("users", () -> userService.findUsersByUsername(q, perType), degraded);
+
+        CompletableFuture.allOf(songs, albums, artists, playlists, users).join();
+
+        return new SearchResponse(q, songs.join(), albums.join(), artists.join(), playlists.join(), users.join(),
+                degraded.stream().sorted().toList());
+    }
+
+    // Cada fuente tiene su propio tiempo límite; si falla o tarda se marca como degradada y aporta una lista vacía.
+    // La espera por el semáforo cuenta dentro de ese mismo límite.
+    private <T> CompletableFuture<List<T>> fetch(String source, Supplier<List<T>> supplier, Set<String> degraded) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sourceTimeoutMs);
+        return CompletableFuture.supplyAsync(() -> query(supplier, deadline), executor)
+                .orTimeout(sourceTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Búsqueda degradada en {}: {}", source, e.toString());
+                    degraded.add(source);
+                    return List.of();
+                });
+    }
+
+    private <T> List<T> query(Supplier<List<T>> supplier, long deadline) {
+        try {
+            if (!concurrentQueries.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException(new TimeoutException("sin hueco para consultar la base de datos"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            // Los timeouts de transacción van en segundos: se redondea hacia arriba
+            transaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(sourceTimeoutMs + 999)));
+            return transaction.execute(status -> supplier.get());
+        } finally {
+            concurrentQueries.release();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,108 +2,141 @@ package com.dylabs.zuko.service;
 
 import com.dylabs.zuko.dto.ApiResponse;
 import com.dylabs.zuko.dto.request.AddPlaylistToShortcutsRequest;
+import com.dylabs.zuko.dto.Cursor;
+import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
+import com.dylabs.zuko.dto.response.PinnedAlbumResponse;
+import com.dylabs.zuko.dto.response.PinnedPlaylistResponse;
 import com.dylabs.zuko.dto.response.ShortcutsResponse;
+import com.dylabs.zuko.dto.response.ShortcutsSummaryResponse;
 import com.dylabs.zuko.exception.playlistExceptions.PlaylistNotFoundException;
 import com.dylabs.zuko.exception.shortcutsExceptions.PlaylistAlreadyInShortcutsException;
 import com.dylabs.zuko.exception.userExeptions.UserNotFoundExeption;
 import com.dylabs.zuko.mapper.ShortcutsMapper;
-import com.dylabs.zuko.model.Playlist;
 import com.dylabs.zuko.model.Shortcuts;
-import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.repository.PlaylistRepository;
 import com.dylabs.zuko.repository.ShortcutsRepository;
-import com.dylabs.zuko.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import com.dylabs.zuko.model.Album;
+import org.springframework.transaction.annotation.Transactional;
 import com.dylabs.zuko.repository.AlbumRepository;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ShortcutsService {
     private final ShortcutsRepository shortcutsRepository;
-    private final UserRepository userRepository;
     private final PlaylistRepository playlistRepository;
     private final ShortcutsMapper shortcutsMapper;
     private final AlbumRepository albumRepository;
+    private final PinCounterService pinCounterService;
 
+    // Una fila en shortcuts_playlists: el número de filas insertadas es el alta exacta para el contador
     public void addPlaylistToShortcuts(String userId, AddPlaylistToShortcutsRequest request) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
+        Long shortcutsId = shortcutsIdOf(Long.parseLong(userId));
 
-        Shortcuts shortcuts = shortcutsRepository.findByUser_Id(Long.parseLong(userId))
-                .orElseThrow(()->new UserNotFoundExeption("Shortcut no encontrado para usuario con id: " + userId));
-
-        Playlist playlist = playlistRepository.findById(request.playlistId())
-                .orElseThrow(() -> new PlaylistNotFoundException("Playlist no encontrada con id: " + request.playlistId()));
-
-        if (shortcutsRepository.existsByUser_IdAndPlaylists_PlaylistId(Long.parseLong(userId), request.playlistId())) {
+        if (!playlistRepository.existsById(request.playlistId())) {
+            throw new PlaylistNotFoundException("Playlist no encontrada con id: " + request.playlistId());
+        }
+        if (shortcutsRepository.addPlaylist(shortcutsId, request.playlistId()) == 0) {
             throw new PlaylistAlreadyInShortcutsException("La playlist ya está en tus accesos directos");
         }
-        shortcuts.getPlaylists().add(playlist);
-        shortcutsRepository.save(shortcuts);
+        pinCounterService.playlistPinned(request.playlistId());
     }
 
     public void removePlaylistFromShortcuts(String userId, Long playlistId) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
+        Long shortcutsId = shortcutsIdOf(Long.parseLong(userId));
 
-        Shortcuts shortcuts = shortcutsRepository.findByUser_Id(Long.parseLong(userId))
-                .orElseThrow(()->new UserNotFoundExeption("Shortcut no encontrado para usuario con id: " + userId));
+        if (shortcutsRepository.removePlaylist(shortcutsId, playlistId) > 0) {
+            pinCounterService.playlistUnpinned(playlistId);
+        } else if (!playlistRepository.existsById(playlistId)) {
+            throw new PlaylistNotFoundException("No existe playlist en tus accesos directos con id: " + playlistId);
+        }
+    }
 
-        Playlist playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new PlaylistNotFoundException("No existe playlist en tus accesos directos con id: " + playlistId));
+    private Long shortcutsIdOf(Long userId) {
+        return shortcutsRepository.findIdByUserId(userId)
+                .orElseThrow(() -> new UserNotFoundExeption("Shortcut no encontrado para usuario con id: " + userId));
+    }
 
-        shortcuts.getPlaylists().remove(playlist);
-        shortcutsRepository.save(shortcuts);
+    // Títulos y portadas en dos consultas de proyección, sin cargar entidades ni canciones
+    public ShortcutsSummaryResponse getShortcutsSummaryByUser(String userId) {
+        Long id = Long.parseLong(userId);
+        return new ShortcutsSummaryResponse(
+                shortcutsRepository.findPlaylistSummariesByUserId(id),
+                shortcutsRepository.findAlbumSummariesByUserId(id));
     }
 
+    // Respuesta completa con la lista de canciones de cada álbum; los álbumes se cargan por lotes dentro de la transacción
+    @Transactional(readOnly = true)
     public ShortcutsResponse getShortcutsByUser(String userId) {
-        User user = userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + userId));
         Shortcuts shortcuts = shortcutsRepository.findByUser_Id(Long.parseLong(userId))
                 .orElseThrow(()->new UserNotFoundExeption("Shortcut no encontrado para usuario con id:" + userId));
         return shortcutsMapper.toShortcutsResponse(shortcuts);
     }
 
     public void addAlbumToUserShortcuts(Long userId, Long albumId) {
-        Shortcuts shortcuts = shortcutsRepository.findByUser_Id(userId)
-                .orElseThrow(() -> new IllegalArgumentException("No se encontraron accesos directos para el usuario con ID: " + userId));
+        Long shortcutsId = albumShortcutsIdOf(userId);
 
-        if (shortcutsRepository.existsByUser_IdAndAlbums_Id(userId, albumId)) {
+        if (!albumRepository.existsById(albumId)) {
+            throw new IllegalArgumentException("No se encontró un álbum con ID: " + albumId);
+        }
+        if (shortcutsRepository.addAlbum(shortcutsId, albumId) == 0) {
             throw new IllegalStateException("El álbum ya está en los accesos directos");
         }
-
-        Album album = albumRepository.findById(albumId)
-                .orElseThrow(() -> new IllegalArgumentException("No se encontró un álbum con ID: " + albumId));
-
-        shortcuts.getAlbums().add(album); // Asocia el álbum a los accesos directos
-        shortcutsRepository.save(shortcuts);
+        pinCounterService.albumPinned(albumId);
     }
 
     // Metodo para eliminar un álbum de los accesos directos de un usuario
     public void removeAlbumFromUserShortcuts(Long userId, Long albumId) {
-        Shortcuts shortcuts = shortcutsRepository.findByUser_Id(userId)
-                .orElseThrow(() -> new IllegalArgumentException("No se encontraron accesos directos para el usuario con ID: " + userId));
-
-        Album album = albumRepository.findById(albumId)
-                .orElseThrow(() -> new IllegalArgumentException("No se encontró un álbum con ID: " + albumId));
+        Long shortcutsId = albumShortcutsIdOf(userId);
 
-        if (!shortcuts.getAlbums().contains(album)) {
+        if (shortcutsRepository.removeAlbum(shortcutsId, albumId) == 0) {
+            if (!albumRepository.existsById(albumId)) {
+                throw new IllegalArgumentException("No se encontró un álbum con ID: " + albumId);
+            }
             throw new IllegalStateException("El álbum no está en los accesos directos");
         }
-        shortcuts.getAlbums().remove(album);
-        shortcutsRepository.save(shortcuts);
+        pinCounterService.albumUnpinned(albumId);
+    }
+
+    private Long albumShortcutsIdOf(Long userId) {
+        return shortcutsRepository.findIdByUserId(userId)
+                .orElseThrow(() -> new IllegalArgumentException("No se encontraron accesos directos para el usuario con ID: " + userId));
+    }
+
+    // Rankings de los más fijados: leen pin_count con keyset (pinCount, id), sin agrupar las tablas de accesos directos
+    public CursorPageResponse<PinnedPlaylistResponse> getMostPinnedPlaylists(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        long[] after = rankingCursor(cursor);
+        return CursorPageResponse.of(playlistRepository.findMostPinned(after[0], after[1], Limit.of(pageSize + 1)),
+                pageSize, playlist -> playlist, playlist -> Cursor.encode(playlist.pinCount(), playlist.playlistId()));
+    }
+
+    public CursorPageResponse<PinnedAlbumResponse> getMostPinnedAlbums(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        long[] after = rankingCursor(cursor);
+        return CursorPageResponse.of(albumRepository.findMostPinned(after[0], after[1], Limit.of(pageSize + 1)),
+                pageSize, album -> album, album -> Cursor.encode(album.pinCount(), album.albumId()));
+    }
+
+    private static long[] rankingCursor(String cursor) {
+        return cursor == null || cursor.isBlank()
+                ? new long[]{Long.MAX_VALUE, 0L}
+                : Cursor.decode(cursor, 2);
     }
 
     // Metodo para listar los álbumes de los accesos directos de un usuario
-    public Set<Album> getUserShortcutsAlbums(Long userId) {
-        Shortcuts shortcuts = shortcutsRepository.findByUser_Id(userId)
+    public Set<AlbumResponse> getUserShortcutsAlbums(Long userId) {
+        Shortcuts shortcuts = shortcutsRepository.findWithAlbumsByUser_Id(userId)
                 .orElseThrow(() -> new IllegalArgumentException("No se encontraron accesos directos para el usuario con ID: " + userId));
 
-        return shortcuts.getAlbums();
+        return shortcuts.getAlbums().stream()
+                .map(shortcutsMapper::toAlbumResponse)
+                .collect(Collectors.toSet());
     }
 
 }
@@ -1,6 +1,8 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.SongRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.ReleaseItemResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
@@ -10,13 +12,12 @@ import com.dylabs.zuko.exception.songExceptions.SongNotPublicException;
 import com.dylabs.zuko.mapper.SongMapper;
 import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.Song;
-import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.repository.SongRepository;
-import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -31,20 +32,17 @@ public class SongService {
     private final SongRepository repository;
     private final SongMapper songMapper;
     private final ArtistRepository artistRepository;
-    private final UserRepository userRepository;
     private final SongRepository songRepository;
+    private final CatalogSearchService catalogSearchService;
 
     // Crear canción
-    public SongResponse createSong(SongRequest request, String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
+    public SongResponse createSong(SongRequest request, AuthenticatedUser user) {
         Artist artist;
-        if (user.getUserRoleName().equals("ADMIN")) {
+        if (user.isAdmin()) {
             artist = artistRepository.findById(request.artistId())
                     .orElseThrow(() -> new ArtistNotFoundException("El artista con ID " + request.artistId() + " no existe"));
         } else {
-            artist = artistRepository.findByUserId(user.getId())
+            artist = artistRepository.findById(ownArtistId(user))
                     .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
         }
 
@@ -57,17 +55,12 @@ public class SongService {
         song.setReleaseDate(LocalDate.now());
 
         Song saved = repository.save(song);
+        catalogSearchService.onSongSaved(saved);
         return songMapper.toResponse(saved);
     }
 
-    public List<SongResponse> getSongsByUser(String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
-        Artist artist = artistRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
-
-        List<Song> songs = repository.findAllByArtistId(artist.getId());
+    public List<SongResponse> getSongsByUser(AuthenticatedUser user) {
+        List<Song> songs = repository.findAllByArtistId(ownArtistId(user));
 
         if (songs.isEmpty()) {
             throw new SongNotFoundException("Aún no has registrado canciones.");
@@ -84,42 +77,40 @@ public class SongService {
         return songMapper.toResponse(song);
     }
 
-    public List<SongResponse> searchPublicSongsByTitle(String title) {
-        var songs = repository.findByTitleContainingIgnoreCaseAndIsPublicSongTrue(title);
+    public List<SongResponse> searchPublicSongsByTitle(String title, Integer page, Integer limit) {
+        List<SongResponse> songs = findPublicSongsByTitle(title, page, limit);
 
         if (songs.isEmpty()) {
             throw new SongNotFoundException("No existe la canción buscada.");
         }
 
-        return songs.stream()
-                .map(songMapper::toResponse)
-                .toList();
+        return songs;
     }
 
-    public List<SongResponse> getAllSongs() {
-        List<Song> songs = songRepository.findAll();
-        return songs.stream()
-                .map(songMapper::toResponse)
-                .toList();
+    // Variante sin excepción para la búsqueda unificada: sin resultados devuelve una lista vacía
+    public List<SongResponse> findPublicSongsByTitle(String title, Integer page, Integer limit) {
+        List<Long> ids = catalogSearchService.searchPublicSongIds(title, page, limit);
+        return ids.isEmpty()
+                ? List.of()
+                : CatalogSearchService.inOrder(ids, repository.findPublicResponsesByIds(ids), SongResponse::id);
     }
 
-    // Editar canción
-    public SongResponse updateSong(Long id, SongRequest request, String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+    public CursorPageResponse<SongResponse> getAllSongs(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        List<Song> songs = songRepository.findByIdGreaterThanOrderByIdAsc(Cursor.afterId(cursor), Limit.of(pageSize + 1));
+        return CursorPageResponse.of(songs, pageSize, songMapper::toResponse, song -> Cursor.encode(song.getId()));
+    }
 
+    // Editar canción
+    public SongResponse updateSong(Long id, SongRequest request, AuthenticatedUser user) {
         Song song = repository.findById(id)
                 .orElseThrow(() -> new SongNotFoundException("Canción no encontrada"));
 
-        if (!user.getUserRoleName().equals("ADMIN")) {
-            Artist artist = artistRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
-            if (!song.getArtist().getId().equals(artist.getId())) {
-                throw new AccessDeniedException("No puedes modificar esta canción.");
-            }
+        if (!user.isAdmin() && !song.getArtist().getId().equals(ownArtistId(user))) {
+            throw new AccessDeniedException("No puedes modificar esta canción.");
         }
 
-        if (user.getUserRoleName().equals("ADMIN")) {
+        if (user.isAdmin()) {
             Artist newArtist = artistRepository.findById(request.artistId())
                     .orElseThrow(() -> new ArtistNotFoundException("Artista no encontrado"));
             song.setArtist(newArtist);
@@ -131,6 +122,7 @@ public class SongService {
         song.setImageUrl(request.imageUrl());
 
         Song updated = repository.save(song);
+        catalogSearchService.onSongSaved(updated);
 
         return new SongResponse(
                 updated.getId(),
@@ -147,22 +139,16 @@ public class SongService {
     }
 
     // Eliminar canción
-    public SongResponse deleteSong(Long id, String userIdFromToken) {
-        User user = userRepository.findById(Long.parseLong(userIdFromToken))
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
+    public SongResponse deleteSong(Long id, AuthenticatedUser user) {
         Song song = repository.findById(id)
                 .orElseThrow(() -> new SongNotFoundException("La canción no se encontró."));
 
-        if (!user.getUserRoleName().equals("ADMIN")) {
-            Artist artist = artistRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new ArtistNotFoundException("No tienes un perfil de artista."));
-            if (!song.getArtist().getId().equals(artist.getId())) {
-                throw new AccessDeniedException("No puedes eliminar esta canción.");
-            }
+        if (!user.isAdmin() && !song.getArtist().getId().equals(ownArtistId(user))) {
+            throw new AccessDeniedException("No puedes eliminar esta canción.");
         }
 
         repository.delete(song);
+        catalogSearchService.onSongDeleted(song.getId());
 
         return new SongResponse(
                 song.getId(),
@@ -178,10 +164,16 @@ public class SongService {
         );
     }
 
+    // El perfil de artista viene firmado en el token
+    private static Long ownArtistId(AuthenticatedUser user) {
+        if (!user.hasArtistProfile()) {
+            throw new ArtistNotFoundException("No tienes un perfil de artista.");
+        }
+        return user.artistId();
+    }
+
     public List<SongResponse> getSongsByArtistId(Long artistId) {
-        return repository.findAllByArtistId(artistId).stream()
-                .map(songMapper::toResponse)
-                .toList();
+        return repository.findResponsesByArtistId(artistId);
     }
 
     public List<SongResponse> getTop3PublicSongs() {
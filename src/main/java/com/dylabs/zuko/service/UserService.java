@@ -1,10 +1,12 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.CreateUserRequest;
 import com.dylabs.zuko.dto.request.GoogleOAuthRequest;
 import com.dylabs.zuko.dto.request.LoginRequest;
 import com.dylabs.zuko.dto.request.UpdateUserRequest;
 import com.dylabs.zuko.dto.response.AuthResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.GoogleUserInfo;
 import com.dylabs.zuko.dto.response.UserResponse;
 import com.dylabs.zuko.exception.userExeptions.IncorretPasswordExeption;
@@ -15,20 +17,21 @@ import com.dylabs.zuko.exception.roleExeptions.*;
 import com.dylabs.zuko.model.Shortcuts;
 import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.model.Role;
+import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.repository.ShortcutsRepository;
 import com.dylabs.zuko.repository.UserRepository;
 import com.dylabs.zuko.repository.RoleRepository;
+import com.dylabs.zuko.repository.projection.LoginView;
 import com.dylabs.zuko.mapper.UserMapper;
+import com.dylabs.zuko.security.AuthenticatedUser;
 import com.dylabs.zuko.security.JwtUtil;
+import com.dylabs.zuko.security.PasswordHashingPool;
+import com.dylabs.zuko.security.TokenInvalidationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -44,15 +47,14 @@ public class UserService {
     private final UserMapper userMapper;
     private final RoleRepository roleRepository;
     private final GoogleOAuthService googleOAuthService;
-
-    @Autowired
-    private AuthenticationManager authManager;
+    private final ArtistRepository artistRepository;
+    private final TokenInvalidationRegistry tokenInvalidationRegistry;
+    private final JwtUtil jwtUtil;
+    private final PasswordHashingPool passwordHashingPool;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
     @Autowired
     private ShortcutsRepository shortcutsRepository;
 
@@ -97,37 +99,32 @@ public class UserService {
         return userMapper.toResponse(savedUser);
     }
 
+    // Una sola consulta trae usuario, rol y perfil de artista; BCrypt corre en su propio pool acotado
     public AuthResponse login(LoginRequest request) {
-        try {
-            authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.email(), request.password())
-            );
-        } catch (BadCredentialsException e) {
+        Optional<LoginView> login = userRepository.findLoginByEmail(request.email());
+        String encodedPassword = login.map(view -> view.getUser().getPassword()).orElse(null);
+        if (!passwordHashingPool.matches(request.password(), encodedPassword)) {
             throw new IncorretPasswordExeption("Usuario o contraseña incorrectos.");
         }
 
-        User user = userRepository.findByEmailIgnoreCase(request.email())
-                .orElseThrow(() -> new UserNotFoundExeption("No existe un usuario con ese correo"));
-
+        User user = login.get().getUser();
         if (!user.getIsActive()) {
             throw new UserNotFoundExeption("El usuario está desactivado.");
         }
 
-        String token = JwtUtil.generateToken(user.getId().toString(), user.getUserRoleName());
-        return new AuthResponse(token, userMapper.toResponse(user));
+        return new AuthResponse(issueToken(user, login.get().getArtistId()), userMapper.toResponse(user));
     }
 
 
-    public List<UserResponse> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream().map(userMapper::toResponse).toList();
+    public CursorPageResponse<UserResponse> getAllUsers(String cursor, Integer limit) {
+        int pageSize = Cursor.limit(limit);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(Cursor.afterId(cursor), Limit.of(pageSize + 1));
+        return CursorPageResponse.of(users, pageSize, userMapper::toResponse, user -> Cursor.encode(user.getId()));
     }
 
 
-    public void toggleUserActiveStatus(Long id) {
-        User currentUser = getAuthenticatedUser();
-
-        if (!currentUser.getUserRoleName().equalsIgnoreCase("Admin")) {
+    public void toggleUserActiveStatus(Long id, AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Solo los administradores pueden cambiar el estado de un usuario.");
         }
 
@@ -136,6 +133,9 @@ public class UserService {
 
         user.setActive(!user.getIsActive());
         userRepository.save(user);
+        if (!user.getIsActive()) {
+            tokenInvalidationRegistry.invalidate(user.getId());
+        }
     }
 
 
@@ -200,16 +200,14 @@ public class UserService {
 //        );
 //    }
 
-    public UserResponse updateUser(Long id, UpdateUserRequest updateRequest) {
+    public UserResponse updateUser(Long id, UpdateUserRequest updateRequest, AuthenticatedUser currentUser) {
         User userToUpdate = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundExeption("Usuario no encontrado con id: " + id));
 
-        User currentUser = getAuthenticatedUser();
-
-        boolean isAdmin = currentUser.getUserRoleName().equalsIgnoreCase("Admin");
+        boolean isAdmin = currentUser.isAdmin();
 
         // Si no es admin y no es su propio perfil => prohibido
-        if (!isAdmin && !userToUpdate.getId().equals(currentUser.getId())) {
+        if (!isAdmin && !userToUpdate.getId().equals(currentUser.id())) {
             throw new AccessDeniedException("No puedes editar a otros usuarios.");
         }
 
@@ -253,6 +251,10 @@ public class UserService {
         if (isAdmin && updateRequest.roleName() != null) {
             Role newRole = roleRepository.findByRoleNameIgnoreCase(updateRequest.roleName())
                     .orElseThrow(() -> new RoleNotFoundException("Rol no encontrado: " + updateRequest.roleName()));
+            if (!newRole.getRoleName().equalsIgnoreCase(userToUpdate.getUserRoleName())) {
+                // El rol va firmado en sus tokens: los emitidos antes del cambio dejan de valer
+                tokenInvalidationRegistry.invalidate(userToUpdate.getId());
+            }
             userToUpdate.setUserRole(newRole);
         }
 
@@ -268,13 +270,22 @@ public class UserService {
         return users.stream().map(userMapper::toResponse).toList();
     }
 
+    // Variante acotada y sin excepción para la búsqueda unificada
+    public List<UserResponse> findUsersByUsername(String username, int limit) {
+        return userRepository.findByUsernameContainingIgnoreCaseOrderByUsernameAsc(username, Limit.of(limit))
+                .stream().map(userMapper::toResponse).toList();
+    }
+
 
     // Metodo Helper
 
-    private User getAuthenticatedUser() {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName(); // que ahora será el ID
-        return userRepository.findById(Long.parseLong(userId))
-                .orElseThrow(() -> new UserNotFoundExeption("Usuario autenticado no encontrado"));
+    // El rol y el perfil de artista se firman en el token para no consultarlos en cada petición
+    private String issueToken(User user) {
+        return issueToken(user, artistRepository.findIdByUserId(user.getId()).orElse(null));
+    }
+
+    private String issueToken(User user, Long artistId) {
+        return jwtUtil.generateToken(user.getId().toString(), user.getUserRoleName(), artistId, user.getTokenVersion());
     }
 
 
@@ -298,8 +309,7 @@ public class UserService {
                     throw new UserNotFoundExeption("El usuario está desactivado.");
                 }
 
-                String token = JwtUtil.generateToken(user.getId().toString(), user.getUserRoleName());
-                return new AuthResponse(token, userMapper.toResponse(user));
+                return new AuthResponse(issueToken(user), userMapper.toResponse(user));
             } else {
                 throw new UserNotFoundExeption("No existe una cuenta asociada a este email de Google. Por favor, regístrate primero.");
             }
@@ -349,8 +359,7 @@ public class UserService {
             shortcuts.setUser(savedUser);
             shortcutsRepository.save(shortcuts);
 
-            String token = JwtUtil.generateToken(savedUser.getId().toString(), savedUser.getUserRoleName());
-            return new AuthResponse(token, userMapper.toResponse(savedUser));
+            return new AuthResponse(issueToken(savedUser), userMapper.toResponse(savedUser));
 
         } catch (UserAlreadyExistsException | RoleNotFoundException | OAuthException e) {
             throw e; // Re-lanzar excepciones específicas
@@ -0,0 +1,68 @@
+package com.dylabs.zuko.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexUnitTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.replaceAll(Map.of(
+                1L, "Canción del Mar",
+                2L, "Mi canción favorita",
+                3L, "Bailando",
+                4L, "Cancion"
+        ));
+    }
+
+    @Test
+    @DisplayName("Buscar sin tildes encuentra títulos con tildes y prioriza la coincidencia exacta")
+    void searchIsAccentInsensitiveAndRanked() {
+        List<Long> result = index.search("cancion", 0, 10);
+
+        assertEquals(List.of(4L, 1L, 2L), result);
+    }
+
+    @Test
+    @DisplayName("Buscar tolera errores de escritura por similitud de trigramas")
+    void searchMatchesBySimilarity() {
+        assertEquals(List.of(3L), index.search("bailandoo", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Consultas de menos de tres caracteres buscan por prefijo de palabra")
+    void shortQueryUsesWordPrefix() {
+        assertEquals(List.of(3L), index.search("ba", 0, 10));
+        assertEquals(List.of(1L, 4L, 2L), index.search("c", 0, 10));
+        assertEquals(List.of(2L, 1L), index.search("m", 0, 10));
+        assertEquals(List.of(), index.search("il", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Actualizar y eliminar documentos se refleja en las búsquedas")
+    void putAndRemoveUpdateResults() {
+        index.put(3L, "Cancionero");
+        index.remove(1L);
+
+        assertEquals(List.of(4L, 3L, 2L), index.search("cancion", 0, 10));
+        assertEquals(List.of(), index.search("bailando", 0, 10));
+        assertEquals(3, index.liveCount());
+    }
+
+    @Test
+    @DisplayName("La paginación aplica offset y límite sobre el orden de relevancia")
+    void searchPaginates() {
+        assertEquals(List.of(1L), index.search("cancion", 1, 1));
+        assertEquals(List.of(2L), index.search("cancion", 2, 5));
+        assertEquals(List.of(), index.search("cancion", 3, 5));
+    }
+}
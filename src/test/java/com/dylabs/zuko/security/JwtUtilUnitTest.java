@@ -0,0 +1,91 @@
+package com.dylabs.zuko.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilUnitTest {
+
+    private static final String OLD_SECRET = secret('a');
+    private static final String NEW_SECRET = secret('b');
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Un token emitido por un nodo lo verifica otro nodo con la misma clave")
+    void nodesSharingTheSecretAcceptEachOthersTokens() {
+        JwtUtil nodeA = new JwtUtil(OLD_SECRET, "2026-10", "");
+        JwtUtil nodeB = new JwtUtil(OLD_SECRET, "2026-10", "");
+
+        String token = nodeA.generateToken("7", "User", null, 0);
+
+        assertEquals("7", nodeB.parseClaims(token).getSubject());
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"kid\":\"2026-10\""));
+    }
+
+    @Test
+    @DisplayName("Sin configuración cada nodo usa su propia clave aleatoria")
+    void randomKeysAreNotShared() {
+        String token = new JwtUtil("", "default", "").generateToken("7", "User", null, 0);
+
+        assertThrows(JwtException.class, () -> new JwtUtil("", "default", "").parseClaims(token));
+    }
+
+    @Test
+    @DisplayName("Al rotar, los tokens de la clave anterior siguen valiendo hasta que se retira")
+    void rotationKeepsOldKeyUntilRemoved() throws IOException {
+        Path keyFile = dir.resolve("jwt-keys.properties");
+        writeKeys(keyFile, "active=old\nold=" + OLD_SECRET + "\n", 1);
+        JwtUtil jwtUtil = new JwtUtil("", "default", keyFile.toString());
+        String oldToken = jwtUtil.generateToken("7", "User", null, 0);
+
+        writeKeys(keyFile, "active=new\nold=" + OLD_SECRET + "\nnew=" + NEW_SECRET + "\n", 2);
+        jwtUtil.reloadKeys();
+        String newToken = jwtUtil.generateToken("8", "User", null, 0);
+
+        assertEquals("7", jwtUtil.parseClaims(oldToken).getSubject());
+        assertEquals("8", new JwtUtil(NEW_SECRET, "new", "").parseClaims(newToken).getSubject());
+
+        long version = jwtUtil.keysVersion();
+        writeKeys(keyFile, "new=" + NEW_SECRET + "\n", 3);
+        jwtUtil.reloadKeys();
+
+        assertNotEquals(version, jwtUtil.keysVersion());
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(oldToken));
+        assertEquals("8", jwtUtil.parseClaims(newToken).getSubject());
+    }
+
+    @Test
+    @DisplayName("Un fichero de claves inválido no sustituye a las claves vigentes")
+    void invalidKeyFileKeepsPreviousKeys() throws IOException {
+        Path keyFile = dir.resolve("jwt-keys.properties");
+        writeKeys(keyFile, "old=" + OLD_SECRET + "\n", 1);
+        JwtUtil jwtUtil = new JwtUtil("", "default", keyFile.toString());
+        String token = jwtUtil.generateToken("7", "User", null, 0);
+
+        writeKeys(keyFile, "active=missing\nold=" + OLD_SECRET + "\n", 2);
+        jwtUtil.reloadKeys();
+
+        assertEquals("7", jwtUtil.parseClaims(token).getSubject());
+    }
+
+    private static void writeKeys(Path keyFile, String content, long modifiedSeconds) throws IOException {
+        Files.writeString(keyFile, content);
+        Files.setLastModifiedTime(keyFile, FileTime.fromMillis(modifiedSeconds * 1000));
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+    }
+}
@@ -0,0 +1,87 @@
+package com.dylabs.zuko.security;
+
+import com.dylabs.zuko.exception.userExeptions.LoginUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingPoolUnitTest {
+
+    private PasswordHashingPool pool;
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Verifica la contraseña en el pool y cuenta el hash")
+    void matchesOnPool() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        pool = new PasswordHashingPool(encoder, 1, 4, 5000);
+        String hash = encoder.encode("secreto");
+
+        assertTrue(pool.matches("secreto", hash));
+        assertFalse(pool.matches("otro", hash));
+        assertEquals(2, pool.hashes());
+    }
+
+    @Test
+    @DisplayName("Un usuario inexistente también pasa por BCrypt y nunca coincide")
+    void unknownUserNeverMatches() {
+        pool = new PasswordHashingPool(new BCryptPasswordEncoder(4), 1, 4, 5000);
+
+        assertFalse(pool.matches("usuario-inexistente", null));
+        assertEquals(1, pool.hashes());
+    }
+
+    @Test
+    @DisplayName("Con el pool y la cola llenos el login se rechaza sin esperar")
+    void rejectsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool = new PasswordHashingPool(blockingEncoder(started, release), 1, 1, 5000);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> pool.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> pool.matches("b", "hash"));
+        while (pool.queueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(LoginUnavailableException.class, () -> pool.matches("c", "hash"));
+        assertEquals(1, pool.rejected());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.dylabs.zuko.security;
+
+import com.dylabs.zuko.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenInvalidationRegistryUnitTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    @DisplayName("Los tokens con una versión anterior a la guardada se rechazan; la versión se consulta una vez por intervalo")
+    void olderTokenVersionsAreRejectedWithCachedLookup() {
+        TokenInvalidationRegistry registry = new TokenInvalidationRegistry(userRepository, 60_000);
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(2L));
+
+        assertTrue(registry.isInvalidated(7L, 1));
+        assertFalse(registry.isInvalidated(7L, 2));
+        assertFalse(registry.isInvalidated(7L, 3));
+        verify(userRepository, times(1)).findTokenVersionById(7L);
+    }
+
+    @Test
+    @DisplayName("Invalidar sube la versión en la base de datos y este nodo la aplica sin esperar")
+    void invalidatePersistsAndAppliesImmediately() {
+        TokenInvalidationRegistry registry = new TokenInvalidationRegistry(userRepository, 60_000);
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+        when(userRepository.incrementTokenVersion(7L)).thenReturn(1L);
+
+        assertFalse(registry.isInvalidated(7L, 0));
+        assertEquals(1L, registry.invalidate(7L));
+
+        assertTrue(registry.isInvalidated(7L, 0));
+        assertFalse(registry.isInvalidated(7L, 1));
+    }
+
+    @Test
+    @DisplayName("Pasado el intervalo se vuelve a leer la versión, así se ven las invalidaciones de otros nodos")
+    void expiredEntriesAreReloaded() {
+        TokenInvalidationRegistry registry = new TokenInvalidationRegistry(userRepository, 0);
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L), Optional.of(1L));
+
+        assertFalse(registry.isInvalidated(7L, 0));
+        assertTrue(registry.isInvalidated(7L, 0));
+    }
+}
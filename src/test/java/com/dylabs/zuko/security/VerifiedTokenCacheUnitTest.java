@@ -0,0 +1,63 @@
+package com.dylabs.zuko.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheUnitTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil("", "default", "");
+
+    @Test
+    @DisplayName("El mismo token se verifica una vez y después se sirve desde la caché")
+    void repeatedTokenIsServedFromCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100);
+        String token = jwtUtil.generateToken("7", "User", 3L, 0);
+
+        VerifiedTokenCache.VerifiedToken first = cache.verify(token);
+        VerifiedTokenCache.VerifiedToken second = cache.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(7L, second.userId());
+        AuthenticatedUser principal = (AuthenticatedUser) second.authentication().getPrincipal();
+        assertEquals(3L, principal.artistId());
+    }
+
+    @Test
+    @DisplayName("La versión de tokens firmada se lee del token; los que no la llevan cuentan como 0")
+    void tokenVersionIsReadFromClaims() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100);
+
+        assertEquals(4L, cache.verify(jwtUtil.generateToken("7", "User", null, 4)).tokenVersion());
+        assertEquals(0L, cache.verify(jwtUtil.generateToken("8", "User", null, 0)).tokenVersion());
+    }
+
+    @Test
+    @DisplayName("Un token con firma inválida lanza la excepción y no se guarda")
+    void invalidTokenIsNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100);
+        String token = jwtUtil.generateToken("7", "User", null, 0);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    @DisplayName("La caché no supera el número máximo de entradas")
+    void cacheIsBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 8);
+
+        for (int i = 0; i < 50; i++) {
+            cache.verify(jwtUtil.generateToken(String.valueOf(i), "User", null, 0));
+        }
+
+        assertTrue(cache.size() <= 8);
+    }
+}
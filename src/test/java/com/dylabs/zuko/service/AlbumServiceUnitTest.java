@@ -1,8 +1,10 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.AlbumRequest;
 import com.dylabs.zuko.dto.request.SongRequest;
 import com.dylabs.zuko.dto.response.AlbumResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.exception.albumExceptions.*;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.genreExeptions.GenreNotFoundException;
@@ -10,20 +12,24 @@ import com.dylabs.zuko.mapper.AlbumMapper;
 import com.dylabs.zuko.model.Album;
 import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.Genre;
-import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.model.Song;
 import com.dylabs.zuko.repository.*;
+import com.dylabs.zuko.repository.projection.AlbumHeaderView;
+import com.dylabs.zuko.repository.projection.AlbumTrackView;
+import com.dylabs.zuko.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -37,21 +43,22 @@ class AlbumServiceUnitTest {
     @Mock
     private AlbumMapper albumMapper;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private ArtistRepository artistRepository;
     @Mock
     private GenreRepository genreRepository;
     @Mock
     private SongRepository songRepository;
+    @Mock
+    private CatalogSearchService catalogSearchService;
 
     @InjectMocks
     private AlbumService albumService;
 
     private Artist artist;
     private Genre genre;
-    private User ownerUser;
-    private User adminUser;
+    private AuthenticatedUser ownerUser;
+    private AuthenticatedUser admin;
+    private AuthenticatedUser withoutProfile;
     private Album album;
     private AlbumRequest validRequest;
     private SongRequest validSongRequest;
@@ -68,15 +75,9 @@ class AlbumServiceUnitTest {
         genre.setId(1L);
         genre.setName("Pop");
 
-        ownerUser = new User();
-        ownerUser.setId(10L);
-        ownerUser.setUsername("usuarioDueno");
-        ownerUser.setUserRoleName("OWNER");
-
-        adminUser = new User();
-        adminUser.setId(99L);
-        adminUser.setUsername("admin");
-        adminUser.setUserRoleName("ADMIN");
+        ownerUser = new AuthenticatedUser(10L, "User", artist.getId());
+        admin = new AuthenticatedUser(99L, "Admin", null);
+        withoutProfile = new AuthenticatedUser(10L, "User", null);
 
         album = new Album();
         album.setId(1L);
@@ -110,12 +111,26 @@ class AlbumServiceUnitTest {
         return song;
     }
 
+    private Song persistedSong(Long id, String title) {
+        Song song = getMockSong(title, artist);
+        song.setId(id);
+        song.setPublicSong(true);
+        return song;
+    }
+
+    // Contrato de resolveSongs: una consulta por títulos, un insertAll con las que faltan y su relectura por id
+    private void stubResolvedSongs(List<Song> existing, Song created) {
+        when(songRepository.findPublicByArtistIdAndNormalizedTitleIn(eq(artist.getId()), anyCollection()))
+                .thenReturn(existing);
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(created.getId()));
+        when(songRepository.findAllById(List.of(created.getId()))).thenReturn(List.of(created));
+    }
+
     @Test
     @DisplayName("CP01 - HU10 Registro exitoso del álbum con todos los datos válidos")
     void createAlbum_withValidData_successfullyCreatesAlbum() {
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(validRequest.title(), artist.getId())).thenReturn(false);
         when(albumMapper.toAlbumEntity(validRequest, artist, genre)).thenReturn(album);
@@ -124,33 +139,59 @@ class AlbumServiceUnitTest {
         AlbumResponse expectedResponse = mock(AlbumResponse.class);
         when(albumMapper.toResponse(album)).thenReturn(expectedResponse);
 
-        AlbumResponse result = albumService.createAlbum(validRequest, ownerUser.getId().toString());
+        AlbumResponse result = albumService.createAlbum(validRequest, ownerUser);
 
         assertEquals(expectedResponse, result);
         verify(albumRepository).save(album);
     }
 
+    @Test
+    @DisplayName("HU10 Registro de álbum resuelve las pistas en una consulta y crea las faltantes en un solo batch")
+    void createAlbum_resolvesSongsInOneQueryAndBatchesMissing() {
+        Song existing = getMockSong("Canción 1", artist);
+        existing.setId(5L);
+        existing.setPublicSong(true);
+        Song created = getMockSong("Canción 2", artist);
+        created.setId(6L);
+        created.setPublicSong(true);
+
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
+        when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
+        when(albumRepository.existsByTitleIgnoreCaseAndArtistId(validRequest.title(), artist.getId())).thenReturn(false);
+        when(songRepository.findPublicByArtistIdAndNormalizedTitleIn(eq(artist.getId()), anyCollection()))
+                .thenReturn(List.of(existing));
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(6L));
+        when(songRepository.findAllById(List.of(6L))).thenReturn(List.of(created));
+        when(albumMapper.toAlbumEntity(validRequest, artist, genre)).thenReturn(album);
+        when(albumRepository.save(album)).thenReturn(album);
+
+        albumService.createAlbum(validRequest, ownerUser);
+
+        verify(songRepository).findPublicByArtistIdAndNormalizedTitleIn(artist.getId(), Set.of("canción 1", "canción 2"));
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1 && songs.get(0).getTitle().equals("Canción 2")));
+        verify(songRepository, never()).save(any(Song.class));
+        assertEquals(List.of(existing, created), album.getSongs());
+    }
+
     @Test
     @DisplayName("CP02 - HU10 Registro fallido de álbum por género inválido")
     void createAlbum_withInvalidGenre_throwsGenreNotFoundException() {
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.empty());
 
         assertThrows(GenreNotFoundException.class,
-                () -> albumService.createAlbum(validRequest, ownerUser.getId().toString()));
+                () -> albumService.createAlbum(validRequest, ownerUser));
     }
 
     @Test
     @DisplayName("CP03 - HU10 Registro fallido por título duplicado")
     void createAlbum_withDuplicateTitle_throwsException() {
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(validRequest.title(), artist.getId())).thenReturn(true);
 
         assertThrows(AlbumAlreadyExistsException.class,
-                () -> albumService.createAlbum(validRequest, ownerUser.getId().toString()));
+                () -> albumService.createAlbum(validRequest, ownerUser));
     }
 
     @Test
@@ -166,13 +207,12 @@ class AlbumServiceUnitTest {
                 null
         );
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(anyString(), anyLong())).thenReturn(false);
 
         AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.createAlbum(requestConSongsNulo, ownerUser.getId().toString()));
+                () -> albumService.createAlbum(requestConSongsNulo, ownerUser));
         assertEquals("El álbum debe contener al menos dos canciones.", ex.getMessage());
     }
 
@@ -184,59 +224,67 @@ class AlbumServiceUnitTest {
                 List.of(new SongRequest("Una sola", true, "", "", artist.getId()))
         );
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(invalidRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(invalidRequest.title(), artist.getId())).thenReturn(false);
 
         assertThrows(AlbumValidationException.class,
-                () -> albumService.createAlbum(invalidRequest, ownerUser.getId().toString()));
+                () -> albumService.createAlbum(invalidRequest, ownerUser));
     }
 
     @Test
-    @DisplayName("CP06 - HU10 Registro fallido por ingresar una canción no existente para el artista")
-    void createAlbum_fails_whenSongDoesNotExistForArtist() {
+    @DisplayName("CP06 - HU10 Registro de álbum con una canción que no existe para el artista la crea en el batch")
+    void createAlbum_createsSongThatDoesNotExistForArtist() {
 
         AlbumRequest request = new AlbumRequest(
                 "Álbum con canción inexistente", 2023, "cover.jpg", artist.getId(), genre.getId(),
                 List.of(new SongRequest("Canción Inexistente", true, "",  "",artist.getId()), validSongRequest)
         );
+        Song existing = persistedSong(5L, validSongRequest.title());
+        Song created = persistedSong(8L, "Canción Inexistente");
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(request.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(request.title(), artist.getId())).thenReturn(false);
+        stubResolvedSongs(List.of(existing), created);
+        when(albumMapper.toAlbumEntity(request, artist, genre)).thenReturn(album);
+        when(albumRepository.save(album)).thenReturn(album);
 
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(eq("Canción Inexistente"), eq(artist.getId()))).thenReturn(false);
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(eq(validSongRequest.title()), eq(artist.getId()))).thenReturn(true);
+        albumService.createAlbum(request, ownerUser);
 
-        AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.createAlbum(request, ownerUser.getId().toString()));
-        assertTrue(ex.getMessage().contains("no existe para este artista"));
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1
+                && songs.get(0).getTitle().equals("Canción Inexistente")
+                && songs.get(0).getArtist() == artist
+                && songs.get(0).isPublicSong()));
+        verify(catalogSearchService).onSongSaved(created);
+        assertEquals(List.of(created, existing), album.getSongs());
     }
 
     @Test
-    @DisplayName("CP07 - HU10 Registro fallido por ingresar una canción no perteneciente al artista")
-    void createAlbum_fails_whenSongNotBelongsToArtist() {
+    @DisplayName("CP07 - HU10 Una canción con el artistId de otro artista se crea bajo el artista del álbum")
+    void createAlbum_createsForeignSongUnderAlbumArtist() {
 
         AlbumRequest request = new AlbumRequest(
                 "Álbum con canción de otro artista", 2023, "cover.jpg", artist.getId(), genre.getId(),
                 List.of(validSongRequest, new SongRequest("Ajena", true, "", "", 999L))
         );
+        Song existing = persistedSong(5L, validSongRequest.title());
+        Song created = persistedSong(9L, "Ajena");
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(request.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistId(request.title(), artist.getId())).thenReturn(false);
+        stubResolvedSongs(List.of(existing), created);
+        when(albumMapper.toAlbumEntity(request, artist, genre)).thenReturn(album);
+        when(albumRepository.save(album)).thenReturn(album);
 
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(anyString(), eq(artist.getId()))).thenReturn(true);
-        when(songRepository.findAll()).thenReturn(List.of(
-                getMockSong(validSongRequest.title(), artist)
-        ));
+        albumService.createAlbum(request, ownerUser);
 
-        AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.createAlbum(request, ownerUser.getId().toString()));
-        assertTrue(ex.getMessage().contains("no pertenece al artista"));
+        // Solo se busca entre las canciones del artista del álbum, nunca en las del artistId de la petición
+        verify(songRepository).findPublicByArtistIdAndNormalizedTitleIn(artist.getId(), Set.of("canción válida", "ajena"));
+        verify(songRepository, never()).findPublicByArtistIdAndNormalizedTitleIn(eq(999L), anyCollection());
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1 && songs.get(0).getArtist() == artist));
+        assertEquals(List.of(existing, created), album.getSongs());
     }
 
 
@@ -266,12 +314,11 @@ class AlbumServiceUnitTest {
     void getAlbumsByTitleAndUser_whenAlbumsExist_returnsFilteredAlbums() {
         // Arrange
         String title = "Album";
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(albumRepository.findAllByTitleContainingIgnoreCaseAndArtistId(title, artist.getId())).thenReturn(List.of(album));
         when(albumMapper.toResponse(album)).thenReturn(mock(AlbumResponse.class));
 
-        List<AlbumResponse> result = albumService.getAlbumsByTitleAndUser(title, ownerUser.getId().toString());
+        List<AlbumResponse> result = albumService.getAlbumsByTitleAndUser(title, ownerUser);
 
         assertEquals(1, result.size());
         verify(albumRepository).findAllByTitleContainingIgnoreCaseAndArtistId(title, artist.getId());
@@ -282,12 +329,11 @@ class AlbumServiceUnitTest {
     void getAlbumsByTitleAndUser_whenNoAlbumsExist_throwsAlbumNotFoundException() {
 
         String title = "Titulo";
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(albumRepository.findAllByTitleContainingIgnoreCaseAndArtistId(title, artist.getId())).thenReturn(Collections.emptyList());
 
         AlbumNotFoundException ex = assertThrows(AlbumNotFoundException.class,
-                () -> albumService.getAlbumsByTitleAndUser(title, ownerUser.getId().toString()));
+                () -> albumService.getAlbumsByTitleAndUser(title, ownerUser));
         assertEquals("No se encontraron álbumes con el título especificado para este artista.", ex.getMessage());
     }
 
@@ -295,11 +341,8 @@ class AlbumServiceUnitTest {
     @DisplayName("CP05 - HU11: Obtencion fallida del album por usuario no autorizado")
     void getAlbumsByTitleAndUser_whenUserHasNoArtistProfile_throwsArtistNotFoundException() {
 
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.empty());
-
         ArtistNotFoundException ex = assertThrows(ArtistNotFoundException.class,
-                () -> albumService.getAlbumsByTitleAndUser("Album", ownerUser.getId().toString()));
+                () -> albumService.getAlbumsByTitleAndUser("Album", withoutProfile));
         assertEquals("No tienes un perfil de artista.", ex.getMessage());
     }
 
@@ -308,13 +351,18 @@ class AlbumServiceUnitTest {
     void getAlbumsByTitle_whenAlbumsExist_returnsFilteredAlbums() {
 
         String title = "Álbum";
-        when(albumRepository.findAllByTitleContainingIgnoreCase(title)).thenReturn(List.of(album));
-        when(albumMapper.toResponse(album)).thenReturn(mock(AlbumResponse.class));
+        AlbumHeaderView header = new AlbumHeaderView(1L, "Álbum Existente", 2023, null, 1L, "Artista Test", "Pop", 1L);
+        AlbumTrackView track = new AlbumTrackView(1L, 7L, "Canción 1", null, "");
+        when(catalogSearchService.searchAlbumIds(title, 0, null)).thenReturn(List.of(1L));
+        when(albumRepository.findHeadersByIds(List.of(1L))).thenReturn(List.of(header));
+        when(albumRepository.findPublicTracksByAlbumIds(List.of(1L))).thenReturn(List.of(track));
+        when(albumMapper.toResponses(List.of(header), List.of(track))).thenReturn(List.of(mock(AlbumResponse.class)));
 
-        List<AlbumResponse> result = albumService.getAlbumsByTitle(title);
+        List<AlbumResponse> result = albumService.getAlbumsByTitle(title, 0, null);
 
         assertEquals(1, result.size());
-        verify(albumRepository).findAllByTitleContainingIgnoreCase(title);
+        verify(albumRepository).findHeadersByIds(List.of(1L));
+        verify(albumRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -322,10 +370,10 @@ class AlbumServiceUnitTest {
     void getAlbumsByTitle_whenNoAlbumsExist_throwsAlbumNotFoundException() {
 
         String title = "Título no existente";
-        when(albumRepository.findAllByTitleContainingIgnoreCase(title)).thenReturn(Collections.emptyList());
+        when(catalogSearchService.searchAlbumIds(title, 0, null)).thenReturn(Collections.emptyList());
 
         AlbumNotFoundException ex = assertThrows(AlbumNotFoundException.class,
-                () -> albumService.getAlbumsByTitle(title));
+                () -> albumService.getAlbumsByTitle(title, 0, null));
         assertEquals("No se encontraron álbumes con el título especificado.", ex.getMessage());
     }
 
@@ -334,23 +382,24 @@ class AlbumServiceUnitTest {
     void getAllAlbums_whenAlbumsExist_returnsAlbumList() {
 
         List<Album> albums = List.of(album); // Mocks de álbumes
-        when(albumRepository.findAll()).thenReturn(albums);
+        when(albumRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(albums);
         when(albumMapper.toResponse(album)).thenReturn(mock(AlbumResponse.class));
 
-        List<AlbumResponse> result = albumService.getAllAlbums();
+        CursorPageResponse<AlbumResponse> result = albumService.getAllAlbums(null, null);
 
-        assertEquals(1, result.size());
-        verify(albumRepository).findAll();
+        assertEquals(1, result.items().size());
+        assertNull(result.next());
+        verify(albumRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(Cursor.DEFAULT_LIMIT + 1));
     }
 
     @Test
     @DisplayName("CP09 - HU11: Obtencion fallida de lista por albumes inexistentes")
     void getAllAlbums_whenNoAlbumsExist_throwsAlbumNotFoundException() {
 
-        when(albumRepository.findAll()).thenReturn(Collections.emptyList());
+        when(albumRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(Collections.emptyList());
 
         AlbumNotFoundException ex = assertThrows(AlbumNotFoundException.class,
-                () -> albumService.getAllAlbums());
+                () -> albumService.getAllAlbums(null, null));
         assertEquals("No se encontraron álbumes.", ex.getMessage());
     }
 
@@ -362,28 +411,26 @@ class AlbumServiceUnitTest {
     void updateAlbum_asAdmin_success() {
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(artistRepository.findById(validRequest.artistId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(validRequest.title(), artist.getId(), album.getId())).thenReturn(false);
 
         when(albumMapper.toResponse(album)).thenReturn(mock(AlbumResponse.class));
 
-        assertDoesNotThrow(() -> albumService.updateAlbum(album.getId(), validRequest, adminUser.getId().toString()));
+        assertDoesNotThrow(() -> albumService.updateAlbum(album.getId(), validRequest, admin));
     }
 
     @Test
     @DisplayName("CP02 - HU12: Edición rechazada por título ya registrado")
     void updateAlbum_withDuplicateTitle_throwsException() {
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(validRequest.title(), artist.getId(), album.getId()))
                 .thenReturn(true);
 
         assertThrows(AlbumAlreadyExistsException.class,
-                () -> albumService.updateAlbum(album.getId(), validRequest, ownerUser.getId().toString()));
+                () -> albumService.updateAlbum(album.getId(), validRequest, ownerUser));
     }
 
     @Test
@@ -400,13 +447,12 @@ class AlbumServiceUnitTest {
         );
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(anyString(), anyLong(), anyLong())).thenReturn(false);
 
         AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.updateAlbum(album.getId(), requestConSongsNulo, ownerUser.getId().toString()));
+                () -> albumService.updateAlbum(album.getId(), requestConSongsNulo, ownerUser));
         assertEquals("El álbum debe contener al menos dos canciones.", ex.getMessage());
     }
 
@@ -424,13 +470,12 @@ class AlbumServiceUnitTest {
         );
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(validRequest.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(anyString(), anyLong(), anyLong())).thenReturn(false);
 
         AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.updateAlbum(album.getId(), requestConUnaCancion, ownerUser.getId().toString()));
+                () -> albumService.updateAlbum(album.getId(), requestConUnaCancion, ownerUser));
         assertEquals("El álbum debe contener al menos dos canciones.", ex.getMessage());
     }
 
@@ -444,62 +489,63 @@ class AlbumServiceUnitTest {
         album.setArtist(otroArtista);
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(genre.getId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(anyString(), anyLong(), anyLong())).thenReturn(false);
 
         Exception ex = assertThrows(AccessDeniedException.class,
-                () -> albumService.updateAlbum(album.getId(), validRequest, ownerUser.getId().toString()));
+                () -> albumService.updateAlbum(album.getId(), validRequest, ownerUser));
         assertEquals("No puedes modificar este álbum.", ex.getMessage());
     }
 
     @Test
-    @DisplayName("CP06 - HU12: Edición fallida por ingresar una canción no existente para el artista")
-    void updateAlbum_fails_whenSongDoesNotExistForArtist() {
+    @DisplayName("CP06 - HU12: Edición con una canción que no existe para el artista la crea en el batch")
+    void updateAlbum_createsSongThatDoesNotExistForArtist() {
 
         AlbumRequest request = new AlbumRequest(
                 "Álbum Editado", 2023, "cover.jpg", artist.getId(), genre.getId(),
                 List.of(new SongRequest("Desconocida", true, "", "",artist.getId()), validSongRequest)
         );
+        Song existing = persistedSong(5L, validSongRequest.title());
+        Song created = persistedSong(8L, "Desconocida");
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(request.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(request.title(), artist.getId(), album.getId())).thenReturn(false);
+        stubResolvedSongs(List.of(existing), created);
+        when(albumRepository.save(album)).thenReturn(album);
 
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(eq("Desconocida"), eq(artist.getId()))).thenReturn(false);
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(eq(validSongRequest.title()), eq(artist.getId()))).thenReturn(true);
+        albumService.updateAlbum(album.getId(), request, ownerUser);
 
-        AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.updateAlbum(album.getId(), request, ownerUser.getId().toString()));
-        assertTrue(ex.getMessage().contains("no existe para este artista"));
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1
+                && songs.get(0).getTitle().equals("Desconocida")
+                && songs.get(0).getArtist() == artist));
+        verify(songRepository, never()).save(any(Song.class));
+        assertEquals(List.of(created, existing), album.getSongs());
     }
 
     @Test
-    @DisplayName("CP07 - HU12: Edición fallida por ingresar una canción no perteneciente al artista")
-    void updateAlbum_fails_whenSongNotBelongsToArtist() {
+    @DisplayName("CP07 - HU12: Edición con el artistId de otro artista crea la canción bajo el artista del álbum")
+    void updateAlbum_createsForeignSongUnderAlbumArtist() {
 
         AlbumRequest request = new AlbumRequest(
                 "Álbum Editado", 2023, "cover.jpg", artist.getId(), genre.getId(),
                 List.of(validSongRequest, new SongRequest("Ajena", true, "", "", 999L))
         );
+        Song existing = persistedSong(5L, validSongRequest.title());
+        Song created = persistedSong(9L, "Ajena");
 
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
         when(genreRepository.findById(request.genreId())).thenReturn(Optional.of(genre));
         when(albumRepository.existsByTitleIgnoreCaseAndArtistIdAndIdNot(request.title(), artist.getId(), album.getId())).thenReturn(false);
+        stubResolvedSongs(List.of(existing), created);
+        when(albumRepository.save(album)).thenReturn(album);
 
-        when(songRepository.existsByTitleIgnoreCaseAndArtistId(anyString(), eq(artist.getId()))).thenReturn(true);
-        when(songRepository.findAll()).thenReturn(List.of(
-                getMockSong(validSongRequest.title(), artist)
-        ));
+        albumService.updateAlbum(album.getId(), request, ownerUser);
 
-        AlbumValidationException ex = assertThrows(AlbumValidationException.class,
-                () -> albumService.updateAlbum(album.getId(), request, ownerUser.getId().toString()));
-        assertTrue(ex.getMessage().contains("no pertenece al artista"));
+        verify(songRepository, never()).findPublicByArtistIdAndNormalizedTitleIn(eq(999L), anyCollection());
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1 && songs.get(0).getArtist() == artist));
+        assertEquals(List.of(existing, created), album.getSongs());
     }
 
 
@@ -509,10 +555,9 @@ class AlbumServiceUnitTest {
     @DisplayName("CP01 - HU27: Eliminación exitosa de un álbum propio")
     void deleteAlbum_asOwner_success() {
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
 
-        assertDoesNotThrow(() -> albumService.deleteAlbum(album.getId(), ownerUser.getId().toString()));
+        assertDoesNotThrow(() -> albumService.deleteAlbum(album.getId(), ownerUser));
         verify(albumRepository).delete(album);
     }
 
@@ -521,9 +566,8 @@ class AlbumServiceUnitTest {
     @DisplayName("CP02 - HU27: Eliminacion exitosa de un álbum como ADMIN")
     void deleteAlbum_asAdmin_success() {
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
 
-        assertDoesNotThrow(() -> albumService.deleteAlbum(album.getId(), adminUser.getId().toString()));
+        assertDoesNotThrow(() -> albumService.deleteAlbum(album.getId(), admin));
         verify(albumRepository).delete(album);
     }
 
@@ -532,13 +576,11 @@ class AlbumServiceUnitTest {
     @DisplayName("CP03 - HU27: Eliminación fallida por falta de autorización")
     void deleteAlbum_withoutPermission_throwsException() {
         when(albumRepository.findById(album.getId())).thenReturn(Optional.of(album));
-        when(userRepository.findById(ownerUser.getId())).thenReturn(Optional.of(ownerUser));
         Artist otroArtista = new Artist();
         otroArtista.setId(99L);
-        when(artistRepository.findByUserId(ownerUser.getId())).thenReturn(Optional.of(otroArtista));
 
         assertThrows(AlbumPermissionException.class,
-                () -> albumService.deleteAlbum(album.getId(), ownerUser.getId().toString()));
+                () -> albumService.deleteAlbum(album.getId(), new AuthenticatedUser(10L, "User", otroArtista.getId())));
     }
 
 
@@ -3,6 +3,7 @@ package com.dylabs.zuko.service;
 import com.dylabs.zuko.dto.request.CreateArtistRequest;
 import com.dylabs.zuko.dto.request.UpdateArtistRequest;
 import com.dylabs.zuko.dto.response.ArtistResponse;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistAlreadyExistsException;
 import com.dylabs.zuko.exception.artistExeptions.ArtistValidationException;
@@ -11,6 +12,9 @@ import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.security.AuthenticatedUser;
+import com.dylabs.zuko.security.JwtUtil;
+import com.dylabs.zuko.security.TokenInvalidationRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +33,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,10 +48,20 @@ class ArtistServiceUnitTest {
     @Mock
     private ArtistMapper artistMapper;
 
+    @Mock
+    private CatalogSearchService catalogSearchService;
+
+    @Mock
+    private TokenInvalidationRegistry tokenInvalidationRegistry;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
     @InjectMocks
     private ArtistService artistService;
 
     private User testUser;
+    private AuthenticatedUser owner;
     private Artist testArtist;
     private CreateArtistRequest createRequest;
     private UpdateArtistRequest updateRequest;
@@ -64,6 +80,8 @@ class ArtistServiceUnitTest {
         testArtist.setUser(testUser);
         testArtist.setIsActive(true);
 
+        owner = new AuthenticatedUser(1L, "User", testArtist.getId());
+
         createRequest = new CreateArtistRequest(
                 "Test Artist",
                 "Test Country",
@@ -103,11 +121,18 @@ class ArtistServiceUnitTest {
                 ));
 
 
+        when(tokenInvalidationRegistry.invalidate(testUser.getId())).thenReturn(3L);
+        when(jwtUtil.generateToken(testUser.getId().toString(), testUser.getUserRoleName(), testArtist.getId(), 3L))
+                .thenReturn("nuevo-token");
+
         ArtistResponse response = artistService.createArtist(createRequest, "testUser");
 
 
         assertNotNull(response);
         verify(artistRepository, times(1)).save(any());
+        verify(tokenInvalidationRegistry).invalidate(testUser.getId());
+        // Los tokens anteriores ya no valen: la respuesta trae uno con el id de artista y la versión nueva
+        assertEquals("nuevo-token", response.token());
     }
 
     @Test
@@ -301,7 +326,7 @@ class ArtistServiceUnitTest {
         );
 
         assertThrows(ArtistValidationException.class, () ->
-                artistService.updateArtist(1L, req, "1")
+                artistService.updateArtist(1L, req, owner)
         );
     }
 
@@ -356,7 +381,7 @@ class ArtistServiceUnitTest {
                 "Nuevo Nombre", "Test Country", "Test Biography"
         );
 
-        ArtistResponse response = artistService.updateArtist(1L, req, "1");
+        ArtistResponse response = artistService.updateArtist(1L, req, owner);
 
         assertNotNull(response);
         assertEquals("Nuevo Nombre", response.name());
@@ -369,19 +394,16 @@ class ArtistServiceUnitTest {
         testArtist.setUser(new User());
         testArtist.getUser().setId(99L);
         testArtist.getUser().setUserRoleName("USER");
-        when(artistRepository.findById(1L)).thenReturn(Optional.of(testArtist));
-        User otroUsuario = new User();
-        otroUsuario.setId(2L);
-        otroUsuario.setUserRoleName("USER");
-        when(userRepository.findById(2L)).thenReturn(Optional.of(otroUsuario));
+        AuthenticatedUser otroUsuario = new AuthenticatedUser(2L, "User", null);
 
         UpdateArtistRequest req = new UpdateArtistRequest(
                 "Nuevo Nombre", "Test Country", "Test Biography"
         );
 
         assertThrows(org.springframework.security.access.AccessDeniedException.class, () ->
-                artistService.updateArtist(1L, req, "2")
+                artistService.updateArtist(1L, req, otroUsuario)
         );
+        verifyNoInteractions(artistRepository);
     }
 
     @Test
@@ -392,10 +414,7 @@ class ArtistServiceUnitTest {
         testArtist.getUser().setId(99L);
         testArtist.getUser().setUserRoleName("USER");
         when(artistRepository.findById(1L)).thenReturn(Optional.of(testArtist));
-        User adminUser = new User();
-        adminUser.setId(1L);
-        adminUser.setUserRoleName("ADMIN");
-        when(userRepository.findById(1L)).thenReturn(Optional.of(adminUser));
+        AuthenticatedUser adminUser = new AuthenticatedUser(1L, "Admin", null);
         when(artistRepository.save(any())).thenReturn(testArtist);
         when(artistMapper.toResponse(any())).thenReturn(new ArtistResponse(
                 1L, "Nombre Editado Por Admin", "País", "Bio", 99L, true
@@ -405,7 +424,7 @@ class ArtistServiceUnitTest {
                 "Nombre Editado Por Admin", "País", "Bio"
         );
 
-        ArtistResponse response = artistService.updateArtist(1L, req, "1");
+        ArtistResponse response = artistService.updateArtist(1L, req, adminUser);
 
         assertNotNull(response);
         assertEquals("Nombre Editado Por Admin", response.name());
@@ -416,29 +435,30 @@ class ArtistServiceUnitTest {
     @DisplayName("CP01-HU09- Listar todos los artistas")
     void testGetAllArtists() {
 
-        when(artistRepository.findAll())
+        when(artistRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
                 .thenReturn(List.of(testArtist));
-        when(artistMapper.toResponseList(any()))
-                .thenReturn(List.of(new ArtistResponse(
+        when(artistMapper.toResponse(testArtist))
+                .thenReturn(new ArtistResponse(
                         1L,
                         "Test Artist",
                         "Test Country",
                         "Test Biography",
                         1L,
                         true
-                )));
+                ));
 
 
-        List<ArtistResponse> response = artistService.getAllArtists();
+        CursorPageResponse<ArtistResponse> response = artistService.getAllArtists(null, null);
 
 
         assertNotNull(response);
-        assertFalse(response.isEmpty());
-        assertEquals(1, response.size());
-        assertEquals("Test Artist", response.getFirst().name());
-        assertEquals("Test Country", response.getFirst().country());
-        verify(artistRepository, times(1)).findAll();
-        verify(artistMapper, times(1)).toResponseList(any());
+        assertFalse(response.items().isEmpty());
+        assertEquals(1, response.items().size());
+        assertEquals("Test Artist", response.items().getFirst().name());
+        assertEquals("Test Country", response.items().getFirst().country());
+        assertNull(response.next());
+        verify(artistRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+        verify(artistMapper, times(1)).toResponse(testArtist);
     }
 
     @Test
@@ -465,21 +485,37 @@ class ArtistServiceUnitTest {
         verify(artistMapper, times(1)).toResponse(any());
     }
 
+    @Test
+    @DisplayName("CP02-HU09 - Buscar artistas respeta el orden de relevancia")
+    void testSearchArtistsKeepsRelevanceOrder() {
+        Artist other = new Artist();
+        other.setId(2L);
+        other.setName("Test Artist Two");
+        other.setUser(testUser);
+
+        when(catalogSearchService.searchArtistIds("test", 0, null)).thenReturn(List.of(2L, 1L));
+        when(artistRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testArtist, other));
+        when(artistMapper.toResponseList(List.of(other, testArtist))).thenReturn(List.of());
+
+        artistService.searchArtistsByName("test", 0, null);
+
+        verify(artistMapper).toResponseList(List.of(other, testArtist));
+    }
+
     @Test
     @DisplayName("CP03-HU09 - Buscar artista no existente")
     void testSearchArtistsWhenNotFound() {
 
-        when(artistRepository.findByNameContainingIgnoreCase(anyString()))
-                .thenReturn(List.of());
-        when(artistMapper.toResponseList(anyList()))
+        when(catalogSearchService.searchArtistIds(anyString(), any(), any()))
                 .thenReturn(List.of());
 
 
-        List<ArtistResponse> response = artistService.searchArtistsByName("nonexistent");
+        List<ArtistResponse> response = artistService.searchArtistsByName("nonexistent", 0, null);
 
 
         assertNotNull(response);
         assertTrue(response.isEmpty());
+        verify(artistRepository, never()).findAllById(anyIterable());
     }
 
     // Cambiar estado del artista
@@ -489,15 +525,10 @@ class ArtistServiceUnitTest {
     void testToggleArtistStatusNotOwnerOrAdminThrowsException() {
         when(artistRepository.findById(1L)).thenReturn(Optional.of(testArtist));
 
-        User otroUsuario = new User();
-        otroUsuario.setId(2L);
-        otroUsuario.setUsername("otroUsuario");
-        otroUsuario.setUserRoleName("USER");
-        when(userRepository.findById(2L)).thenReturn(Optional.of(otroUsuario));
-
+        AuthenticatedUser otroUsuario = new AuthenticatedUser(2L, "User", null);
 
         assertThrows(org.springframework.security.access.AccessDeniedException.class, () ->
-                artistService.toggleArtistActiveStatus(1L, "2")
+                artistService.toggleArtistActiveStatus(1L, otroUsuario)
         );
     }
 
@@ -511,7 +542,7 @@ class ArtistServiceUnitTest {
                 .thenReturn(testArtist);
 
 
-        artistService.toggleArtistActiveStatus(1L, "1");
+        artistService.toggleArtistActiveStatus(1L, owner);
 
         verify(artistRepository).findById(1L);
         verify(artistRepository).save(any());
@@ -528,7 +559,7 @@ class ArtistServiceUnitTest {
 
 
         Exception exception = assertThrows(ArtistNotFoundException.class, () ->
-                artistService.toggleArtistActiveStatus(1L, "testUser"));
+                artistService.toggleArtistActiveStatus(1L, owner));
         assertEquals("Artista no encontrado con ID: 1", exception.getMessage());
         verify(artistRepository).findById(1L);
         verifyNoMoreInteractions(artistRepository);
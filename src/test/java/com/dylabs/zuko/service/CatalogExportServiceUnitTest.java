@@ -0,0 +1,63 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.response.SongResponse;
+import com.dylabs.zuko.mapper.AlbumMapper;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.AlbumExportRowView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogExportServiceUnitTest {
+
+    @Mock private SongRepository songRepository;
+    @Mock private AlbumRepository albumRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CatalogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new CatalogExportService(songRepository, albumRepository, new AlbumMapper(),
+                transactionManager, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("Exportación NDJSON: una línea por canción y una por álbum con sus pistas agrupadas")
+    void exportWritesOneLinePerSongAndAlbum() {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        when(songRepository.streamPublicResponses()).thenReturn(Stream.of(
+                new SongResponse(1L, "Uno", true, date, null, 1L, "Artista", "", ""),
+                new SongResponse(2L, "Dos", true, date, null, 1L, "Artista", "", "")));
+        when(albumRepository.streamExportRows()).thenReturn(Stream.of(
+                new AlbumExportRowView(10L, "Primero", 2024, null, 1L, "Artista", "Pop", 1L, 1L, "Uno", date, ""),
+                new AlbumExportRowView(10L, "Primero", 2024, null, 1L, "Artista", "Pop", 1L, 2L, "Dos", date, ""),
+                new AlbumExportRowView(11L, "Vacío", 2024, null, 1L, "Artista", "Pop", 1L, null, null, null, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportCatalog(out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"type\":\"export\""));
+        assertTrue(lines.get(1).contains("\"type\":\"song\"") && lines.get(1).contains("\"title\":\"Uno\""));
+        assertTrue(lines.get(3).contains("\"title\":\"Primero\"") && lines.get(3).contains("\"title\":\"Dos\""));
+        assertTrue(lines.get(4).contains("\"title\":\"Vacío\"") && lines.get(4).contains("\"songs\":[]"));
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,185 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.response.ImportSummaryResponse;
+import com.dylabs.zuko.model.Album;
+import com.dylabs.zuko.model.Artist;
+import com.dylabs.zuko.model.Genre;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.ArtistRepository;
+import com.dylabs.zuko.repository.GenreRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.SongKeyView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogImportServiceUnitTest {
+
+    @Mock private SongRepository songRepository;
+    @Mock private AlbumRepository albumRepository;
+    @Mock private ArtistRepository artistRepository;
+    @Mock private GenreRepository genreRepository;
+    @Mock private CatalogSearchService catalogSearchService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private EntityManager entityManager;
+
+    private CatalogImportService importService;
+    private Artist artist;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importService = new CatalogImportService(songRepository, albumRepository, artistRepository, genreRepository,
+                catalogSearchService, transactionTemplate, entityManager, new ObjectMapper().findAndRegisterModules());
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        artist = new Artist();
+        artist.setId(1L);
+        artist.setName("Los Andes");
+        when(artistRepository.findByNormalizedNameIn(anySet())).thenReturn(List.of(artist));
+    }
+
+    @Test
+    @DisplayName("Importación NDJSON: resuelve artistas una vez por lote, deduplica y reporta errores por fila")
+    void importNdjsonDeduplicatesAndReportsErrors() throws Exception {
+        String input = """
+                {"artist":"Los Andes","title":"Cóndor"}
+                {"artist":"Los Andes","title":"Huayno del Sol"}
+                {"artist":"Los Andes","title":"CÓNDOR "}
+                {"artist":"Desconocido","title":"Perdida"}
+                {no es json
+                """;
+        when(songRepository.findKeysByArtistIdsAndNormalizedTitles(Set.of(1L), Set.of("cóndor", "huayno del sol")))
+                .thenReturn(List.of(new SongKeyView(9L, 1L, "Huayno del Sol", true)));
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(10L));
+
+        StringWriter out = new StringWriter();
+        ImportSummaryResponse summary = importService.importCatalog(new BufferedReader(new StringReader(input)), false, out);
+
+        assertEquals(new ImportSummaryResponse(5, 1, 2, 2, 0), summary, out.toString());
+        verify(artistRepository, times(1)).findByNormalizedNameIn(anySet());
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 1 && songs.get(0).getTitle().equals("Cóndor")));
+        verify(catalogSearchService).onSongSaved(any());
+        String output = out.toString();
+        assertTrue(output.contains("\"line\":5,\"status\":\"error\""));
+        assertTrue(output.contains("\"line\":2,\"status\":\"duplicate\",\"songId\":9"));
+        assertTrue(output.contains("Artista no encontrado."));
+        assertTrue(output.trim().endsWith("}}"));
+    }
+
+    @Test
+    @DisplayName("Importación CSV: agrupa las pistas por álbum y las asocia en un solo batch")
+    void importCsvCreatesAlbumAndLinksSongs() throws Exception {
+        String input = """
+                artist,title,album,releaseYear,genre
+                Los Andes,Intro,"Altura, Vol. 1",2024,Folk
+                Los Andes,Cierre,"Altura, Vol. 1",2024,Folk
+                """;
+        Genre genre = new Genre();
+        genre.setId(3L);
+        genre.setName("Folk");
+        when(genreRepository.findByNormalizedNameIn(Set.of("folk"))).thenReturn(List.of(genre));
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(20L, 21L));
+        when(albumRepository.save(any(Album.class))).thenAnswer(invocation -> {
+            Album album = invocation.getArgument(0);
+            album.setId(7L);
+            return album;
+        });
+
+        ImportSummaryResponse summary = importService.importCatalog(new BufferedReader(new StringReader(input)), true, new StringWriter());
+
+        assertEquals(new ImportSummaryResponse(2, 2, 0, 0, 1), summary);
+        verify(albumRepository).save(argThat(album -> album.getTitle().equals("Altura, Vol. 1") && album.getGenre() == genre));
+        verify(albumRepository).addSongs(Map.of(7L, Set.of(20L, 21L)));
+    }
+
+    @Test
+    @DisplayName("Un fallo que no es de acceso a datos marca el lote como error y la importación termina con su resumen")
+    void nonDataAccessFailureFailsOnlyTheBatch() throws Exception {
+        String input = """
+                {"artist":"Los Andes","title":"Intro","album":"Altura","releaseYear":2024,"genre":"Folk"}
+                {"artist":"Los Andes","title":"Cierre","album":"Altura","releaseYear":2024,"genre":"Folk"}
+                """;
+        Genre genre = new Genre();
+        genre.setId(3L);
+        genre.setName("Folk");
+        when(genreRepository.findByNormalizedNameIn(Set.of("folk"))).thenReturn(List.of(genre));
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(20L, 21L));
+        when(albumRepository.save(any(Album.class))).thenThrow(new ConstraintViolationException("cover inválida", Set.of()));
+
+        StringWriter out = new StringWriter();
+        ImportSummaryResponse summary = importService.importCatalog(new BufferedReader(new StringReader(input)), false, out);
+
+        assertEquals(new ImportSummaryResponse(2, 0, 0, 2, 0), summary);
+        verifyNoInteractions(catalogSearchService);
+        String output = out.toString();
+        assertTrue(output.contains("\"line\":1,\"status\":\"error\""));
+        assertTrue(output.contains("\"line\":2,\"status\":\"error\""));
+        assertTrue(output.trim().endsWith("}}"));
+    }
+
+    @Test
+    @DisplayName("Las filas que incumplen longitudes o reglas de álbum se rechazan solas y el resto del lote se guarda")
+    void invalidRowsAreRejectedWithoutFailingTheBatch() throws Exception {
+        String longUrl = "https://youtu.be/" + "x".repeat(CatalogImportService.MAX_TEXT_LENGTH);
+        String input = """
+                {"artist":"Los Andes","title":"Intro","album":"Altura","releaseYear":2024,"genre":"Folk"}
+                {"artist":"Los Andes","title":"Cierre","album":"Altura","releaseYear":2024,"genre":"Folk"}
+                {"artist":"Los Andes","title":"Larga","youtubeUrl":"%s"}
+                {"artist":"Los Andes","title":"Privada","isPublic":false,"album":"Altura","releaseYear":2024,"genre":"Folk"}
+                {"artist":"Los Andes","title":"Sola","album":"Single","releaseYear":2024,"genre":"Folk"}
+                {"artist":"Los Andes","title":"Oculta","album":"Altura","releaseYear":2024,"genre":"Folk"}
+                """.formatted(longUrl);
+        Genre genre = new Genre();
+        genre.setId(3L);
+        genre.setName("Folk");
+        when(genreRepository.findByNormalizedNameIn(Set.of("folk"))).thenReturn(List.of(genre));
+        when(songRepository.findKeysByArtistIdsAndNormalizedTitles(anySet(), anySet()))
+                .thenReturn(List.of(new SongKeyView(9L, 1L, "Oculta", false)));
+        when(songRepository.insertAll(anyList())).thenReturn(List.of(20L, 21L));
+        when(albumRepository.save(any(Album.class))).thenAnswer(invocation -> {
+            Album album = invocation.getArgument(0);
+            album.setId(7L);
+            return album;
+        });
+
+        StringWriter out = new StringWriter();
+        ImportSummaryResponse summary = importService.importCatalog(new BufferedReader(new StringReader(input)), false, out);
+
+        assertEquals(new ImportSummaryResponse(6, 2, 0, 4, 1), summary, out.toString());
+        verify(songRepository).insertAll(argThat(songs -> songs.size() == 2));
+        verify(albumRepository).save(argThat(album -> album.getTitle().equals("Altura")));
+        verify(albumRepository).addSongs(Map.of(7L, Set.of(20L, 21L)));
+        String output = out.toString();
+        assertTrue(output.contains("\"line\":3,\"status\":\"error\",\"songId\":null,\"message\":\"El campo youtubeUrl no puede superar 255 caracteres.\""), output);
+        assertTrue(output.contains("\"line\":4,\"status\":\"error\",\"songId\":null,\"message\":\"Solo las canciones públicas"), output);
+        assertTrue(output.contains("\"line\":5,\"status\":\"error\",\"songId\":null,\"message\":\"El álbum debe contener al menos dos canciones"), output);
+        assertTrue(output.contains("\"line\":6,\"status\":\"error\",\"songId\":9,\"message\":\"Solo las canciones públicas"), output);
+        assertFalse(output.contains("No se pudo guardar el lote"));
+    }
+
+    @Test
+    @DisplayName("El parser CSV respeta comillas y comillas escapadas")
+    void parseCsvLineHandlesQuotes() {
+        assertEquals(List.of("a", "b, c", "d \"e\"", ""), CatalogImportService.parseCsvLine("a,\"b, c\",\"d \"\"e\"\"\","));
+    }
+}
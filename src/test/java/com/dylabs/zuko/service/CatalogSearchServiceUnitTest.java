@@ -0,0 +1,104 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.config.DatabaseSchemaInitializer;
+import com.dylabs.zuko.model.Song;
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.ArtistRepository;
+import com.dylabs.zuko.repository.PlaylistRepository;
+import com.dylabs.zuko.repository.SongRepository;
+import com.dylabs.zuko.repository.projection.SearchEntryView;
+import com.dylabs.zuko.search.CatalogSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSearchServiceUnitTest {
+
+    private final SongRepository songRepository = mock(SongRepository.class);
+    private final AlbumRepository albumRepository = mock(AlbumRepository.class);
+    private final ArtistRepository artistRepository = mock(ArtistRepository.class);
+    private final PlaylistRepository playlistRepository = mock(PlaylistRepository.class);
+    private final DatabaseSchemaInitializer databaseSchemaInitializer = mock(DatabaseSchemaInitializer.class);
+
+    private CatalogSearchIndex index;
+    private CatalogSearchService catalogSearchService;
+
+    @BeforeEach
+    void setUp() {
+        when(databaseSchemaInitializer.isSearchSchemaReady()).thenReturn(true);
+        index = new CatalogSearchIndex(songRepository, albumRepository, artistRepository, playlistRepository, databaseSchemaInitializer);
+        ReflectionTestUtils.setField(index, "engine", "memory");
+        index.rebuild();
+        catalogSearchService = new CatalogSearchService(songRepository, albumRepository, artistRepository, playlistRepository, index);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Dentro de una transacción el índice solo cambia tras el commit")
+    void hookAppliesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        catalogSearchService.onSongSaved(song(1L, "Bailando"));
+
+        assertEquals(List.of(), index.songs().search("bailando", 0, 10));
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of(1L), index.songs().search("bailando", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Un rollback no deja entradas fantasma en el índice")
+    void rollbackLeavesIndexUntouched() {
+        TransactionSynchronizationManager.initSynchronization();
+        catalogSearchService.onSongSaved(song(1L, "Bailando"));
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(List.of(), index.songs().search("bailando", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Los cambios confirmados durante una recarga se aplican sobre la foto nueva")
+    void updatesDuringRebuildAreReplayed() {
+        when(songRepository.findPublicSearchEntries()).thenAnswer(invocation -> {
+            // Llega un alta confirmada mientras se lee la foto, que ya no la incluye
+            catalogSearchService.onSongSaved(song(2L, "Cancionero"));
+            return List.of(new SearchEntryView(1L, "Bailando"));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), index.songs().search("bailando", 0, 10));
+        assertEquals(List.of(2L), index.songs().search("cancionero", 0, 10));
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Song song(Long id, String title) {
+        Song song = new Song();
+        song.setId(id);
+        song.setTitle(title);
+        song.setPublicSong(true);
+        return song;
+    }
+}
@@ -0,0 +1,128 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.response.GoogleUserInfo;
+import com.dylabs.zuko.exception.userExeptions.OAuthException;
+import com.dylabs.zuko.security.GoogleJwksCache;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleOAuthServiceUnitTest {
+
+    private static final String CLIENT_ID = "zuko-test.apps.googleusercontent.com";
+    private static final String KEY_ID = "test-key";
+
+    private static KeyPair googleKeys;
+    private static GoogleOAuthService googleOAuthService;
+
+    @BeforeAll
+    static void setUp(@TempDir Path dir) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        googleKeys = generator.generateKeyPair();
+
+        // Fichero JWKS local en lugar del endpoint de Google
+        RSAPublicKey publicKey = (RSAPublicKey) googleKeys.getPublic();
+        Path jwksFile = dir.resolve("google-jwks.json");
+        Files.writeString(jwksFile, """
+                {"keys": [{"kty": "RSA", "alg": "RS256", "use": "sig", "kid": "%s", "n": "%s", "e": "%s"}]}
+                """.formatted(KEY_ID, base64Url(publicKey.getModulus()), base64Url(publicKey.getPublicExponent())));
+
+        googleOAuthService = new GoogleOAuthService(new GoogleJwksCache("http://localhost/no-usado", jwksFile.toString()), CLIENT_ID);
+    }
+
+    @Test
+    @DisplayName("Un ID token firmado por Google se verifica sin llamadas de red")
+    void validTokenReturnsUserInfo() {
+        GoogleUserInfo info = googleOAuthService.getUserInfo(googleToken().compact());
+
+        assertEquals("1234567890", info.sub());
+        assertEquals("ana@gmail.com", info.email());
+        assertEquals(Boolean.TRUE, info.emailVerified());
+        assertEquals("Ana", info.name());
+    }
+
+    @Test
+    @DisplayName("Se rechaza un token emitido para otra aplicación")
+    void wrongAudienceIsRejected() {
+        String token = googleToken().setAudience("otra-app.apps.googleusercontent.com").compact();
+
+        assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(token));
+    }
+
+    @Test
+    @DisplayName("Se rechaza un token caducado")
+    void expiredTokenIsRejected() {
+        String token = googleToken().setExpiration(new Date(System.currentTimeMillis() - Duration.ofHours(1).toMillis())).compact();
+
+        assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(token));
+    }
+
+    @Test
+    @DisplayName("Se rechaza un token de otro emisor")
+    void wrongIssuerIsRejected() {
+        String token = googleToken().setIssuer("https://evil.example.com").compact();
+
+        OAuthException ex = assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(token));
+        assertEquals("El JWT no fue emitido por Google.", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Se rechaza un token firmado con una clave que no es de Google")
+    void unknownKeyIsRejected() throws Exception {
+        KeyPair otherKeys = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        String forgedWithKnownKid = googleToken().signWith(otherKeys.getPrivate(), SignatureAlgorithm.RS256).compact();
+        String unknownKid = googleToken().setHeaderParam("kid", "otra").compact();
+
+        assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(forgedWithKnownKid));
+        assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(unknownKid));
+    }
+
+    @Test
+    @DisplayName("Se rechaza un token sin firma RS256")
+    void nonRs256TokenIsRejected() {
+        String token = googleToken().signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256)).compact();
+
+        assertThrows(OAuthException.class, () -> googleOAuthService.getUserInfo(token));
+    }
+
+    private static JwtBuilder googleToken() {
+        return Jwts.builder()
+                .setHeaderParam("kid", KEY_ID)
+                .setIssuer("https://accounts.google.com")
+                .setAudience(CLIENT_ID)
+                .setSubject("1234567890")
+                .claim("email", "ana@gmail.com")
+                .claim("email_verified", true)
+                .claim("name", "Ana")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(googleKeys.getPrivate(), SignatureAlgorithm.RS256);
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
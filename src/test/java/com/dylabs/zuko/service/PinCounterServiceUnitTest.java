@@ -0,0 +1,70 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.repository.AlbumRepository;
+import com.dylabs.zuko.repository.PlaylistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PinCounterServiceUnitTest {
+
+    @Mock private PlaylistRepository playlistRepository;
+    @Mock private AlbumRepository albumRepository;
+
+    @InjectMocks
+    private PinCounterService pinCounterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("El volcado suma los incrementos netos de cada id en una sola sentencia")
+    void flushWritesNetDeltasOnce() {
+        pinCounterService.playlistPinned(10L);
+        pinCounterService.playlistPinned(10L);
+        pinCounterService.playlistUnpinned(10L);
+        pinCounterService.albumPinned(7L);
+
+        pinCounterService.flush();
+
+        verify(playlistRepository).addPinCounts(List.of(10L), List.of(1L));
+        verify(albumRepository).addPinCounts(List.of(7L), List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Sin cambios pendientes no se toca la base de datos")
+    void flushSkipsWhenNothingChanged() {
+        pinCounterService.playlistPinned(10L);
+        pinCounterService.playlistUnpinned(10L);
+
+        pinCounterService.flush();
+        pinCounterService.flush();
+
+        verify(playlistRepository, never()).addPinCounts(any(), any());
+        verify(albumRepository, never()).addPinCounts(any(), any());
+    }
+
+    @Test
+    @DisplayName("Si el volcado falla los incrementos se conservan para el siguiente")
+    void failedFlushKeepsDeltas() {
+        when(playlistRepository.addPinCounts(any(), any()))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenReturn(1);
+        pinCounterService.playlistPinned(10L);
+
+        pinCounterService.flush();
+        pinCounterService.flush();
+
+        verify(playlistRepository, times(2)).addPinCounts(List.of(10L), List.of(1L));
+    }
+}
@@ -1,7 +1,16 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.PlaylistRequest;
+import com.dylabs.zuko.dto.request.UpdatePlaylistRequest;
+import com.dylabs.zuko.dto.request.UpdatePlaylistSongsRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
+import com.dylabs.zuko.dto.response.PlaylistChangeResponse;
+import com.dylabs.zuko.dto.response.PlaylistChangesResponse;
+import com.dylabs.zuko.dto.response.PlaylistEntryResponse;
 import com.dylabs.zuko.dto.response.PlaylistResponse;
+import com.dylabs.zuko.dto.response.PlaylistSongsUpdateResponse;
+import com.dylabs.zuko.dto.response.PlaylistOverviewResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.playlistExceptions.*;
@@ -9,15 +18,32 @@ import com.dylabs.zuko.exception.songExceptions.SongNotFoundException;
 import com.dylabs.zuko.exception.userExeptions.UserNotFoundExeption;
 import com.dylabs.zuko.mapper.PlaylistMapper;
 import com.dylabs.zuko.model.Playlist;
+import com.dylabs.zuko.model.PlaylistChange;
+import com.dylabs.zuko.model.PlaylistChangeType;
+import com.dylabs.zuko.model.PlaylistSetOperation;
+import com.dylabs.zuko.model.PlaylistSong;
 import com.dylabs.zuko.model.Song;
 import com.dylabs.zuko.model.User;
+import com.dylabs.zuko.repository.PlaylistChangeRepository;
 import com.dylabs.zuko.repository.PlaylistRepository;
+import com.dylabs.zuko.repository.PlaylistSongRepository;
 import com.dylabs.zuko.repository.SongRepository;
 import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.repository.projection.PlaylistEntryView;
+import com.dylabs.zuko.repository.projection.PlaylistHeaderView;
+import com.dylabs.zuko.repository.projection.PlaylistWriteView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,9 +54,12 @@ class PlaylistServiceUnitTest {
     private PlaylistService playlistService;
 
     @Mock private PlaylistRepository playlistRepository;
+    @Mock private PlaylistSongRepository playlistSongRepository;
+    @Mock private PlaylistChangeRepository playlistChangeRepository;
     @Mock private SongRepository songRepository;
     @Mock private UserRepository userRepository;
     @Mock private PlaylistMapper playlistMapper;
+    @Mock private CatalogSearchService catalogSearchService;
 
     @BeforeEach
     void setUp() {
@@ -76,76 +105,76 @@ class PlaylistServiceUnitTest {
     void getPlaylistById_Owner_Success() {
         String userId = "1";
         Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L);
-        playlist.setUser(user);
         PlaylistResponse response = mock(PlaylistResponse.class);
 
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.findVisibleById(10L, 1L, false)).thenReturn(Optional.of(playlist));
         when(playlistMapper.toResponse(playlist)).thenReturn(response);
 
-        PlaylistResponse result = playlistService.getPlaylistById(userId, 10L);
+        PlaylistResponse result = playlistService.getPlaylistById(userId, false, 10L);
         assertEquals(response, result);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getPlaylistById_NotOwnerNotPublic() {
         String userId = "2";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L);
-        playlist.setUser(owner); playlist.setPublic(false);
 
-        User user = new User(); user.setId(2L);
+        when(playlistRepository.findVisibleById(10L, 2L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(true);
+
+        assertThrows(PlaylistNotPublicException.class, () -> playlistService.getPlaylistById(userId, false, 10L));
+    }
+
+    @Test
+    void getPlaylistById_NotFound() {
+        when(playlistRepository.findVisibleById(10L, 2L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(false);
+
+        assertThrows(PlaylistNotFoundException.class, () -> playlistService.getPlaylistById("2", false, 10L));
+    }
+
+    @Test
+    void getPlaylistById_AdminFlagComesFromPrincipal() {
+        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
+        PlaylistResponse response = mock(PlaylistResponse.class);
 
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        when(playlistRepository.findVisibleById(10L, 2L, true)).thenReturn(Optional.of(playlist));
+        when(playlistMapper.toResponse(playlist)).thenReturn(response);
 
-        assertThrows(PlaylistNotPublicException.class, () -> playlistService.getPlaylistById(userId, 10L));
+        assertEquals(response, playlistService.getPlaylistById("2", true, 10L));
+        verifyNoInteractions(userRepository);
     }
 
     // 3. deletePlaylist
     @Test
     void deletePlaylist_Owner_Success() {
         String userId = "1";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L); user.setUserRoleName("USER");
-        playlist.setUser(user);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
 
-        assertDoesNotThrow(() -> playlistService.deletePlaylist(userId, 10L));
-        verify(playlistRepository).delete(playlist);
+        assertDoesNotThrow(() -> playlistService.deletePlaylist(userId, false, 10L));
+        verify(playlistRepository).removeAllSongs(10L);
+        verify(playlistRepository).deleteById(10L);
     }
 
     @Test
     void deletePlaylist_NotOwnerNotAdmin() {
         String userId = "2";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L); owner.setUserRoleName("USER");
-        playlist.setUser(owner);
-        User user = new User(); user.setId(2L); user.setUserRoleName("USER");
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
 
-        assertThrows(PlaylistAccessDeniedException.class, () -> playlistService.deletePlaylist(userId, 10L));
+        assertThrows(PlaylistAccessDeniedException.class, () -> playlistService.deletePlaylist(userId, false, 10L));
+        verify(playlistRepository, never()).deleteById(any());
     }
 
     @Test
     void deletePlaylist_AdminCanDeleteOthersPlaylist() {
         String userId = "2"; // admin, no owner
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L); owner.setUserRoleName("USER");
-        playlist.setUser(owner);
 
-        User admin = new User(); admin.setId(2L); admin.setUserRoleName("ADMIN");
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(admin));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-
-        assertDoesNotThrow(() -> playlistService.deletePlaylist(userId, 10L));
-        verify(playlistRepository).delete(playlist);
+        assertDoesNotThrow(() -> playlistService.deletePlaylist(userId, true, 10L));
+        verify(playlistRepository).deleteById(10L);
     }
 
 
@@ -154,142 +183,792 @@ class PlaylistServiceUnitTest {
     void listSongsInPlaylist_Owner_Success() {
         String userId = "1";
         Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L);
-        playlist.setUser(user);
-        playlist.setSongs(Set.of(new Song()));
+        Song song = new Song(); song.setId(5L);
+        playlist.setEntries(List.of(new PlaylistSong(playlist, song, PlaylistSong.POSITION_GAP)));
         SongResponse songResponse = mock(SongResponse.class);
 
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(playlistMapper.toSongResponse(any(Song.class))).thenReturn(songResponse);
+        when(playlistRepository.findVisibleById(10L, 1L, false)).thenReturn(Optional.of(playlist));
+        when(playlistMapper.toSongResponses(playlist)).thenReturn(List.of(songResponse));
 
-        List<SongResponse> result = playlistService.listSongsInPlaylist(userId, 10L);
+        List<SongResponse> result = playlistService.listSongsInPlaylist(userId, false, 10L);
         assertFalse(result.isEmpty());
     }
 
     @Test
     void listSongsInPlaylist_NotOwnerAndPrivate_ThrowsException() {
         String userId = "2"; // usuario que NO es el dueño
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L);
-        playlist.setUser(owner);
-        playlist.setPublic(false); // La playlist es privada
-
-        User notOwner = new User(); notOwner.setId(2L);
 
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(notOwner));
+        when(playlistRepository.findVisibleById(10L, 2L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(true);
 
         assertThrows(PlaylistNotPublicException.class, () ->
-                playlistService.listSongsInPlaylist(userId, 10L));
+                playlistService.listSongsInPlaylist(userId, false, 10L));
     }
 
     // 5. addSongToPlaylist
     @Test
     void addSongToPlaylist_Success() {
         String userId = "1";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L); user.setUserRoleName("USER");
-        playlist.setUser(user);
-        Song song = new Song(); song.setId(5L);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(songRepository.findById(5L)).thenReturn(Optional.of(song));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.addSong(10L, 5L)).thenReturn(1);
+
+        assertDoesNotThrow(() -> playlistService.addSongToPlaylist(userId, false, 10L, 5L, null));
+        verify(playlistRepository).addSong(10L, 5L);
+        verify(playlistChangeRepository).recordSongChanges(10L, "ADD", List.of(5L));
+        verify(playlistRepository, never()).findById(any());
+        verify(playlistRepository, never()).save(any());
+        verify(songRepository, never()).existsById(any());
+    }
+
+    @Test
+    void addSongToPlaylist_LocksPlaylistBeforeComputingPosition() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.addSong(10L, 5L)).thenReturn(1);
+
+        playlistService.addSongToPlaylist("1", false, 10L, 5L, null);
 
-        assertDoesNotThrow(() -> playlistService.addSongToPlaylist(userId, 10L, 5L));
-        assertTrue(playlist.getSongs().contains(song));
+        InOrder inOrder = inOrder(playlistRepository);
+        inOrder.verify(playlistRepository).lockByIds(List.of(10L));
+        inOrder.verify(playlistRepository).findWriteViewById(10L);
+        inOrder.verify(playlistRepository).addSong(10L, 5L);
+    }
+
+    @Test
+    void addSongToPlaylist_AlreadyInPlaylist_IsIdempotent() {
+        String userId = "1";
+
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.addSong(10L, 5L)).thenReturn(0);
+        when(songRepository.existsById(5L)).thenReturn(true);
+
+        assertDoesNotThrow(() -> playlistService.addSongToPlaylist(userId, false, 10L, 5L, null));
+    }
+
+    @Test
+    void addSongToPlaylist_SongNotFound() {
+        String userId = "1";
+
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.addSong(10L, 99L)).thenReturn(0);
+        when(songRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(SongNotFoundException.class, () -> playlistService.addSongToPlaylist(userId, false, 10L, 99L, null));
     }
 
     @Test
     void addSongToPlaylist_NoPerms() {
         String userId = "2";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L); owner.setUserRoleName("USER");
-        playlist.setUser(owner);
-        User user = new User(); user.setId(2L); user.setUserRoleName("USER");
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
 
-        assertThrows(PlaylistAccessDeniedException.class, () -> playlistService.addSongToPlaylist(userId, 10L, 1L));
+        assertThrows(PlaylistAccessDeniedException.class, () -> playlistService.addSongToPlaylist(userId, false, 10L, 1L, null));
+        verify(playlistRepository, never()).addSong(any(), any());
     }
 
     // 6. removeSongFromPlaylist
     @Test
     void removeSongFromPlaylist_Success() {
         String userId = "1";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L); user.setUserRoleName("USER");
-        playlist.setUser(user);
-        Song song = new Song(); song.setId(5L);
-        playlist.setSongs(new HashSet<>(List.of(song)));
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(songRepository.findById(5L)).thenReturn(Optional.of(song));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.removeSong(10L, 5L)).thenReturn(1);
 
-        assertDoesNotThrow(() -> playlistService.removeSongFromPlaylist(userId, 10L, 5L));
-        assertFalse(playlist.getSongs().contains(song));
+        assertDoesNotThrow(() -> playlistService.removeSongFromPlaylist(userId, false, 10L, 5L));
+        verify(playlistRepository).removeSong(10L, 5L);
+        verify(playlistRepository, never()).save(any());
     }
 
     @Test
     void removeSongFromPlaylist_SongNotInPlaylist() {
         String userId = "1";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User user = new User(); user.setId(1L); user.setUserRoleName("USER");
-        playlist.setUser(user);
-        Song song = new Song(); song.setId(5L);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(songRepository.findById(5L)).thenReturn(Optional.of(song));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.removeSong(10L, 5L)).thenReturn(0);
+        when(songRepository.existsById(5L)).thenReturn(true);
 
-        assertThrows(SongNotInPlaylistException.class, () -> playlistService.removeSongFromPlaylist(userId, 10L, 5L));
+        assertThrows(SongNotInPlaylistException.class, () -> playlistService.removeSongFromPlaylist(userId, false, 10L, 5L));
     }
 
     @Test
     void removeSongFromPlaylist_NoPerms_ThrowsException() {
         String userId = "2";
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L); owner.setUserRoleName("USER");
-        playlist.setUser(owner);
 
-        // El usuario autenticado NO es owner ni admin
-        User notOwner = new User(); notOwner.setId(2L); notOwner.setUserRoleName("USER");
-
-        Song song = new Song(); song.setId(5L);
-        playlist.setSongs(new HashSet<>(List.of(song)));
-
-        when(userRepository.findById(2L)).thenReturn(Optional.of(notOwner));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(songRepository.findById(5L)).thenReturn(Optional.of(song));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
 
         assertThrows(PlaylistAccessDeniedException.class, () ->
-                playlistService.removeSongFromPlaylist(userId, 10L, 5L));
+                playlistService.removeSongFromPlaylist(userId, false, 10L, 5L));
+        verify(playlistRepository, never()).removeSong(any(), any());
     }
 
     @Test
     void removeSongFromPlaylist_AdminCanRemoveFromOthersPlaylist() {
         String userId = "2"; // admin, no owner
-        Playlist playlist = new Playlist(); playlist.setPlaylistId(10L);
-        User owner = new User(); owner.setId(1L);
-        playlist.setUser(owner);
 
-        Song song = new Song(); song.setId(5L);
-        playlist.setSongs(new HashSet<>(List.of(song)));
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.removeSong(10L, 5L)).thenReturn(1);
+
+        assertDoesNotThrow(() -> playlistService.removeSongFromPlaylist(userId, true, 10L, 5L));
+        verify(playlistRepository).removeSong(10L, 5L);
+    }
+
+    @Test
+    void removeSongFromPlaylist_PlaylistNotFound() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(PlaylistNotFoundException.class, () -> playlistService.removeSongFromPlaylist("1", false, 10L, 5L));
+    }
+
+
+    // 7. updatePlaylistSongs
+    @Test
+    void updatePlaylistSongs_AddAndRemove_ValidatesOnceAndUsesBulkStatements() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 3L));
+        when(playlistRepository.addSongs(eq(10L), anyCollection())).thenReturn(List.of(1L, 2L));
+        when(playlistRepository.removeSongs(eq(10L), anyCollection())).thenReturn(List.of(3L));
+
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L, 2L, 2L), List.of(3L), null));
+
+        assertEquals(2, response.added());
+        assertEquals(1, response.removed());
+        verify(songRepository, times(1)).findExistingIds(Set.of(1L, 2L, 3L));
+        verify(playlistRepository).addSongs(10L, Set.of(1L, 2L));
+        verify(playlistRepository).removeSongs(10L, Set.of(3L));
+        verify(playlistRepository, never()).findById(any());
+        verify(songRepository, never()).findById(any());
+    }
+
+    @Test
+    void updatePlaylistSongs_RecordsOnlySongsThatChanged() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 3L, 4L));
+        // 2 ya estaba en la playlist y 4 no estaba
+        when(playlistRepository.addSongs(eq(10L), anyCollection())).thenReturn(List.of(1L));
+        when(playlistRepository.removeSongs(eq(10L), anyCollection())).thenReturn(List.of(3L));
+
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L, 2L), List.of(3L, 4L), null));
+
+        assertEquals(1, response.added());
+        assertEquals(1, response.removed());
+        verify(playlistChangeRepository).recordSongChanges(10L, "ADD", List.of(1L));
+        verify(playlistChangeRepository).recordSongChanges(10L, "REMOVE", List.of(3L));
+    }
+
+    @Test
+    void updatePlaylistSongs_NothingChanged_RecordsNothing() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(playlistRepository.addSongs(eq(10L), anyCollection())).thenReturn(List.of());
+
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L), null, null));
+
+        assertEquals(0, response.added());
+        verify(playlistChangeRepository, never()).recordSongChanges(any(), any(), any());
+    }
+
+    @Test
+    void updatePlaylistSongs_Replace_RemovesOthersAndAddsMissing() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(4L, 5L));
+        when(playlistRepository.removeSongsNotIn(eq(10L), anyCollection())).thenReturn(3);
+        when(playlistRepository.addSongs(eq(10L), anyCollection())).thenReturn(List.of(5L));
+
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(null, null, List.of(4L, 5L)));
+
+        assertEquals(1, response.added());
+        assertEquals(3, response.removed());
+        verify(playlistRepository).removeSongsNotIn(10L, Set.of(4L, 5L));
+        verify(playlistRepository).addSongs(10L, Set.of(4L, 5L));
+        verify(playlistSongRepository).applyOrder(10L, Set.of(4L, 5L));
+    }
+
+    @Test
+    void updatePlaylistSongs_EmptyReplace_ClearsPlaylist() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.removeAllSongs(10L)).thenReturn(7);
+
+        PlaylistSongsUpdateResponse response = playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(null, null, List.of()));
+
+        assertEquals(0, response.added());
+        assertEquals(7, response.removed());
+        verify(songRepository, never()).findExistingIds(any());
+        verify(playlistRepository, never()).addSongs(any(), any());
+    }
+
+    @Test
+    void updatePlaylistSongs_MissingSongs_ThrowsAndWritesNothing() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+        SongNotFoundException ex = assertThrows(SongNotFoundException.class, () -> playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L, 99L), null, null)));
+        assertTrue(ex.getMessage().contains("99"));
+        verify(playlistRepository, never()).addSongs(any(), any());
+    }
+
+    @Test
+    void updatePlaylistSongs_ReplaceCombinedWithAdd_Throws() {
+        assertThrows(InvalidPlaylistSongsRequestException.class, () -> playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L), null, List.of(2L))));
+        verifyNoInteractions(playlistRepository, songRepository);
+    }
+
+    @Test
+    void updatePlaylistSongs_SameSongAddedAndRemoved_Throws() {
+        assertThrows(InvalidPlaylistSongsRequestException.class, () -> playlistService.updatePlaylistSongs("1", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L), List.of(1L), null)));
+    }
+
+    @Test
+    void updatePlaylistSongs_NoPerms() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+
+        assertThrows(PlaylistAccessDeniedException.class, () -> playlistService.updatePlaylistSongs("2", false, 10L,
+                new UpdatePlaylistSongsRequest(List.of(1L), null, null)));
+        verify(songRepository, never()).findExistingIds(any());
+    }
+
+    // 8. vista resumida y paginación de canciones
+    @Test
+    void getPlaylistSummaryById_ReturnsCountWithoutLoadingSongs() {
+        PlaylistHeaderView header = new PlaylistHeaderView(10L, "Mix", "desc", true, null, null, 1L);
+        PlaylistResponse summary = new PlaylistResponse(10L, "Mix", "desc", true, null, null, null, 1L, 5000L, null);
+
+        when(playlistRepository.findVisibleHeaderById(10L, 2L, false)).thenReturn(Optional.of(header));
+        when(playlistRepository.countSongs(10L)).thenReturn(5000L);
+        when(playlistMapper.toSummaryResponse(header, 5000L)).thenReturn(summary);
+
+        PlaylistResponse result = playlistService.getPlaylistSummaryById("2", false, 10L);
+
+        assertEquals(5000L, result.songCount());
+        assertNull(result.songs());
+        verify(playlistRepository, never()).findById(any());
+    }
+
+    @Test
+    void editPlaylistById_UpdatesDetailsWithoutLoadingSongs() {
+        PlaylistHeaderView header = new PlaylistHeaderView(10L, "Nuevo", "desc", true, null, null, 1L);
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.findVisibleHeaderById(10L, 1L, false)).thenReturn(Optional.of(header));
+        when(playlistRepository.countSongs(10L)).thenReturn(5000L);
+        when(playlistChangeRepository.recordChange(10L, "UPDATE")).thenReturn(8L);
+        PlaylistResponse updated = new PlaylistResponse(10L, "Nuevo", "desc", true, null, null, null, 1L, 5000L, 8L);
+        when(playlistMapper.toSummaryResponse(header, 5000L, 8L)).thenReturn(updated);
+
+        // La respuesta lleva la versión que deja el cambio, no la anterior
+        assertEquals(8L, playlistService.editPlaylistById(10L, "1", false,
+                new UpdatePlaylistRequest("Nuevo", null, true, null)).version());
+
+        // Sin url_image se conserva la imagen actual
+        verify(playlistRepository).updateDetails(10L, "Nuevo", null, true, true, null);
+        verify(playlistChangeRepository).recordChange(10L, "UPDATE");
+        verify(catalogSearchService).onPlaylistSaved(10L, "Nuevo", true);
+        verify(playlistRepository, never()).findById(any());
+        verify(playlistRepository, never()).save(any());
+    }
+
+    @Test
+    void editPlaylistById_BlankImage_RemovesIt() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.findVisibleHeaderById(10L, 1L, false)).thenReturn(Optional.of(
+                new PlaylistHeaderView(10L, "Mix", null, false, null, null, 1L)));
+
+        playlistService.editPlaylistById(10L, "1", false, new UpdatePlaylistRequest(null, null, false, " "));
+
+        verify(playlistRepository).updateDetails(10L, null, null, false, false, null);
+    }
+
+    @Test
+    void editPlaylistById_NotOwner_Throws() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+
+        assertThrows(PlaylistAccessDeniedException.class, () ->
+                playlistService.editPlaylistById(10L, "2", false, new UpdatePlaylistRequest("Nuevo", null, true, null)));
+        verify(playlistRepository, never()).updateDetails(any(), any(), any(), anyBoolean(), anyBoolean(), any());
+    }
+
+    @Test
+    void getPlaylistSummaryById_PrivateAndNotOwner_Throws() {
+        when(playlistRepository.findVisibleHeaderById(10L, 2L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(true);
+
+        assertThrows(PlaylistNotPublicException.class, () -> playlistService.getPlaylistSummaryById("2", false, 10L));
+        verify(playlistRepository, never()).countSongs(any());
+    }
+
+    @Test
+    void listSongsInPlaylist_Paged_FollowsPlaylistOrder() {
+        PlaylistHeaderView header = new PlaylistHeaderView(10L, "Mix", "desc", false, null, null, 1L);
+        List<PlaylistEntryView> rows = List.of(
+                new PlaylistEntryView(-65536L, null, 9L, "c", true, null, 1L, "x", null, null),
+                new PlaylistEntryView(65536L, null, 3L, "a", true, null, 1L, "x", null, null),
+                new PlaylistEntryView(98304L, null, 7L, "b", true, null, 1L, "x", null, null));
+
+        when(playlistRepository.findVisibleHeaderById(10L, 1L, false)).thenReturn(Optional.of(header));
+        when(playlistSongRepository.findPage(10L, Long.MIN_VALUE, Long.MIN_VALUE, Limit.of(3))).thenReturn(rows);
+
+        CursorPageResponse<PlaylistEntryResponse> page = playlistService.listSongsInPlaylist("1", false, 10L, null, 2);
+
+        assertEquals(List.of(9L, 3L), page.items().stream().map(entry -> entry.song().id()).toList());
+        assertEquals(Cursor.encode(65536L, 3L), page.next());
+
+        when(playlistSongRepository.findPage(10L, 65536L, 3L, Limit.of(3))).thenReturn(rows.subList(2, 3));
+        CursorPageResponse<PlaylistEntryResponse> last = playlistService.listSongsInPlaylist("1", false, 10L, page.next(), 2);
+
+        assertEquals(List.of(7L), last.items().stream().map(entry -> entry.song().id()).toList());
+        assertNull(last.next());
+    }
+
+    // 10. orden de las canciones
+    @Test
+    void moveSongInPlaylist_UpdatesOnlyThatRowWithMidpoint() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 5L)).thenReturn(Optional.of(4L * PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findPosition(10L, 2L)).thenReturn(Optional.of(PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findNextPosition(10L, PlaylistSong.POSITION_GAP)).thenReturn(2L * PlaylistSong.POSITION_GAP);
+
+        playlistService.moveSongInPlaylist("1", false, 10L, 5L, 2L);
+
+        verify(playlistSongRepository).updatePosition(10L, 5L, PlaylistSong.POSITION_GAP + PlaylistSong.POSITION_GAP / 2);
+        verify(playlistSongRepository, never()).renumber(any());
+    }
+
+    @Test
+    void moveSongInPlaylist_ToTop_UsesPositionBeforeFirst() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 5L)).thenReturn(Optional.of(4L * PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findFirstPosition(10L)).thenReturn(PlaylistSong.POSITION_GAP);
+
+        playlistService.moveSongInPlaylist("1", false, 10L, 5L, null);
+
+        verify(playlistSongRepository).updatePosition(10L, 5L, 0L);
+    }
+
+    @Test
+    void moveSongInPlaylist_NoGapLeft_RenumbersOnce() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 5L)).thenReturn(Optional.of(900L));
+        when(playlistSongRepository.findPosition(10L, 2L))
+                .thenReturn(Optional.of(100L))
+                .thenReturn(Optional.of(PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findNextPosition(10L, 100L)).thenReturn(101L);
+        when(playlistSongRepository.findNextPosition(10L, PlaylistSong.POSITION_GAP)).thenReturn(2L * PlaylistSong.POSITION_GAP);
+
+        playlistService.moveSongInPlaylist("1", false, 10L, 5L, 2L);
+
+        verify(playlistSongRepository, times(1)).renumber(10L);
+        verify(playlistSongRepository).updatePosition(10L, 5L, PlaylistSong.POSITION_GAP + PlaylistSong.POSITION_GAP / 2);
+    }
+
+    @Test
+    void moveSongInPlaylist_SongNotInPlaylist_Throws() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 5L)).thenReturn(Optional.empty());
+
+        assertThrows(SongNotInPlaylistException.class, () -> playlistService.moveSongInPlaylist("1", false, 10L, 5L, 2L));
+        verify(playlistSongRepository, never()).updatePosition(any(), any(), anyLong());
+    }
+
+    @Test
+    void addSongToPlaylist_AfterSong_InsertsAtFreePosition() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 2L)).thenReturn(Optional.of(PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findNextPosition(10L, PlaylistSong.POSITION_GAP)).thenReturn(null);
+        when(playlistSongRepository.insertAt(10L, 5L, 2L * PlaylistSong.POSITION_GAP)).thenReturn(1);
+
+        playlistService.addSongToPlaylist("1", false, 10L, 5L, 2L);
+
+        verify(playlistSongRepository).insertAt(10L, 5L, 2L * PlaylistSong.POSITION_GAP);
+        verify(playlistRepository, never()).addSong(any(), any());
+    }
+
+    @Test
+    void addSongToPlaylist_AfterSong_PositionTaken_RenumbersAndRetries() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistSongRepository.findPosition(10L, 2L)).thenReturn(Optional.of(PlaylistSong.POSITION_GAP));
+        when(playlistSongRepository.findPosition(10L, 5L)).thenReturn(Optional.empty());
+        when(playlistSongRepository.findNextPosition(10L, PlaylistSong.POSITION_GAP)).thenReturn(null);
+        when(playlistSongRepository.insertAt(10L, 5L, 2L * PlaylistSong.POSITION_GAP)).thenReturn(0, 1);
+        when(songRepository.existsById(5L)).thenReturn(true);
+
+        playlistService.addSongToPlaylist("1", false, 10L, 5L, 2L);
+
+        verify(playlistSongRepository).renumber(10L);
+        verify(playlistChangeRepository).recordChange(10L, "RESET");
+        verify(playlistSongRepository, times(2)).insertAt(10L, 5L, 2L * PlaylistSong.POSITION_GAP);
+        verify(playlistChangeRepository).recordSongChanges(10L, "ADD", List.of(5L));
+    }
+
+    // 9. resúmenes de /playlists/mine
+    @Test
+    void getPlaylistOverviewsByUser_UsesGroupedQueryOnly() {
+        List<PlaylistOverviewResponse> summaries = List.of(
+                new PlaylistOverviewResponse(10L, "Mix", null, true, 120L),
+                new PlaylistOverviewResponse(11L, "Vacía", null, false, 0L));
+
+        when(playlistRepository.findOverviewsByUserId(1L)).thenReturn(summaries);
+
+        List<PlaylistOverviewResponse> result = playlistService.getPlaylistOverviewsByUser("1");
+
+        assertEquals(summaries, result);
+        verify(playlistRepository, never()).findAllByUser_Id(any());
+        verifyNoInteractions(userRepository, playlistMapper);
+    }
+
+    @Test
+    void getAllPlaylistsByUser_ResolvesSongsOfEveryPlaylistInOneQuery() {
+        User user = new User(); user.setId(1L);
+        Playlist own = new Playlist(); own.setPlaylistId(10L); own.setUser(user);
+        Playlist fork = new Playlist(); fork.setPlaylistId(20L); fork.setUser(user); fork.setMembershipSourceId(7L);
+        List<Playlist> playlists = List.of(own, fork);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.findAllByUser_Id(1L)).thenReturn(playlists);
+        when(playlistRepository.findTracksByPlaylistIds(List.of(10L, 20L))).thenReturn(List.of());
+        when(playlistMapper.toFullResponses(playlists, List.of())).thenReturn(List.of(mock(PlaylistResponse.class), mock(PlaylistResponse.class)));
+
+        assertEquals(2, playlistService.getAllPlaylistsByUser("1").size());
+        verify(playlistRepository, times(1)).findTracksByPlaylistIds(any());
+        verify(playlistMapper, never()).toResponse(any());
+        verifyNoInteractions(playlistSongRepository);
+    }
+
+    @Test
+    void searchMyPlaylistsByName_NoMatches_SkipsSongQuery() {
+        when(playlistRepository.findByUser_IdAndNameContainingIgnoreCase(1L, "rock")).thenReturn(List.of());
+
+        assertTrue(playlistService.searchMyPlaylistsByName("1", "rock").isEmpty());
+        verify(playlistRepository, never()).findTracksByPlaylistIds(any());
+    }
+
+    // 11. sincronización incremental
+    @Test
+    void getPlaylistChanges_Unchanged_IsNotModifiedWithSingleLookup() {
+        when(playlistRepository.findVisibleVersionById(10L, 1L, false)).thenReturn(Optional.of(42L));
+
+        assertTrue(playlistService.getPlaylistChanges("1", false, 10L, 42L).isEmpty());
+        verify(playlistChangeRepository, never()).findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(any(), anyLong());
+        verify(playlistRepository, never()).findById(any());
+        verifyNoInteractions(playlistMapper);
+    }
+
+    @Test
+    void getPlaylistChanges_ReturnsOperationsSinceVersion() {
+        when(playlistRepository.findVisibleVersionById(10L, 1L, false)).thenReturn(Optional.of(12L));
+        when(playlistChangeRepository.findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(10L, 10L)).thenReturn(List.of(
+                new PlaylistChange(10L, 11L, PlaylistChangeType.ADD, 5L, 65536L),
+                new PlaylistChange(10L, 12L, PlaylistChangeType.REMOVE, 3L, null)));
+
+        PlaylistChangesResponse response = playlistService.getPlaylistChanges("1", false, 10L, 10L).orElseThrow();
+
+        assertFalse(response.reset());
+        assertEquals(12L, response.version());
+        assertEquals(List.of(PlaylistChangeType.ADD, PlaylistChangeType.REMOVE),
+                response.changes().stream().map(PlaylistChangeResponse::operation).toList());
+    }
+
+    @Test
+    void getPlaylistChanges_LogPruned_AsksForReset() {
+        when(playlistRepository.findVisibleVersionById(10L, 1L, false)).thenReturn(Optional.of(900L));
+        when(playlistChangeRepository.findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(10L, 3L)).thenReturn(List.of(
+                new PlaylistChange(10L, 400L, PlaylistChangeType.ADD, 5L, 65536L)));
+
+        PlaylistChangesResponse response = playlistService.getPlaylistChanges("1", false, 10L, 3L).orElseThrow();
+
+        assertTrue(response.reset());
+        assertTrue(response.changes().isEmpty());
+    }
+
+    @Test
+    void getPlaylistChanges_BulkReplaceInBetween_AsksForReset() {
+        when(playlistRepository.findVisibleVersionById(10L, 1L, false)).thenReturn(Optional.of(6L));
+        when(playlistChangeRepository.findByPlaylistIdAndVersionGreaterThanOrderByVersionAscIdAsc(10L, 4L)).thenReturn(List.of(
+                new PlaylistChange(10L, 5L, PlaylistChangeType.RESET, null, null),
+                new PlaylistChange(10L, 6L, PlaylistChangeType.ADD, 5L, 65536L)));
+
+        assertTrue(playlistService.getPlaylistChanges("1", false, 10L, 4L).orElseThrow().reset());
+    }
+
+    @Test
+    void getPlaylistChanges_PrivatePlaylist_Throws() {
+        when(playlistRepository.findVisibleVersionById(10L, 2L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(true);
+
+        assertThrows(PlaylistNotPublicException.class, () -> playlistService.getPlaylistChanges("2", false, 10L, 0L));
+    }
+
+    @Test
+    void updatePlaylistSongs_Replace_RecordsReset() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(songRepository.findExistingIds(anyCollection())).thenReturn(List.of(4L));
+
+        playlistService.updatePlaylistSongs("1", false, 10L, new UpdatePlaylistSongsRequest(null, null, List.of(4L)));
+
+        verify(playlistChangeRepository).recordChange(10L, "RESET");
+        verify(playlistChangeRepository, never()).recordSongChanges(any(), any(), any());
+    }
+
+    // 8. forkPlaylist
+    @Test
+    void forkPlaylist_SharesSongsWithoutCopyingRows() {
+        User owner = new User(); owner.setId(2L);
+        Playlist original = new Playlist(); original.setPlaylistId(10L); original.setName("Éxitos"); original.setUser(owner);
+        User user = new User(); user.setId(1L);
+
+        when(playlistRepository.findVisibleWithoutSongsById(10L, 1L, false)).thenReturn(Optional.of(original));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.save(any(Playlist.class))).thenAnswer(invocation -> {
+            Playlist fork = invocation.getArgument(0);
+            fork.setPlaylistId(20L);
+            return fork;
+        });
+        when(playlistRepository.countSongs(20L)).thenReturn(10000L);
+        when(playlistMapper.toSummaryResponse(any(), eq(10000L))).thenReturn(mock(PlaylistResponse.class));
+
+        assertNotNull(playlistService.forkPlaylist("1", false, 10L, null));
+
+        ArgumentCaptor<Playlist> captor = ArgumentCaptor.forClass(Playlist.class);
+        verify(playlistRepository).save(captor.capture());
+        assertEquals(10L, captor.getValue().getMembershipSourceId());
+        assertEquals("Éxitos", captor.getValue().getName());
+        assertFalse(captor.getValue().isPublic());
+        verify(playlistSongRepository, never()).copyMembership(any(), any());
+        verify(playlistRepository, never()).addSongs(any(), any());
+    }
+
+    @Test
+    void forkPlaylist_OfAFork_PointsToThePlaylistThatOwnsTheRows() {
+        Playlist fork = new Playlist(); fork.setPlaylistId(20L); fork.setName("Copia"); fork.setMembershipSourceId(10L);
+        User user = new User(); user.setId(1L);
+
+        when(playlistRepository.findVisibleWithoutSongsById(20L, 1L, false)).thenReturn(Optional.of(fork));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.save(any(Playlist.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        playlistService.forkPlaylist("1", false, 20L, "Otra copia");
 
-        User admin = new User(); admin.setId(2L); admin.setUserRoleName("ADMIN");
+        ArgumentCaptor<Playlist> captor = ArgumentCaptor.forClass(Playlist.class);
+        verify(playlistRepository).save(captor.capture());
+        assertEquals(10L, captor.getValue().getMembershipSourceId());
+        assertEquals("Otra copia", captor.getValue().getName());
+    }
+
+    @Test
+    void forkPlaylist_NameAlreadyUsed_Throws() {
+        Playlist original = new Playlist(); original.setPlaylistId(10L); original.setName("Éxitos");
+        User user = new User(); user.setId(1L);
+
+        when(playlistRepository.findVisibleWithoutSongsById(10L, 1L, false)).thenReturn(Optional.of(original));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.existsByNameIgnoreCaseAndUser_id("Éxitos", 1L)).thenReturn(true);
+
+        assertThrows(PlaylistAlreadyExistsException.class, () -> playlistService.forkPlaylist("1", false, 10L, null));
+        verify(playlistRepository, never()).save(any());
+    }
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(admin));
-        when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
-        when(songRepository.findById(5L)).thenReturn(Optional.of(song));
+    @Test
+    void forkPlaylist_PrivatePlaylistOfOtherUser_Throws() {
+        when(playlistRepository.findVisibleWithoutSongsById(10L, 1L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(10L)).thenReturn(true);
 
-        assertDoesNotThrow(() -> playlistService.removeSongFromPlaylist(userId, 10L, 5L));
-        assertFalse(playlist.getSongs().contains(song));
+        assertThrows(PlaylistNotPublicException.class, () -> playlistService.forkPlaylist("1", false, 10L, null));
     }
 
+    @Test
+    void addSongToPlaylist_Fork_CopiesRowsBeforeWriting() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, 7L, null)));
+        when(playlistRepository.addSong(10L, 5L)).thenReturn(1);
+
+        playlistService.addSongToPlaylist("1", false, 10L, 5L, null);
+
+        InOrder inOrder = inOrder(playlistSongRepository, playlistRepository);
+        inOrder.verify(playlistSongRepository).copyMembership(7L, 10L);
+        inOrder.verify(playlistRepository).clearMembershipSource(10L);
+        inOrder.verify(playlistRepository).addSong(10L, 5L);
+        verify(playlistRepository, never()).repointSharers(any(), any());
+    }
 
+    @Test
+    void removeSongFromPlaylist_OriginalWithForks_CopiesRowsToAForkAndKeepsItsOwn() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, 20L)));
+        when(playlistRepository.removeSong(10L, 5L)).thenReturn(1);
+
+        playlistService.removeSongFromPlaylist("1", false, 10L, 5L);
+
+        InOrder inOrder = inOrder(playlistSongRepository, playlistRepository);
+        inOrder.verify(playlistSongRepository).copyMembership(10L, 20L);
+        inOrder.verify(playlistRepository).repointSharers(10L, 20L);
+        inOrder.verify(playlistRepository).removeSong(10L, 5L);
+        verify(playlistSongRepository, never()).moveMembership(any(), any());
+        verify(playlistRepository, never()).clearMembershipSource(any());
+    }
 
+    @Test
+    void addSongToPlaylist_NotShared_DoesNotCopy() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, null)));
+        when(playlistRepository.addSong(10L, 5L)).thenReturn(1);
 
+        playlistService.addSongToPlaylist("1", false, 10L, 5L, null);
+
+        verify(playlistSongRepository, never()).copyMembership(any(), any());
+        verify(playlistSongRepository, never()).moveMembership(any(), any());
+    }
+
+    @Test
+    void deletePlaylist_OriginalWithForks_HandsRowsOverInsteadOfCopying() {
+        when(playlistRepository.findWriteViewById(10L)).thenReturn(Optional.of(new PlaylistWriteView(1L, null, 20L)));
+
+        playlistService.deletePlaylist("1", false, 10L);
+
+        verify(playlistSongRepository).moveMembership(10L, 20L);
+        verify(playlistRepository).repointSharers(10L, 20L);
+        verify(playlistSongRepository, never()).copyMembership(any(), any());
+        verify(playlistRepository).deleteById(10L);
+    }
+
+    @Test
+    void songWrites_OriginalAndTwoForksConcurrently_NeitherLoseNorDuplicateSongs() throws Exception {
+        // Filas de playlist_song y origen de cada playlist en memoria; lockByIds bloquea como FOR UPDATE
+        // hasta que termina la llamada al servicio (el final de la transacción)
+        Map<Long, Set<Long>> rows = new ConcurrentHashMap<>();
+        Map<Long, Long> sources = new ConcurrentHashMap<>();
+        Map<Long, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+        ThreadLocal<List<ReentrantLock>> held = ThreadLocal.withInitial(ArrayList::new);
+
+        when(playlistRepository.lockByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.stream().sorted().forEach(id -> {
+                var lock = rowLocks.computeIfAbsent(id, k -> new ReentrantLock());
+                lock.lock();
+                held.get().add(lock);
+            });
+            return List.copyOf(ids);
+        });
+        when(playlistRepository.findWriteViewById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            Long sharer = sources.entrySet().stream()
+                    .filter(e -> id.equals(e.getValue()))
+                    .map(Map.Entry::getKey)
+                    .min(Long::compare).orElse(null);
+            return Optional.of(new PlaylistWriteView(1L, sources.get(id), sharer));
+        });
+        doAnswer(invocation -> {
+            Set<Long> copied = Set.copyOf(rows.getOrDefault(invocation.<Long>getArgument(0), Set.of()));
+            Thread.sleep(5);
+            rows.computeIfAbsent(invocation.getArgument(1), k -> ConcurrentHashMap.newKeySet()).addAll(copied);
+            return copied.size();
+        }).when(playlistSongRepository).copyMembership(anyLong(), anyLong());
+        doAnswer(invocation -> {
+            sources.remove(invocation.<Long>getArgument(0));
+            return 1;
+        }).when(playlistRepository).clearMembershipSource(anyLong());
+        doAnswer(invocation -> {
+            Long from = invocation.getArgument(0);
+            Long heir = invocation.getArgument(1);
+            sources.replaceAll((id, source) -> from.equals(source) ? heir : source);
+            sources.remove(heir);
+            return 1;
+        }).when(playlistRepository).repointSharers(anyLong(), anyLong());
+        when(playlistRepository.addSong(anyLong(), anyLong())).thenAnswer(invocation -> {
+            rows.computeIfAbsent(invocation.getArgument(0), k -> ConcurrentHashMap.newKeySet()).add(invocation.getArgument(1));
+            return 1;
+        });
+
+        for (int round = 0; round < 20; round++) {
+            rows.clear();
+            sources.clear();
+            rows.put(10L, ConcurrentHashMap.newKeySet());
+            rows.get(10L).addAll(Set.of(1L, 2L, 3L));
+            sources.put(20L, 10L);
+            sources.put(30L, 10L);
+
+            // La original y sus dos copias añaden a la vez una canción distinta cada una
+            Map<Long, Long> added = Map.of(10L, 4L, 20L, 5L, 30L, 6L);
+            CyclicBarrier start = new CyclicBarrier(added.size());
+            ExecutorService writers = Executors.newFixedThreadPool(added.size());
+            List<Future<?>> results = new ArrayList<>();
+            added.forEach((playlistId, songId) -> results.add(writers.submit(() -> {
+                start.await();
+                try {
+                    playlistService.addSongToPlaylist("1", false, playlistId, songId, null);
+                } finally {
+                    held.get().forEach(ReentrantLock::unlock);
+                    held.get().clear();
+                }
+                return null;
+            })));
+            for (var result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            writers.shutdown();
+
+            assertEquals(Map.of(), sources, "ninguna playlist sigue compartiendo filas");
+            assertEquals(Set.of(1L, 2L, 3L, 4L), rows.get(10L));
+            assertEquals(Set.of(1L, 2L, 3L, 5L), rows.get(20L));
+            assertEquals(Set.of(1L, 2L, 3L, 6L), rows.get(30L));
+        }
+    }
+
+    // 9. combinePlaylists
+    @Test
+    void combinePlaylists_Difference_RunsInDatabaseOverMembershipIds() {
+        PlaylistEntryView row = new PlaylistEntryView(65536L, null, 5L, "Canción", true, null, 3L, "Artista", null, null);
+        when(playlistRepository.findVisibleMembershipId(10L, 1L, false)).thenReturn(Optional.of(10L));
+        when(playlistRepository.findVisibleMembershipId(20L, 1L, false)).thenReturn(Optional.of(7L)); // 20 es una copia de 7
+        when(playlistSongRepository.combine("DIFFERENCE", 10L, 7L)).thenReturn(List.of(row));
+
+        List<PlaylistEntryResponse> result = playlistService.combinePlaylists("1", false, PlaylistSetOperation.DIFFERENCE, 10L, 20L);
+
+        assertEquals(1, result.size());
+        assertEquals(5L, result.get(0).song().id());
+        verifyNoInteractions(songRepository);
+    }
+
+    @Test
+    void combinePlaylists_PrivatePlaylistOfOtherUser_Throws() {
+        when(playlistRepository.findVisibleMembershipId(10L, 1L, false)).thenReturn(Optional.of(10L));
+        when(playlistRepository.findVisibleMembershipId(20L, 1L, false)).thenReturn(Optional.empty());
+        when(playlistRepository.existsById(20L)).thenReturn(true);
+
+        assertThrows(PlaylistNotPublicException.class, () ->
+                playlistService.combinePlaylists("1", false, PlaylistSetOperation.UNION, 10L, 20L));
+        verify(playlistSongRepository, never()).combine(any(), any(), any());
+    }
+
+    @Test
+    void saveCombinedPlaylist_InsertsResultIntoNewPlaylist() {
+        User user = new User(); user.setId(1L);
+        when(playlistRepository.findVisibleMembershipId(10L, 1L, false)).thenReturn(Optional.of(10L));
+        when(playlistRepository.findVisibleMembershipId(20L, 1L, false)).thenReturn(Optional.of(20L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.save(any(Playlist.class))).thenAnswer(invocation -> {
+            Playlist playlist = invocation.getArgument(0);
+            playlist.setPlaylistId(30L);
+            return playlist;
+        });
+        when(playlistSongRepository.insertCombination("INTERSECTION", 10L, 20L, 30L)).thenReturn(42);
+        when(playlistMapper.toSummaryResponse(any(), eq(42L))).thenReturn(mock(PlaylistResponse.class));
+
+        assertNotNull(playlistService.saveCombinedPlaylist("1", false, PlaylistSetOperation.INTERSECTION, 10L, 20L, "En ambas"));
+        verify(playlistSongRepository).insertCombination("INTERSECTION", 10L, 20L, 30L);
+        verify(playlistSongRepository, never()).combine(any(), any(), any());
+    }
+
+    @Test
+    void saveCombinedPlaylist_NameAlreadyUsed_Throws() {
+        User user = new User(); user.setId(1L);
+        when(playlistRepository.findVisibleMembershipId(any(), eq(1L), eq(false))).thenReturn(Optional.of(10L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(playlistRepository.existsByNameIgnoreCaseAndUser_id("Mezcla", 1L)).thenReturn(true);
+
+        assertThrows(PlaylistAlreadyExistsException.class, () ->
+                playlistService.saveCombinedPlaylist("1", false, PlaylistSetOperation.UNION, 10L, 20L, "Mezcla"));
+        verify(playlistRepository, never()).save(any());
+    }
 }
@@ -0,0 +1,108 @@
+package com.dylabs.zuko.service;
+
+import com.dylabs.zuko.dto.response.ArtistResponse;
+import com.dylabs.zuko.dto.response.SearchResponse;
+import com.dylabs.zuko.dto.response.SongResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchServiceUnitTest {
+
+    @Mock private SongService songService;
+    @Mock private AlbumService albumService;
+    @Mock private ArtistService artistService;
+    @Mock private PlaylistService playlistService;
+    @Mock private UserService userService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = searchService(3);
+    }
+
+    private SearchService searchService(int maxConcurrentQueries) {
+        return new SearchService(songService, albumService, artistService, playlistService, userService,
+                transactionManager, 200L, maxConcurrentQueries);
+    }
+
+    @Test
+    @DisplayName("Búsqueda unificada agrupa los resultados de cada fuente")
+    void searchGroupsResultsPerType() {
+        SongResponse song = new SongResponse(1L, "Luna", true, LocalDate.now(), null, 1L, "Artista", "", "");
+        ArtistResponse artist = new ArtistResponse(1L, "Luna Llena", "Perú", "", 1L, true);
+        when(songService.findPublicSongsByTitle("luna", 0, 5)).thenReturn(List.of(song));
+        when(artistService.searchArtistsByName("luna", 0, 5)).thenReturn(List.of(artist));
+
+        SearchResponse response = searchService.search(" luna ", null);
+
+        assertEquals("luna", response.query());
+        assertEquals(List.of(song), response.songs());
+        assertEquals(List.of(artist), response.artists());
+        assertTrue(response.albums().isEmpty());
+        assertTrue(response.degraded().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Una fuente que falla o tarda devuelve resultado parcial en lugar de error")
+    void slowOrFailingSourceDegrades() {
+        when(albumService.findAlbumsByTitle(anyString(), anyInt(), anyInt()))
+                .thenThrow(new IllegalStateException("sin conexión"));
+        when(userService.findUsersByUsername(anyString(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+
+        SearchResponse response = searchService.search("luna", 3);
+
+        assertEquals(List.of("albums", "users"), response.degraded());
+        assertTrue(response.users().isEmpty());
+        verify(songService).findPublicSongsByTitle("luna", 0, 3);
+    }
+
+    @Test
+    @DisplayName("Cada fuente consulta en una transacción de solo lectura con el timeout de la fuente")
+    void sourcesRunWithQueryTimeout() {
+        searchService.search("luna", null);
+
+        verify(transactionManager, times(5)).getTransaction(argThat((TransactionDefinition definition) ->
+                definition.isReadOnly() && definition.getTimeout() == 1));
+    }
+
+    @Test
+    @DisplayName("Sin huecos libres para consultar, las fuentes se degradan en lugar de esperar conexiones")
+    void saturatedSourcesDegrade() {
+        SearchService saturated = searchService(1);
+        when(songService.findPublicSongsByTitle(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return List.of();
+        });
+
+        SearchResponse response = saturated.search("luna", null);
+
+        // Solo una fuente obtiene el hueco; el resto agota su tiempo esperando
+        assertTrue(response.degraded().size() >= 4);
+    }
+
+    @Test
+    @DisplayName("Una consulta vacía no consulta ninguna fuente")
+    void blankQueryReturnsEmpty() {
+        SearchResponse response = searchService.search("  ", null);
+
+        assertTrue(response.songs().isEmpty());
+        verifyNoInteractions(songService, albumService, artistService, playlistService, userService);
+    }
+}
@@ -1,6 +1,8 @@
 package com.dylabs.zuko.service;
 
+import com.dylabs.zuko.dto.Cursor;
 import com.dylabs.zuko.dto.request.SongRequest;
+import com.dylabs.zuko.dto.response.CursorPageResponse;
 import com.dylabs.zuko.dto.response.SongResponse;
 import com.dylabs.zuko.exception.artistExeptions.ArtistNotFoundException;
 import com.dylabs.zuko.exception.songExceptions.SongAlreadyExistException;
@@ -8,16 +10,16 @@ import com.dylabs.zuko.exception.songExceptions.SongNotFoundException;
 import com.dylabs.zuko.mapper.SongMapper;
 import com.dylabs.zuko.model.Artist;
 import com.dylabs.zuko.model.Song;
-import com.dylabs.zuko.model.User;
 import com.dylabs.zuko.repository.ArtistRepository;
 import com.dylabs.zuko.repository.SongRepository;
-import com.dylabs.zuko.repository.UserRepository;
+import com.dylabs.zuko.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
 
@@ -40,14 +42,15 @@ class SongServiceUnitTest {
     private ArtistRepository artistRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CatalogSearchService catalogSearchService;
 
     @InjectMocks
     private SongService songService;
 
     private Artist artist;
-    private User adminUser;
-    private User artistUser;
+    private AuthenticatedUser adminUser;
+    private AuthenticatedUser artistUser;
+    private AuthenticatedUser withoutProfile;
 
     @BeforeEach
     void setUp() {
@@ -57,13 +60,9 @@ class SongServiceUnitTest {
         artist.setId(1L);
         artist.setName("Bruno Mars");
 
-        adminUser = new User();
-        adminUser.setId(10L);
-        adminUser.setUserRoleName("ADMIN");
-
-        artistUser = new User();
-        artistUser.setId(20L);
-        artistUser.setUserRoleName("ARTIST");
+        adminUser = new AuthenticatedUser(10L, "Admin", null);
+        artistUser = new AuthenticatedUser(20L, "User", artist.getId());
+        withoutProfile = new AuthenticatedUser(20L, "User", null);
     }
 
     // Crear canción con rol ADMIN
@@ -77,14 +76,13 @@ class SongServiceUnitTest {
 
         SongResponse expectedResponse = new SongResponse(1L, request.title(), request.isPublicSong(), song.getReleaseDate(),"Canción registrada exitosamente", artist.getId(), artist.getName(),"", "");
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.existsByTitleIgnoreCaseAndArtistId(request.title(), artist.getId())).thenReturn(false);
         when(mapper.toSongEntity(request, artist)).thenReturn(song);
         when(repository.save(song)).thenReturn(song);
         when(mapper.toResponse(song)).thenReturn(expectedResponse);
 
-        SongResponse response = songService.createSong(request, String.valueOf(adminUser.getId()));
+        SongResponse response = songService.createSong(request, adminUser);
 
         assertEquals("Canción registrada exitosamente", response.message());
         assertEquals(request.title(), response.title());
@@ -102,14 +100,13 @@ class SongServiceUnitTest {
 
         SongResponse expectedResponse = new SongResponse(1L, request.title(), request.isPublicSong(), song.getReleaseDate(), "Canción registrada exitosamente", artist.getId(), artist.getName(), "", "");
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.existsByTitleIgnoreCaseAndArtistId(request.title(), artist.getId())).thenReturn(false);
         when(mapper.toSongEntity(request, artist)).thenReturn(song);
         when(repository.save(song)).thenReturn(song);
         when(mapper.toResponse(song)).thenReturn(expectedResponse);
 
-        SongResponse response = songService.createSong(request, String.valueOf(artistUser.getId()));
+        SongResponse response = songService.createSong(request, artistUser);
 
         assertEquals("Canción registrada exitosamente", response.message());
         assertEquals(request.title(), response.title());
@@ -121,11 +118,10 @@ class SongServiceUnitTest {
     void createSongTitleDuplicateThrows() {
         SongRequest request = new SongRequest("Grenade", true,  "", "",artist.getId());
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.existsByTitleIgnoreCaseAndArtistId(request.title(), artist.getId())).thenReturn(true);
 
-        assertThrows(SongAlreadyExistException.class, () -> songService.createSong(request, String.valueOf(adminUser.getId())));
+        assertThrows(SongAlreadyExistException.class, () -> songService.createSong(request, adminUser));
         verify(repository, never()).save(any());
     }
 
@@ -141,12 +137,11 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
         when(artistRepository.findById(request.artistId())).thenReturn(Optional.of(artist));
         when(repository.save(song)).thenReturn(song);
 
-        SongResponse response = songService.updateSong(songId, request, String.valueOf(adminUser.getId()));
+        SongResponse response = songService.updateSong(songId, request, adminUser);
 
         assertEquals(request.title(), response.title());
         assertEquals("La canción ha sido actualizada correctamente.", response.message());
@@ -164,12 +159,11 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.save(song)).thenReturn(song);
 
-        SongResponse response = songService.updateSong(songId, request, String.valueOf(artistUser.getId()));
+        SongResponse response = songService.updateSong(songId, request, artistUser);
 
         assertEquals(request.title(), response.title());
         assertEquals("La canción ha sido actualizada correctamente.", response.message());
@@ -181,11 +175,10 @@ class SongServiceUnitTest {
         Long songId = 99L;
         SongRequest request = new SongRequest("Locked Out of Heaven", true, "", "", artist.getId());
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(repository.findById(songId)).thenReturn(Optional.empty());
 
         SongNotFoundException exception = assertThrows(SongNotFoundException.class,
-                () -> songService.updateSong(songId, request, String.valueOf(adminUser.getId())));
+                () -> songService.updateSong(songId, request, adminUser));
 
         assertEquals("Canción no encontrada", exception.getMessage());
         verify(repository, never()).save(any());
@@ -201,10 +194,9 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
 
-        SongResponse response = songService.deleteSong(songId, String.valueOf(adminUser.getId()));
+        SongResponse response = songService.deleteSong(songId, adminUser);
 
         assertEquals("La canción ha sido eliminada correctamente.", response.message());
         verify(repository).delete(song);
@@ -220,11 +212,10 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
 
-        SongResponse response = songService.deleteSong(songId, String.valueOf(artistUser.getId()));
+        SongResponse response = songService.deleteSong(songId, artistUser);
 
         assertEquals("La canción ha sido eliminada correctamente.", response.message());
         verify(repository).delete(song);
@@ -235,11 +226,10 @@ class SongServiceUnitTest {
     void deleteSongNotFoundThrows() {
         Long songId = 999L;
 
-        when(userRepository.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
         when(repository.findById(songId)).thenReturn(Optional.empty());
 
         SongNotFoundException exception = assertThrows(SongNotFoundException.class,
-                () -> songService.deleteSong(songId, String.valueOf(adminUser.getId())));
+                () -> songService.deleteSong(songId, adminUser));
 
         assertEquals("La canción no se encontró.", exception.getMessage());
     }
@@ -255,12 +245,10 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.empty());
 
         ArtistNotFoundException exception = assertThrows(ArtistNotFoundException.class,
-                () -> songService.updateSong(songId, request, String.valueOf(artistUser.getId())));
+                () -> songService.updateSong(songId, request, withoutProfile));
 
         assertEquals("No tienes un perfil de artista.", exception.getMessage());
         verify(repository, never()).save(any());
@@ -278,12 +266,11 @@ class SongServiceUnitTest {
         song.setArtist(anotherArtist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
 
         AccessDeniedException exception = assertThrows(AccessDeniedException.class,
-                () -> songService.updateSong(songId, request, String.valueOf(artistUser.getId())));
+                () -> songService.updateSong(songId, request, artistUser));
 
         assertEquals("No puedes modificar esta canción.", exception.getMessage());
         verify(repository, never()).save(any());
@@ -299,12 +286,10 @@ class SongServiceUnitTest {
         song.setArtist(artist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.empty());
 
         ArtistNotFoundException exception = assertThrows(ArtistNotFoundException.class,
-                () -> songService.deleteSong(songId, String.valueOf(artistUser.getId())));
+                () -> songService.deleteSong(songId, withoutProfile));
 
         assertEquals("No tienes un perfil de artista.", exception.getMessage());
         verify(repository, never()).delete(any());
@@ -322,12 +307,11 @@ class SongServiceUnitTest {
         song.setArtist(anotherArtist);
         song.setReleaseDate(LocalDate.now());
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
         when(repository.findById(songId)).thenReturn(Optional.of(song));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
 
         AccessDeniedException exception = assertThrows(AccessDeniedException.class,
-                () -> songService.deleteSong(songId, String.valueOf(artistUser.getId())));
+                () -> songService.deleteSong(songId, artistUser));
 
         assertEquals("No puedes eliminar esta canción.", exception.getMessage());
         verify(repository, never()).delete(any());
@@ -345,12 +329,11 @@ class SongServiceUnitTest {
                 song.getId(), song.getTitle(), song.isPublicSong(), song.getReleaseDate(),
                 "Canción registrada exitosamente", artist.getId(), artist.getName(), "", "");
 
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.findAllByArtistId(artist.getId())).thenReturn(List.of(song));
         when(mapper.toResponse(song)).thenReturn(expectedResponse);
 
-        List<SongResponse> responseList = songService.getSongsByUser(String.valueOf(artistUser.getId()));
+        List<SongResponse> responseList = songService.getSongsByUser(artistUser);
 
         assertEquals(1, responseList.size());
         assertEquals("Uptown Funk", responseList.get(0).title());
@@ -360,12 +343,11 @@ class SongServiceUnitTest {
     @Test
     @DisplayName("CP02 - HU30 - Listar canciones como Artista pero no tiene canciones registradas")
     void getSongsByArtistWithoutSongsThrows() {
-        when(userRepository.findById(artistUser.getId())).thenReturn(Optional.of(artistUser));
-        when(artistRepository.findByUserId(artistUser.getId())).thenReturn(Optional.of(artist));
+        when(artistRepository.findById(artist.getId())).thenReturn(Optional.of(artist));
         when(repository.findAllByArtistId(artist.getId())).thenReturn(List.of());
 
         SongNotFoundException exception = assertThrows(SongNotFoundException.class,
-                () -> songService.getSongsByUser(String.valueOf(artistUser.getId())));
+                () -> songService.getSongsByUser(artistUser));
 
         assertEquals("Aún no has registrado canciones.", exception.getMessage());
     }
@@ -380,16 +362,17 @@ class SongServiceUnitTest {
 
         SongResponse expectedResponse = new SongResponse(
                 song.getId(), song.getTitle(), song.isPublicSong(), song.getReleaseDate(),
-                "Canción registrada exitosamente", artist.getId(), artist.getName(), "", "");
+                null, artist.getId(), artist.getName(), "", "");
 
-        when(repository.findByTitleContainingIgnoreCaseAndIsPublicSongTrue("Moon")).thenReturn(List.of(song));
-        when(mapper.toResponse(song)).thenReturn(expectedResponse);
+        when(catalogSearchService.searchPublicSongIds("Moon", 0, null)).thenReturn(List.of(2L));
+        when(repository.findPublicResponsesByIds(List.of(2L))).thenReturn(List.of(expectedResponse));
 
-        List<SongResponse> result = songService.searchPublicSongsByTitle("Moon");
+        List<SongResponse> result = songService.searchPublicSongsByTitle("Moon", 0, null);
 
         assertEquals(1, result.size());
         assertEquals("Talking to the Moon", result.get(0).title());
-        verify(repository).findByTitleContainingIgnoreCaseAndIsPublicSongTrue("Moon");
+        verify(repository).findPublicResponsesByIds(List.of(2L));
+        verifyNoInteractions(mapper);
     }
 
     @Test
@@ -397,11 +380,32 @@ class SongServiceUnitTest {
     void searchPublicSongsByTitleNotFoundThrows() {
         String title = "Inexistente";
 
-        when(repository.findByTitleContainingIgnoreCaseAndIsPublicSongTrue(title)).thenReturn(List.of());
+        when(catalogSearchService.searchPublicSongIds(title, 0, null)).thenReturn(List.of());
 
         SongNotFoundException exception = assertThrows(SongNotFoundException.class,
-                () -> songService.searchPublicSongsByTitle(title));
+                () -> songService.searchPublicSongsByTitle(title, 0, null));
+        verify(repository, never()).findPublicResponsesByIds(anyCollection());
 
         assertEquals("No existe la canción buscada.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Listar canciones paginadas devuelve cursor a la siguiente página")
+    void getAllSongsReturnsNextCursorWhenMoreRowsExist() {
+        Song first = new Song("Grenade", true, "", "");
+        first.setId(5L);
+        first.setArtist(artist);
+        Song second = new Song("Locked Out of Heaven", true, "", "");
+        second.setId(8L);
+        second.setArtist(artist);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(3L, Limit.of(2))).thenReturn(List.of(first, second));
+        when(mapper.toResponse(first)).thenReturn(mock(SongResponse.class));
+
+        CursorPageResponse<SongResponse> page = songService.getAllSongs(Cursor.encode(3L), 1);
+
+        assertEquals(1, page.items().size());
+        assertEquals(5L, Cursor.afterId(page.next()));
+        verify(mapper, never()).toResponse(second);
+    }
+}